@@ -25,8 +25,32 @@ CREATE TABLE IF NOT EXISTS books (
     price DECIMAL(10,2) NOT NULL,
     stock_quantity INT NOT NULL,
     description TEXT,
+    category VARCHAR(255),
+    language VARCHAR(255),
+    cover_image_url VARCHAR(255),
+    total_quantity INT,
+    borrowed_quantity INT,
+    location VARCHAR(255),
+    status VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0,
+    last_modified DATETIME(6),
     INDEX idx_title (title),
     INDEX idx_author (author),
     INDEX idx_publisher (publisher),
     INDEX idx_isbn (isbn)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 创建借阅表
+CREATE TABLE IF NOT EXISTS borrowings (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    book_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    borrow_date DATETIME(6) NOT NULL,
+    due_date DATETIME(6) NOT NULL,
+    return_date DATETIME(6),
+    status VARCHAR(255) NOT NULL,
+    notes VARCHAR(255),
+    INDEX idx_borrowings_status_due_date (status, due_date),
+    CONSTRAINT fk_borrowings_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_borrowings_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
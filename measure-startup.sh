@@ -0,0 +1,40 @@
+#!/bin/bash
+
+# 图书管理系统 - 启动耗时测量脚本
+# 测量从启动 JVM 到第一个请求成功返回的时间（time-to-first-request），重复多次取各次结果
+#
+# 用法: ./measure-startup.sh [次数] [启动命令...]
+#   ./measure-startup.sh 5
+#   ./measure-startup.sh 5 java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar
+# 环境变量 URL 指定探测的地址，默认公开的图书列表接口
+
+RUNS=${1:-3}
+shift
+if [ $# -eq 0 ]; then
+    set -- java -jar target/library-management-system-1.0.0.jar
+fi
+URL=${URL:-http://localhost:8080/api/books?page=0&size=1}
+LOG=${LOG:-/tmp/measure-startup.log}
+
+echo "=== 启动耗时测量: $* ==="
+
+for i in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    "$@" > "$LOG" 2>&1 &
+    pid=$!
+
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "应用启动失败，日志: $LOG"
+            exit 1
+        fi
+        sleep 0.05
+    done
+    end=$(date +%s%N)
+
+    started=$(grep -o "Started [A-Za-z]* in [0-9.]* seconds" "$LOG" | grep -o "[0-9.]* seconds")
+    echo "第 $i 次: 首个请求 $(( (end - start) / 1000000 )) ms, 上下文就绪 ${started:-未知}"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+done
@@ -0,0 +1,120 @@
+package com.example.library.benchmark;
+
+import com.example.library.LibraryManagementApplication;
+import com.example.library.util.JwtUtil;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 在不启动 Spring 容器的情况下构造被测组件，按字段名注入 @Value/@Autowired 依赖。
+ */
+final class BenchmarkSupport {
+
+    static final String JWT_SECRET = "libraryManagementSystemSecretKey2024VeryLongAndSecure";
+
+    private static final int SEED_BATCH_SIZE = 5000;
+
+    private static final String[] TITLES = {
+        "Java编程思想", "Spring实战", "Python数据分析", "算法导论", "深度学习",
+        "机器学习实战", "数据结构与算法", "设计模式", "代码整洁之道", "重构",
+        "微服务架构设计", "分布式系统原理", "数据库系统概念", "计算机网络", "操作系统概念"
+    };
+
+    private static final String[] AUTHORS = {
+        "Bruce Eckel", "Craig Walls", "Wes McKinney", "Thomas Cormen", "Ian Goodfellow",
+        "Robert Sedgewick", "Erich Gamma", "Robert Martin", "Martin Fowler", "Andrew Tanenbaum"
+    };
+
+    private static final String[] PUBLISHERS = {
+        "机械工业出版社", "电子工业出版社", "清华大学出版社", "人民邮电出版社", "O'Reilly Media", "Addison-Wesley"
+    };
+
+    private BenchmarkSupport() {}
+
+    /**
+     * 以 H2 内存库启动完整应用（不启动 Web 容器），关闭 SQL 日志以免干扰测量。
+     * 以命令行参数传入，优先级高于 application.properties（builder 的 properties 只是默认值，会被覆盖）。
+     */
+    static ConfigurableApplicationContext startApplication(String databaseName) {
+        return new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .run(
+                    "--spring.main.web-application-type=none",
+                    "--spring.main.banner-mode=off",
+                    "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.jpa.properties.hibernate.format_sql=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.example.library=WARN",
+                    "--logging.level.org.springframework.security=WARN",
+                    "--logging.level.org.hibernate.SQL=WARN",
+                    "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+    }
+
+    /**
+     * 用 JDBC 批量插入补足到 count 本图书，固定随机种子保证每次数据一致。
+     */
+    static void seedBooks(ConfigurableApplicationContext context, int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = existing == null ? 0 : existing; i < count; i++) {
+            String title = TITLES[random.nextInt(TITLES.length)] + " 第" + (i % 10 + 1) + "版";
+            batch.add(new Object[] {
+                "BENCH-" + i, title,
+                AUTHORS[random.nextInt(AUTHORS.length)],
+                PUBLISHERS[random.nextInt(PUBLISHERS.length)],
+                2000 + random.nextInt(24), 29.99 + random.nextInt(170), random.nextInt(100),
+                "这是一本关于" + title + "的优秀图书。"
+            });
+            if (batch.size() == SEED_BATCH_SIZE) {
+                insertBooks(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBooks(jdbcTemplate, batch);
+        }
+    }
+
+    private static void insertBooks(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO books (isbn, title, author, publisher, publish_year, price, "
+                + "stock_quantity, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    static JwtUtil jwtUtil(long verifiedCacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        inject(jwtUtil, "secret", JWT_SECRET);
+        inject(jwtUtil, "expiration", 86400000L);
+        inject(jwtUtil, "verifiedCacheSize", verifiedCacheSize);
+        invoke(jwtUtil, "init");
+        return jwtUtil;
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法注入字段 " + fieldName, e);
+        }
+    }
+
+    static void invoke(Object target, String methodName) {
+        try {
+            Method method = target.getClass().getDeclaredMethod(methodName);
+            method.setAccessible(true);
+            method.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法调用方法 " + methodName, e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.library.benchmark;
+
+import com.example.library.cache.BookCache;
+import com.example.library.model.Book;
+import com.example.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 书单页按 ID / ISBN 取 N 本书：逐本调用 findBookById 与一次 findBooksByIds（按块 IN 查询）的对比。
+ * *Cold 每次调用前清空图书缓存，衡量的是数据库往返；batchWarm 为全部命中缓存。
+ * 轮换多组 ID，避免 H2 对参数相同的查询直接返回上次结果。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx2g" })
+@State(Scope.Benchmark)
+public class BookBatchLookupBenchmark {
+
+    private static final int ROTATION = 8;
+
+    @Param({ "100", "1000" })
+    private int lookupCount;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private BookCache bookCache;
+    private final List<List<Long>> idSets = new ArrayList<>();
+    private final List<List<String>> isbnSets = new ArrayList<>();
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("batch" + lookupCount);
+        BenchmarkSupport.seedBooks(context, 100_000);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int i = 0; i < ROTATION; i++) {
+            List<Long> ids = new ArrayList<>();
+            List<String> isbns = new ArrayList<>();
+            jdbcTemplate.query("SELECT id, isbn FROM books ORDER BY RAND() LIMIT ?", rs -> {
+                ids.add(rs.getLong(1));
+                isbns.add(rs.getString(2));
+            }, lookupCount);
+            idSets.add(ids);
+            isbnSets.add(isbns);
+        }
+        bookService = context.getBean(BookService.class);
+        bookCache = context.getBean(BookCache.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleLookupsCold(Blackhole blackhole) {
+        bookCache.invalidateAll();
+        for (Long id : idSets.get(++round % ROTATION)) {
+            Optional<Book> book = bookService.findBookById(id);
+            blackhole.consume(book);
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Book> batchCold() {
+        bookCache.invalidateAll();
+        return bookService.findBooksByIds(idSets.get(++round % ROTATION));
+    }
+
+    @Benchmark
+    public Map<String, Book> isbnBatchCold() {
+        bookCache.invalidateAll();
+        return bookService.findBooksByIsbns(isbnSets.get(++round % ROTATION));
+    }
+
+    @Benchmark
+    public Map<Long, Book> batchWarm() {
+        return bookService.findBooksByIds(idSets.get(++round % ROTATION));
+    }
+}
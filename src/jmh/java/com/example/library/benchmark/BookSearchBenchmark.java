@@ -0,0 +1,89 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import com.example.library.search.BookSearchIndex;
+import com.example.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookService.searchBooks 在不同馆藏规模下的延迟，对比倒排索引与原 LIKE 查询。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx6g" })
+@State(Scope.Benchmark)
+public class BookSearchBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    private int catalogueSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private BookRepository bookRepository;
+    private BookSearchIndex bookSearchIndex;
+    private final Pageable firstPage = PageRequest.of(0, 12, Sort.by("title"));
+    private final Pageable relevancePage = PageRequest.of(0, 12, Sort.by(BookSearchIndex.SORT_RELEVANCE));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("search" + catalogueSize);
+        BenchmarkSupport.seedBooks(context, catalogueSize);
+        context.getBean(BookSearchIndex.class).rebuild();
+        bookService = context.getBean(BookService.class);
+        bookRepository = context.getBean(BookRepository.class);
+        bookSearchIndex = context.getBean(BookSearchIndex.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> indexedTitleSearch() {
+        return bookService.searchBooks("设计模式", null, null, null, firstPage);
+    }
+
+    /** 只测索引检索本身（不含按 ID 加载实体） */
+    @Benchmark
+    public Page<Long> indexOnlyTitleSearch() {
+        return bookSearchIndex.search(null, "设计模式", null, null, null, firstPage);
+    }
+
+    @Benchmark
+    public Page<Book> indexedKeywordSearch() {
+        return bookService.searchBooks("java 第3版", null, null, null, null, relevancePage);
+    }
+
+    @Benchmark
+    public Page<Book> indexedSelectiveSearch() {
+        return bookService.searchBooks("算法", "cormen", "清华", null, firstPage);
+    }
+
+    @Benchmark
+    public Page<Book> databaseTitleSearch() {
+        return bookRepository.findByMultipleConditions("设计模式", null, null, null, firstPage);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.library.benchmark;
+
+import com.example.library.dto.BorrowingBatchRequest;
+import com.example.library.dto.BorrowingBatchResult;
+import com.example.library.model.Book;
+import com.example.library.model.Borrowing;
+import com.example.library.model.User;
+import com.example.library.service.BorrowingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一摞书的借还：逐本调用 borrowBook/returnBook 与 borrowBooks/returnBooks 各一次的对比。
+ * 每次操作借出 stackSize 本并随即全部归还，吞吐量单位为“摞/秒”，乘以 stackSize 即每秒借出本数。
+ * desk* 为单个柜台连续办理；kiosk* 为 16 台自助借还机同时办理，图书集中在少量热门书上，
+ * 各摞之间共享锁分段与图书行。每轮结束后核对全部借阅已归还、库存恢复原值。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx2g" })
+@State(Scope.Benchmark)
+public class BorrowingBatchBenchmark {
+
+    private static final int HOT_BOOKS = 64;
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    @Param({ "5", "10" })
+    private int stackSize;
+
+    private ConfigurableApplicationContext context;
+    private BorrowingService borrowingService;
+    private JdbcTemplate jdbcTemplate;
+    private long[] bookIds;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("borrowBatch" + stackSize);
+        borrowingService = context.getBean(BorrowingService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        bookIds = new long[HOT_BOOKS];
+        for (int i = 0; i < HOT_BOOKS; i++) {
+            jdbcTemplate.update("INSERT INTO books (isbn, title, author, publisher, publish_year, price, "
+                + "stock_quantity, borrowed_quantity) VALUES (?, ?, 'Desk', 'Desk', 2024, 1.0, ?, 0)",
+                "DESK-" + i, "柜台图书 " + i, INITIAL_STOCK);
+            bookIds[i] = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, "DESK-" + i);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyInventory() {
+        Long open = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM borrowings b JOIN books k ON k.id = b.book_id "
+                + "WHERE k.isbn LIKE 'DESK-%' AND b.status <> 'RETURNED'", Long.class);
+        Long drift = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM books WHERE isbn LIKE 'DESK-%' AND stock_quantity <> ?", Long.class, INITIAL_STOCK);
+        if (open == null || open != 0 || drift == null || drift != 0) {
+            throw new IllegalStateException("借还后库存未恢复: 未归还记录 " + open + ", 库存不符的图书 " + drift);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int deskSingle() {
+        return singleItems();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BorrowingBatchResult deskBatch() {
+        return batch();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public int kioskSingle() {
+        return singleItems();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public BorrowingBatchResult kioskBatch() {
+        return batch();
+    }
+
+    private int singleItems() {
+        List<Long> borrowingIds = new ArrayList<>(stackSize);
+        for (Long bookId : stack()) {
+            Borrowing borrowing = new Borrowing();
+            Book book = new Book();
+            book.setId(bookId);
+            User user = new User();
+            user.setId(userId);
+            borrowing.setBook(book);
+            borrowing.setUser(user);
+            borrowingIds.add(borrowingService.borrowBook(borrowing).getId());
+        }
+        for (Long borrowingId : borrowingIds) {
+            borrowingService.returnBook(borrowingId);
+        }
+        return borrowingIds.size();
+    }
+
+    private BorrowingBatchResult batch() {
+        BorrowingBatchResult borrowed = borrowingService.borrowBooks(userId, stack(), null,
+            BorrowingBatchRequest.Mode.ALL_OR_NOTHING);
+        List<Long> borrowingIds = new ArrayList<>(stackSize);
+        for (BorrowingBatchResult.Item item : borrowed.getItems()) {
+            borrowingIds.add(item.getBorrowing().getId());
+        }
+        return borrowingService.returnBooks(borrowingIds, BorrowingBatchRequest.Mode.ALL_OR_NOTHING);
+    }
+
+    private List<Long> stack() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> stack = new ArrayList<>(stackSize);
+        for (int i = 0; i < stackSize; i++) {
+            stack.add(bookIds[random.nextInt(HOT_BOOKS)]);
+        }
+        return stack;
+    }
+}
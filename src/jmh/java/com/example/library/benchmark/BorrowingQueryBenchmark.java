@@ -0,0 +1,159 @@
+package com.example.library.benchmark;
+
+import com.example.library.dto.BorrowingView;
+import com.example.library.model.Borrowing;
+import com.example.library.monitoring.QueryCounter;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.KeysetSupport;
+import com.example.library.repository.BorrowingRepository;
+import com.example.library.service.BorrowingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 借阅列表接口的延迟与 SQL 条数。每次调用都核对语句数：分页查询至多 2 条（数据 + COUNT），
+ * 列表和游标查询 1 条，超出即视为 N+1 回归，抛出异常使本次基准失败。
+ * entityPageWithLazyAccess 为改造前的做法（加载实体后逐行访问懒加载的图书和用户），只作对比，不校验。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx2g" })
+@State(Scope.Benchmark)
+public class BorrowingQueryBenchmark {
+
+    private static final int USERS = 200;
+    private static final int BOOKS = 2000;
+    private static final int BORROWINGS = 20000;
+
+    private ConfigurableApplicationContext context;
+    private BorrowingService borrowingService;
+    private BorrowingRepository borrowingRepository;
+    private QueryCounter queryCounter;
+    private TransactionTemplate readOnly;
+    private long userId;
+    private long bookId;
+    private final Pageable secondPage = PageRequest.of(1, 20, Sort.by("id").descending());
+    private final Pageable overduePage = PageRequest.of(1, 20, Sort.by("dueDate").ascending());
+    private final Sort keysetSort = KeysetSupport.keysetSort("borrowDate", "desc", BorrowingService.KEYSET_SORTABLE);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("borrowings");
+        BenchmarkSupport.seedBooks(context, BOOKS);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[] { "bench" + i, "{noop}x", "READER", "bench" + i + "@example.com" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, role, email) VALUES (?, ?, ?, ?)", users);
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        List<Long> bookIds = jdbcTemplate.queryForList("SELECT id FROM books ORDER BY id", Long.class);
+
+        Random random = new Random(42);
+        String[] statuses = { "BORROWED", "RETURNED", "OVERDUE" };
+        LocalDateTime base = LocalDateTime.now().minusDays(60).withNano(0);
+        List<Object[]> borrowings = new ArrayList<>(BORROWINGS);
+        for (int i = 0; i < BORROWINGS; i++) {
+            LocalDateTime borrowDate = base.plusMinutes(random.nextInt(60 * 24 * 60));
+            borrowings.add(new Object[] {
+                bookIds.get(random.nextInt(bookIds.size())), userIds.get(random.nextInt(userIds.size())),
+                borrowDate, borrowDate.plusDays(30), statuses[random.nextInt(statuses.length)]
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO borrowings (book_id, user_id, borrow_date, due_date, status) "
+                + "VALUES (?, ?, ?, ?, ?)", borrowings);
+        userId = userIds.get(0);
+        bookId = bookIds.get(0);
+
+        borrowingService = context.getBean(BorrowingService.class);
+        borrowingRepository = context.getBean(BorrowingRepository.class);
+        queryCounter = context.getBean(QueryCounter.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BorrowingView> allBorrowings() {
+        return expectQueries("findAllBorrowings", 2, () -> borrowingService.findAllBorrowings(secondPage));
+    }
+
+    @Benchmark
+    public Page<BorrowingView> byUser() {
+        return expectQueries("findBorrowingsByUser", 2, () -> borrowingService.findBorrowingsByUser(userId, secondPage));
+    }
+
+    @Benchmark
+    public List<BorrowingView> byBook() {
+        return expectQueries("findBorrowingsByBook", 1, () -> borrowingService.findBorrowingsByBook(bookId));
+    }
+
+    @Benchmark
+    public Page<BorrowingView> overdue() {
+        return expectQueries("findOverdueBorrowings", 2, () -> borrowingService.findOverdueBorrowings(overduePage));
+    }
+
+    @Benchmark
+    public Page<BorrowingView> active() {
+        return expectQueries("findActiveBorrowings", 2, () -> borrowingService.findActiveBorrowings(overduePage));
+    }
+
+    @Benchmark
+    public CursorPage<BorrowingView> scroll() {
+        return expectQueries("scrollBorrowings", 1, () -> borrowingService.scrollBorrowings("", 20, keysetSort));
+    }
+
+    /** 改造前：分页加载实体，序列化时逐行触发图书和用户的懒加载 */
+    @Benchmark
+    public List<String> entityPageWithLazyAccess() {
+        return readOnly.execute(status -> {
+            List<String> rows = new ArrayList<>();
+            for (Borrowing borrowing : borrowingRepository.findAll(secondPage)) {
+                rows.add(borrowing.getBook().getTitle() + borrowing.getUser().getUsername());
+            }
+            return rows;
+        });
+    }
+
+    private <T> T expectQueries(String operation, int maxQueries, Supplier<T> call) {
+        long before = queryCounter.current();
+        T result = call.get();
+        long executed = queryCounter.current() - before;
+        if (executed > maxQueries) {
+            throw new IllegalStateException(operation + " 执行了 " + executed + " 条 SQL，上限 " + maxQueries
+                + "，可能出现了 N+1 查询");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.library.benchmark;
+
+import com.example.library.search.BookSearchIndex;
+import com.example.library.search.FacetField;
+import com.example.library.search.FacetFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分面统计的延迟：检索索引上的位图求交计数，对比每个分面字段一条 GROUP BY 查询。
+ * 只测统计与 ID 分页，不含按 ID 加载实体；*Search 为不带统计的同一检索，两者之差即统计本身的开销。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx6g" })
+@State(Scope.Benchmark)
+public class FacetSearchBenchmark {
+
+    private static final Set<FacetField> ALL_FACETS = EnumSet.allOf(FacetField.class);
+    private static final String[] FACET_COLUMNS = { "category", "language", "publisher", "publish_year", "status" };
+
+    @Param({ "100000", "1000000" })
+    private int catalogueSize;
+
+    private ConfigurableApplicationContext context;
+    private BookSearchIndex bookSearchIndex;
+    private JdbcTemplate jdbcTemplate;
+    private final Pageable firstPage = PageRequest.of(0, 12, Sort.by("title"));
+    /** H2 对参数相同且表未修改的查询直接返回上次结果，每次换一个参数 */
+    private long round;
+    private final FacetFilter drillDown = FacetFilter.parse(List.of(
+        "language:中文", "publishYear:2020", "publishYear:2021"));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("facets" + catalogueSize);
+        BenchmarkSupport.seedBooks(context, catalogueSize);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("UPDATE books SET category = CONCAT('分类', MOD(id * 7, 40)), "
+            + "language = CASE WHEN MOD(id, 3) = 0 THEN '英文' ELSE '中文' END, "
+            + "status = CASE WHEN MOD(id, 50) = 0 THEN 'LOST' ELSE 'AVAILABLE' END");
+        for (String column : FACET_COLUMNS) {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_books_" + column + " ON books (" + column + ")");
+        }
+        bookSearchIndex = context.getBean(BookSearchIndex.class);
+        bookSearchIndex.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Long> catalogueSearch() {
+        return bookSearchIndex.search(null, null, null, null, null, FacetFilter.NONE, Set.of(), firstPage);
+    }
+
+    /** 整个馆藏五个分面的计数 */
+    @Benchmark
+    public Page<Long> catalogueFacets() {
+        return bookSearchIndex.search(null, null, null, null, null, FacetFilter.NONE, ALL_FACETS, firstPage);
+    }
+
+    @Benchmark
+    public Page<Long> keywordSearch() {
+        return bookSearchIndex.search("算法", null, null, null, null, FacetFilter.NONE, Set.of(), firstPage);
+    }
+
+    @Benchmark
+    public Page<Long> keywordFacets() {
+        return bookSearchIndex.search("算法", null, null, null, null, FacetFilter.NONE, ALL_FACETS, firstPage);
+    }
+
+    @Benchmark
+    public Page<Long> drillDownSearch() {
+        return bookSearchIndex.search("算法", null, null, null, null, drillDown, Set.of(), firstPage);
+    }
+
+    /** 关键词 + 语言、年份筛选，各分面按“排除自身筛选”分别计数 */
+    @Benchmark
+    public Page<Long> drillDownFacets() {
+        return bookSearchIndex.search("算法", null, null, null, null, drillDown, ALL_FACETS, firstPage);
+    }
+
+    @Benchmark
+    public void databaseCatalogueGroupBy(Blackhole blackhole) {
+        for (String column : FACET_COLUMNS) {
+            blackhole.consume(jdbcTemplate.queryForList(
+                "SELECT " + column + ", COUNT(*) FROM books WHERE id > ? GROUP BY " + column, -(++round)));
+        }
+    }
+
+    @Benchmark
+    public void databaseKeywordGroupBy(Blackhole blackhole) {
+        for (String column : FACET_COLUMNS) {
+            blackhole.consume(jdbcTemplate.queryForList("SELECT " + column + ", COUNT(*) FROM books "
+                + "WHERE id > ? AND (LOWER(title) LIKE ? OR LOWER(author) LIKE ? OR LOWER(publisher) LIKE ?) "
+                + "GROUP BY " + column, -(++round), "%算法%", "%算法%", "%算法%"));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.library.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 闭环 HTTP 压测：clients 个并发客户端各自收到响应后立即发下一个请求，统计吞吐量与延迟分位数。
+ * 对已启动的应用施压（不在进程内启动应用），用于比较平台线程与虚拟线程两种请求执行模式。
+ * 只依赖 JDK；客户端使用异步 HttpClient，5000 个并发客户端也不需要 5000 个线程。
+ * <pre>
+ * mvn -Pjmh compile
+ * java -cp target/classes com.example.library.benchmark.HttpLoadTest \
+ *     --url=http://localhost:8080 --clients=1000 --duration=60 --warmup=15
+ * </pre>
+ * 请求在 /api/books 分页、/api/books/{id} 与需要登录的 /api/borrowings 之间轮换。
+ * 所有请求来自同一 IP 和同一用户，被测应用须以 --library.ratelimit.enabled=false 启动，否则大部分请求返回 429。
+ * 开发配置的 DEBUG 日志和慢请求日志也要关闭（参数见 README），否则测到的主要是日志输出。
+ */
+public final class HttpLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final int MAX_SAMPLES = 5_000_000;
+
+    private final String baseUrl;
+    private final int clients;
+    private final HttpClient client;
+    private final String token;
+
+    private final long[] samples = new long[MAX_SAMPLES];
+    private final AtomicInteger sampleCount = new AtomicInteger();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    private HttpLoadTest(String baseUrl, int clients, String username, String password) throws Exception {
+        this.baseUrl = baseUrl;
+        this.clients = clients;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors())))
+                .build();
+        this.token = login(username, password);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("url", "http://localhost:8080");
+        options.put("clients", "1000");
+        options.put("duration", "60");
+        options.put("warmup", "15");
+        options.put("username", "admin");
+        options.put("password", "admin123");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("参数格式为 --name=value: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        HttpLoadTest test = new HttpLoadTest(options.get("url"), Integer.parseInt(options.get("clients")),
+                options.get("username"), options.get("password"));
+        test.run(Integer.parseInt(options.get("warmup")), Integer.parseInt(options.get("duration")));
+        System.exit(0);
+    }
+
+    private void run(int warmupSeconds, int durationSeconds) throws InterruptedException {
+        CountDownLatch stopped = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            next(stopped);
+        }
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        errors.reset();
+        recording = true;
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        recording = false;
+        long elapsed = System.nanoTime() - start;
+        running = false;
+        stopped.await(60, TimeUnit.SECONDS);
+        report(elapsed);
+    }
+
+    private void next(CountDownLatch stopped) {
+        if (!running) {
+            stopped.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(randomRequest(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (recording) {
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.increment();
+                        } else {
+                            int index = sampleCount.getAndIncrement();
+                            if (index < MAX_SAMPLES) {
+                                samples[index] = System.nanoTime() - start;
+                            }
+                        }
+                    }
+                    next(stopped);
+                });
+    }
+
+    private HttpRequest randomRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path;
+        boolean authenticated = false;
+        switch (random.nextInt(3)) {
+            case 0 -> path = "/api/books?page=" + random.nextInt(20) + "&size=20";
+            case 1 -> path = "/api/books/" + (1 + random.nextInt(1000));
+            default -> {
+                path = "/api/borrowings?page=0&size=20";
+                authenticated = true;
+            }
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30)).GET();
+        if (authenticated) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private String login(String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = TOKEN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("登录失败: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private void report(long elapsedNanos) {
+        int count = Math.min(sampleCount.get(), MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("clients=%d, duration=%.0fs%n", clients, seconds);
+        System.out.printf("throughput: %.0f req/s (%d ok, %d errors)%n", count / seconds, count, errors.sum());
+        System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                count == 0 ? 0.0 : sorted[count - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Book;
+import com.example.library.model.Borrowing;
+import com.example.library.model.User;
+import com.example.library.service.BorrowingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 借还书压力测试：多线程集中借还少量热门图书，测量吞吐量。正确性由 src/test 中的 BorrowingConcurrencyTest 保证，
+ * 这里每轮结束后仍核对库存不变量，出现超借或丢失更新时抛出异常使本次基准失败：
+ * <ul>
+ *   <li>stock_quantity + borrowed_quantity 等于初始库存，且 stock_quantity 不为负；</li>
+ *   <li>borrowed_quantity 等于该书未归还借阅记录数；</li>
+ *   <li>成功借出次数减成功归还次数等于未归还借阅记录总数。</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx2g" })
+@Threads(64)
+@State(Scope.Benchmark)
+public class InventoryStressBenchmark {
+
+    /** 库存较小，借光后继续借，检验不会超借 */
+    private static final int INITIAL_STOCK = 500;
+
+    @Param({ "1", "16" })
+    private int hotBooks;
+
+    private ConfigurableApplicationContext context;
+    private BorrowingService borrowingService;
+    private JdbcTemplate jdbcTemplate;
+    private long[] bookIds;
+    private long userId;
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder returned = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("inventory" + hotBooks);
+        borrowingService = context.getBean(BorrowingService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        bookIds = new long[hotBooks];
+        for (int i = 0; i < hotBooks; i++) {
+            jdbcTemplate.update("INSERT INTO books (isbn, title, author, publisher, publish_year, price, "
+                + "stock_quantity, borrowed_quantity) VALUES (?, ?, 'Stress', 'Stress', 2024, 1.0, ?, 0)",
+                "STRESS-" + i, "热门图书 " + i, INITIAL_STOCK);
+            bookIds[i] = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, "STRESS-" + i);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetInventory() {
+        jdbcTemplate.update("DELETE FROM borrowings");
+        for (long bookId : bookIds) {
+            jdbcTemplate.update("UPDATE books SET stock_quantity = ?, borrowed_quantity = 0 WHERE id = ?",
+                INITIAL_STOCK, bookId);
+        }
+        borrowed.reset();
+        returned.reset();
+        rejected.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyInventory() {
+        for (long bookId : bookIds) {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT stock_quantity, borrowed_quantity FROM books WHERE id = ?", bookId);
+            int stock = ((Number) row.get("stock_quantity")).intValue();
+            int out = ((Number) row.get("borrowed_quantity")).intValue();
+            Long active = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM borrowings WHERE book_id = ? AND status <> 'RETURNED'", Long.class, bookId);
+            if (stock < 0 || stock + out != INITIAL_STOCK || active == null || active != out) {
+                throw new IllegalStateException("库存不一致，图书ID " + bookId + ": stock=" + stock
+                    + ", borrowed=" + out + ", 未归还记录=" + active);
+            }
+        }
+        Long active = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM borrowings WHERE status <> 'RETURNED'", Long.class);
+        if (active == null || active != borrowed.sum() - returned.sum()) {
+            throw new IllegalStateException("借还计数不一致: 借出 " + borrowed.sum() + ", 归还 " + returned.sum()
+                + ", 未归还记录 " + active);
+        }
+        System.out.printf("%n借出 %d，归还 %d，库存不足被拒 %d，校验通过%n",
+            borrowed.sum(), returned.sum(), rejected.sum());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** 借后立即归还，库存始终可用 */
+    @Benchmark
+    public Borrowing borrowAndReturn() {
+        Borrowing borrowing = borrow();
+        if (borrowing == null) {
+            return null;
+        }
+        Borrowing result = borrowingService.returnBook(borrowing.getId());
+        returned.increment();
+        return result;
+    }
+
+    /** 只借不还，很快借光，之后的请求都应被拒绝 */
+    @Benchmark
+    public Borrowing borrowOnly() {
+        return borrow();
+    }
+
+    /** 借出后一半概率归还，并夹杂对同一记录的重复归还 */
+    @Benchmark
+    public Borrowing mixedWithDuplicateReturns() {
+        Borrowing borrowing = borrow();
+        if (borrowing == null) {
+            List<Long> open = jdbcTemplate.queryForList(
+                "SELECT id FROM borrowings WHERE status = 'BORROWED' LIMIT 1", Long.class);
+            if (!open.isEmpty()) {
+                tryReturn(open.get(0));
+            }
+            return null;
+        }
+        if (ThreadLocalRandom.current().nextBoolean()) {
+            tryReturn(borrowing.getId());
+            tryReturn(borrowing.getId());
+        }
+        return borrowing;
+    }
+
+    private Borrowing borrow() {
+        Borrowing borrowing = new Borrowing();
+        Book book = new Book();
+        book.setId(bookIds[ThreadLocalRandom.current().nextInt(bookIds.length)]);
+        User user = new User();
+        user.setId(userId);
+        borrowing.setBook(book);
+        borrowing.setUser(user);
+        try {
+            Borrowing saved = borrowingService.borrowBook(borrowing);
+            borrowed.increment();
+            return saved;
+        } catch (RuntimeException e) {
+            rejected.increment();
+            return null;
+        }
+    }
+
+    private void tryReturn(Long borrowingId) {
+        try {
+            borrowingService.returnBook(borrowingId);
+            returned.increment();
+        } catch (RuntimeException e) {
+            // 已被其他线程归还
+        }
+    }
+}
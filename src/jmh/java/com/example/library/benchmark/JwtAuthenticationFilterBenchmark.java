@@ -0,0 +1,96 @@
+package com.example.library.benchmark;
+
+import com.example.library.cache.UserPrincipalCache;
+import com.example.library.config.JwtAuthenticationFilter;
+import com.example.library.model.User;
+import com.example.library.repository.UserRepository;
+import com.example.library.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个请求经过 JwtAuthenticationFilter 的开销。用户仓库用桩实现替代，
+ * 只测量令牌解析、主体缓存和安全上下文的构建，不含数据库。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        User user = new User("reader", "hash", "READER", "reader@library.com");
+        user.setId(2L);
+
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+            UserRepository.class.getClassLoader(), new Class<?>[] { UserRepository.class },
+            (proxy, method, args) -> {
+                if ("findByUsername".equals(method.getName())) {
+                    return Optional.of(user);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        UserPrincipalCache userPrincipalCache = new UserPrincipalCache();
+        BenchmarkSupport.inject(userPrincipalCache, "userRepository", userRepository);
+        BenchmarkSupport.inject(userPrincipalCache, "meterRegistry", new SimpleMeterRegistry());
+        BenchmarkSupport.inject(userPrincipalCache, "maximumSize", 10_000L);
+        BenchmarkSupport.inject(userPrincipalCache, "expireAfterWrite", java.time.Duration.ofSeconds(60));
+        BenchmarkSupport.invoke(userPrincipalCache, "init");
+
+        JwtUtil jwtUtil = BenchmarkSupport.jwtUtil(10_000);
+        filter = new JwtAuthenticationFilter();
+        BenchmarkSupport.inject(filter, "jwtUtil", jwtUtil);
+        BenchmarkSupport.inject(filter, "userPrincipalCache", userPrincipalCache);
+        BenchmarkSupport.inject(filter, "meterRegistry", new SimpleMeterRegistry());
+        BenchmarkSupport.invoke(filter, "initMeters");
+
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/borrowings");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user));
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/books");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        return doFilter(authenticatedRequest);
+    }
+
+    @Benchmark
+    public Object anonymousRequest() throws Exception {
+        return doFilter(anonymousRequest);
+    }
+
+    private Object doFilter(MockHttpServletRequest request) throws Exception {
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
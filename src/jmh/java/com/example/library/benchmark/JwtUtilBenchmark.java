@@ -0,0 +1,85 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.User;
+import com.example.library.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌校验吞吐（tokens/s）。legacy* 复现改造前的做法：每次解析都重建密钥和解析器，
+ * 过滤器每个请求解析三次（extractUsername + validateToken 内的两次）。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtUtil = BenchmarkSupport.jwtUtil(10_000);
+        uncachedJwtUtil = BenchmarkSupport.jwtUtil(0);
+        user = new User("reader", null, "READER", "reader@library.com");
+        token = cachedJwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims legacyParse() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(BenchmarkSupport.JWT_SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public boolean legacyFilterRequest() {
+        String username = legacyParse().getSubject();
+        return username.equals(legacyParse().getSubject()) && legacyParse().getExpiration().getTime() > 0;
+    }
+
+    @Benchmark
+    public Claims prebuiltParserParse() {
+        return uncachedJwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims verifiedCacheParse() {
+        return cachedJwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return cachedJwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncachedJwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedJwtUtil.generateToken(user);
+    }
+}
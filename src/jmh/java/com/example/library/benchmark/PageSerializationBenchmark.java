@@ -0,0 +1,185 @@
+package com.example.library.benchmark;
+
+import com.example.library.dto.BookSummary;
+import com.example.library.model.Book;
+import com.example.library.pagination.CompactPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 图书列表接口返回的 Page&lt;Book&gt; 序列化开销（与 Spring MVC 默认 ObjectMapper 配置一致），
+ * 以及按 Accept 选择的精简表示（{@link BookSummary} + {@link CompactPage}）的 JSON、Smile、CBOR 编码。
+ * 启动时打印各表示的原始与 gzip 后字节数。
+ * <p>
+ * 一页中各书的书名、作者、出版社、价格等各不相同，描述由主题、内容、读者、特色等句子随机组合，长约 100~280 字
+ * （平均约 190 字），互不重复。描述若是同一段文字的重复，gzip 几乎能把它压掉，完整表示的压缩后大小会被严重低估。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+
+    @Param({ "12", "100" })
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper smileMapper;
+    private ObjectMapper cborMapper;
+    private Page<Book> page;
+
+    private static final String[] TOPICS = {
+        "数据结构与算法", "Java 并发编程", "分布式系统", "数据库索引与事务", "编译器设计", "操作系统内核",
+        "计算机网络协议", "机器学习", "深度学习", "微服务架构", "前端工程化", "云原生与容器编排",
+        "函数式编程", "软件测试", "信息安全", "图形学", "嵌入式开发", "大数据处理"
+    };
+
+    private static final String[] AUTHORS = {
+        "Robert Sedgewick", "Brian Goetz", "Martin Kleppmann", "Abraham Silberschatz", "Alfred Aho",
+        "Andrew Tanenbaum", "周志明", "李航", "吴军", "Ian Goodfellow", "Sam Newman", "Kelsey Hightower"
+    };
+
+    private static final String[] PUBLISHERS = {
+        "机械工业出版社", "人民邮电出版社", "电子工业出版社", "清华大学出版社", "O'Reilly Media", "Addison-Wesley"
+    };
+
+    private static final String[] OPENINGS = {
+        "本书系统介绍了%s的核心概念与工程实践。",
+        "作为%s领域的经典著作，本书自出版以来多次修订。",
+        "本书从零开始讲解%s，每个主题都配有可运行的示例。",
+        "这是一本面向实战的%s指南，内容来自作者多年的一线项目经验。",
+        "全书围绕%s中最常见的问题展开，既讲原理也讲取舍。"
+    };
+
+    private static final String[] CONTENTS = {
+        "全书共%d章，前半部分讲解基础理论，后半部分通过案例分析复杂系统的设计。",
+        "书中包含%d个完整案例，覆盖从需求分析、原型验证到上线运维的全过程。",
+        "第%d版新增了对最新标准的介绍，并删去了过时的内容。",
+        "各章末尾附有习题与参考答案，共计%d道，便于课堂教学和自学检验。",
+        "附录给出了%d个常用工具的安装与配置说明。"
+    };
+
+    private static final String[] DETAILS = {
+        "作者深入剖析了性能瓶颈的成因，并给出基准测试的方法与陷阱。",
+        "书中对比了多种实现方案在吞吐量、延迟和可维护性上的差异。",
+        "对容易混淆的概念给出了清晰的图示和反例。",
+        "针对生产环境中的故障排查，总结了一套行之有效的检查清单。",
+        "讨论了一致性、可用性与分区容忍之间的权衡，以及在实际系统中的落地方式。",
+        "用大量篇幅介绍调试技巧，包括日志、剖析器和火焰图的使用。",
+        "介绍了该领域近十年的研究进展，并附有详尽的参考文献。",
+        "示例代码托管在开源仓库中，读者可以随书逐步运行和修改。",
+        "特别强调代码可读性，所有示例都遵循一致的命名与注释规范。",
+        "最后一章展望了未来的发展方向，并给出进一步阅读的建议。"
+    };
+
+    private static final String[] AUDIENCES = {
+        "适合高等院校计算机专业的本科生和研究生作为教材使用。",
+        "适合有一定编程基础、希望系统提升的软件工程师阅读。",
+        "架构师和技术负责人也能从中获得设计大型系统的思路。",
+        "对准备技术面试的读者同样有很高的参考价值。",
+        "零基础读者建议先阅读前三章，再按需选读其余章节。"
+    };
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        Random random = new Random(42);
+        List<Book> books = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            String topic = TOPICS[random.nextInt(TOPICS.length)];
+            String publisher = PUBLISHERS[random.nextInt(PUBLISHERS.length)];
+            Book book = new Book(String.format("978-7-%03d-%05d-%d", 100 + random.nextInt(900),
+                    random.nextInt(100_000), random.nextInt(10)),
+                topic + (random.nextBoolean() ? "实战" : "原理与实践") + " 第" + (1 + random.nextInt(5)) + "版",
+                AUTHORS[random.nextInt(AUTHORS.length)], publisher, 2005 + random.nextInt(20),
+                Math.round((29.0 + random.nextDouble() * 170) * 100) / 100.0, random.nextInt(30),
+                description(random, topic));
+            book.setId(1_000L + random.nextInt(100_000));
+            book.setCategory(topic);
+            book.setLanguage(publisher.contains("出版社") ? "中文" : "英文");
+            book.setTotalQuantity(book.getStockQuantity() + random.nextInt(5));
+            book.setBorrowedQuantity(book.getTotalQuantity() - book.getStockQuantity());
+            books.add(book);
+        }
+        page = new PageImpl<>(books, PageRequest.of(3, pageSize, Sort.by("title")), 100_000);
+
+        try {
+            printSize("page json", serializePage());
+            printSize("summary json", serializeSummaryJson());
+            printSize("summary smile", serializeSummarySmile());
+            printSize("summary cbor", serializeSummaryCbor());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 开头、内容、若干细节与读者各取一句，细节不重复，截断到 Book 描述的上限 500 字。
+     */
+    private static String description(Random random, String topic) {
+        StringBuilder description = new StringBuilder()
+            .append(String.format(OPENINGS[random.nextInt(OPENINGS.length)], topic))
+            .append(String.format(CONTENTS[random.nextInt(CONTENTS.length)], 3 + random.nextInt(30)));
+        List<String> details = new ArrayList<>(List.of(DETAILS));
+        for (int i = 1 + random.nextInt(6); i > 0; i--) {
+            description.append(details.remove(random.nextInt(details.size())));
+        }
+        description.append(AUDIENCES[random.nextInt(AUDIENCES.length)]);
+        return description.length() > 500 ? description.substring(0, 500) : description.toString();
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaryJson() throws Exception {
+        return objectMapper.writeValueAsBytes(CompactPage.of(page, BookSummary::from));
+    }
+
+    @Benchmark
+    public byte[] serializeSummarySmile() throws Exception {
+        return smileMapper.writeValueAsBytes(CompactPage.of(page, BookSummary::from));
+    }
+
+    @Benchmark
+    public byte[] serializeSummaryCbor() throws Exception {
+        return cborMapper.writeValueAsBytes(CompactPage.of(page, BookSummary::from));
+    }
+
+    private void printSize(String representation, byte[] bytes) throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        System.out.printf("pageSize=%d %s: %d bytes, gzip %d bytes%n", pageSize, representation, bytes.length,
+            compressed.size());
+    }
+}
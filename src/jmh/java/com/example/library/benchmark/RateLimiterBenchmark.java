@@ -0,0 +1,72 @@
+package com.example.library.benchmark;
+
+import com.example.library.ratelimit.EndpointClass;
+import com.example.library.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每次限流判定的开销。clients=1 时所有线程争用同一个桶（CAS 冲突最多）；
+ * clients=1000000 时客户端数远超桶上限 100000，持续新建并淘汰桶，对应扫描器不断更换 IP。
+ * 档位足够宽松的 api 与很快耗尽的 auth 分别测量放行与拒绝两条路径。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    @Param({ "1", "1000000" })
+    private int clients;
+
+    private RateLimiter rateLimiter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter();
+        BenchmarkSupport.inject(rateLimiter, "meterRegistry", new SimpleMeterRegistry());
+        BenchmarkSupport.inject(rateLimiter, "enabled", true);
+        BenchmarkSupport.inject(rateLimiter, "authRate", 0.2);
+        BenchmarkSupport.inject(rateLimiter, "authBurst", 10);
+        BenchmarkSupport.inject(rateLimiter, "publicRate", 20.0);
+        BenchmarkSupport.inject(rateLimiter, "publicBurst", 50);
+        BenchmarkSupport.inject(rateLimiter, "apiRate", 1e9);
+        BenchmarkSupport.inject(rateLimiter, "apiBurst", 1_000_000);
+        BenchmarkSupport.inject(rateLimiter, "maxBuckets", 100_000L);
+        BenchmarkSupport.inject(rateLimiter, "idleTimeout", Duration.ofMinutes(10));
+        BenchmarkSupport.invoke(rateLimiter, "init");
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "ip:10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public long allowed() {
+        return rateLimiter.tryAcquire(EndpointClass.API, keys[ThreadLocalRandom.current().nextInt(clients)]);
+    }
+
+    @Benchmark
+    public long limited() {
+        return rateLimiter.tryAcquire(EndpointClass.AUTH, keys[ThreadLocalRandom.current().nextInt(clients)]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.library.benchmark;
+
+import com.example.library.dto.BookSuggestion;
+import com.example.library.model.Book;
+import com.example.library.search.SearchField;
+import com.example.library.search.SuggestIndex;
+import com.example.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 输入联想 SuggestIndex.suggest 的延迟，对比前端原来每次按键调用的 searchBooks(title=...)。
+ * 书名末尾追加 ID，每本书都是一条独立的书名联想词。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class SuggestBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int catalogueSize;
+
+    private ConfigurableApplicationContext context;
+    private SuggestIndex suggestIndex;
+    private BookService bookService;
+    private final Set<SearchField> allFields = EnumSet.allOf(SearchField.class);
+    private final Pageable grid = PageRequest.of(0, 10, Sort.by("title"));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("suggest" + catalogueSize);
+        BenchmarkSupport.seedBooks(context, catalogueSize);
+        context.getBean(JdbcTemplate.class).update("UPDATE books SET title = CONCAT(title, ' ', id)");
+        suggestIndex = context.getBean(SuggestIndex.class);
+        suggestIndex.rebuild();
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookSuggestion> chinesePrefix() {
+        return suggestIndex.suggest("数据", allFields, 10);
+    }
+
+    @Benchmark
+    public List<BookSuggestion> fullPinyinPrefix() {
+        return suggestIndex.suggest("shujujie", allFields, 10);
+    }
+
+    @Benchmark
+    public List<BookSuggestion> pinyinInitials() {
+        return suggestIndex.suggest("sjjg", allFields, 10);
+    }
+
+    @Benchmark
+    public List<BookSuggestion> authorWordPrefix() {
+        return suggestIndex.suggest("sedge", allFields, 10);
+    }
+
+    /** 原做法：每次按键做一次书名子串检索 */
+    @Benchmark
+    public Page<Book> titleSearchPerKeystroke() {
+        return bookService.searchBooks(null, "数据", null, null, null, grid);
+    }
+}
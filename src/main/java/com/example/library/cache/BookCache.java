@@ -0,0 +1,315 @@
+package com.example.library.cache;
+
+import com.example.library.event.BookChangedEvent;
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按 ID / ISBN 读取图书的进程内缓存（Caffeine，W-TinyLFU 淘汰）。
+ * 不存在的图书也会缓存为空结果，避免匿名请求反复穿透到数据库；
+ * 写操作通过 {@link BookChangedEvent} 在事务提交后精确失效对应条目。
+ * 命中率、淘汰数与加载耗时以 cache 标签 books.by_id / books.by_isbn 发布到 Micrometer。
+ */
+@Component
+public class BookCache {
+
+    /** 批量查询时每条 IN 查询的参数个数上限，避免超长 SQL 与驱动的参数个数限制 */
+    private static final int IN_CHUNK_SIZE = 500;
+
+    /** 失效计数的分段数（2 的幂），一次写入只让同一分段内的批量加载放弃写缓存 */
+    private static final int INVALIDATION_STRIPES = 256;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.cache.books.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${library.cache.books.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    private Cache<Long, Optional<Book>> booksById;
+    private Cache<String, Optional<Long>> bookIdsByIsbn;
+
+    /** 批量加载不经 Caffeine 的加载函数，整批查询耗时手动记为一次加载 */
+    private final BatchStatsCounter bookStats = new BatchStatsCounter();
+    private final BatchStatsCounter isbnStats = new BatchStatsCounter();
+
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    @PostConstruct
+    void init() {
+        booksById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats(() -> bookStats)
+                .build();
+        bookIdsByIsbn = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats(() -> isbnStats)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, booksById, "books.by_id");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookIdsByIsbn, "books.by_isbn");
+    }
+
+    public Optional<Book> findById(Long id) {
+        return booksById.get(id, bookRepository::findById);
+    }
+
+    /**
+     * ISBN 只缓存到 ID 的映射，图书本身仍走 ID 缓存，更新时无需知道旧 ISBN：
+     * 命中后若图书已删除或 ISBN 已变更，则丢弃映射重新查询。
+     */
+    public Optional<Book> findByIsbn(String isbn) {
+        Optional<Long> id = bookIdsByIsbn.get(isbn, key -> bookRepository.findByIsbn(key).map(Book::getId));
+        if (id.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Book> book = findById(id.get());
+        if (book.isPresent() && isbn.equals(book.get().getIsbn())) {
+            return book;
+        }
+        bookIdsByIsbn.invalidate(isbn);
+        Optional<Book> reloaded = bookRepository.findByIsbn(isbn);
+        reloaded.ifPresent(b -> bookIdsByIsbn.put(isbn, Optional.of(b.getId())));
+        return reloaded;
+    }
+
+    /**
+     * 批量读取：命中的直接返回，未命中的按块做 IN 查询后写入缓存（不存在的同样缓存为空结果）。
+     * 返回找到的图书，键为 ID。
+     * <p>
+     * 不用 {@code Cache.getAll(keys, bulkLoader)}：批量加载与失效不互斥，查询读到的旧数据可能在
+     * 提交后的失效之后才写入缓存，一直留到过期。这里查询前记下各键的失效计数，写入时计数未变才缓存，见 {@link #cacheIfUnchanged}。
+     */
+    public Map<Long, Book> findAllById(Collection<Long> ids) {
+        Map<Long, Book> result = new HashMap<>();
+        Map<Long, Optional<Book>> cached = booksById.getAllPresent(ids);
+        cached.forEach((id, book) -> book.ifPresent(b -> result.put(id, b)));
+        Set<Long> missing = new HashSet<>(ids);
+        missing.removeAll(cached.keySet());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, Long> stamps = stamps(missing);
+        long start = System.nanoTime();
+        Map<Long, Optional<Book>> loaded = loadByIds(missing);
+        bookStats.recordLoadSuccess(System.nanoTime() - start);
+        loaded.forEach((id, book) -> {
+            book.ifPresent(b -> result.put(id, b));
+            cacheIfUnchanged(booksById, bookStats, id, book, stamps.get(id));
+        });
+        return result;
+    }
+
+    /**
+     * 批量按 ISBN 读取，与 {@link #findByIsbn(String)} 一致：ISBN 映射命中的走 ID 缓存，
+     * 映射已过期（图书删除或改了 ISBN）的丢弃，与未命中的一起按块查询，映射按 {@link #findAllById} 的方式写入缓存。
+     * 返回找到的图书，键为 ISBN。
+     */
+    public Map<String, Book> findAllByIsbn(Collection<String> isbns) {
+        Map<String, Book> result = new HashMap<>();
+        Map<String, Optional<Long>> cachedIds = bookIdsByIsbn.getAllPresent(isbns);
+        Set<String> missing = new HashSet<>(isbns);
+        missing.removeAll(cachedIds.keySet());
+
+        Map<String, Long> mapped = new HashMap<>();
+        cachedIds.forEach((isbn, id) -> id.ifPresent(value -> mapped.put(isbn, value)));
+        if (!mapped.isEmpty()) {
+            Map<Long, Book> booksFound = findAllById(mapped.values());
+            mapped.forEach((isbn, id) -> {
+                Book book = booksFound.get(id);
+                if (book != null && isbn.equals(book.getIsbn())) {
+                    result.put(isbn, book);
+                } else {
+                    bookIdsByIsbn.invalidate(isbn);
+                    missing.add(isbn);
+                }
+            });
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Long> isbnStamps = stamps(missing);
+        long start = System.nanoTime();
+        List<Book> loaded = loadByIsbns(missing);
+        isbnStats.recordLoadSuccess(System.nanoTime() - start);
+        for (Book book : loaded) {
+            result.put(book.getIsbn(), book);
+        }
+        for (String isbn : missing) {
+            Book book = result.get(isbn);
+            cacheIfUnchanged(bookIdsByIsbn, isbnStats, isbn, Optional.ofNullable(book).map(Book::getId),
+                    isbnStamps.get(isbn));
+        }
+        return result;
+    }
+
+    /**
+     * 键不在缓存中且查询期间所在分段没有失效过时写入。失效先递增计数再删除条目：
+     * 递增发生在检查之前则不写入；发生在检查之后，删除会等这次 computeIfAbsent 完成后把刚写入的条目删掉。
+     * 已有条目（其他请求更晚加载的）保留不动。computeIfAbsent 会按单键再记一次未命中和加载，写入期间暂停统计。
+     */
+    private <K, V> void cacheIfUnchanged(Cache<K, V> cache, BatchStatsCounter stats, K key, V value, long stamp) {
+        stats.muted.set(true);
+        try {
+            cache.asMap().computeIfAbsent(key, k -> invalidations.get(stripe(k)) == stamp ? value : null);
+        } finally {
+            stats.muted.set(false);
+        }
+    }
+
+    private <K> Map<K, Long> stamps(Collection<K> keys) {
+        Map<K, Long> stamps = new HashMap<>();
+        for (K key : keys) {
+            stamps.put(key, invalidations.get(stripe(key)));
+        }
+        return stamps;
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (INVALIDATION_STRIPES - 1);
+    }
+
+    private Map<Long, Optional<Book>> loadByIds(Collection<Long> ids) {
+        Map<Long, Optional<Book>> loaded = new HashMap<>();
+        for (List<Long> chunk : BookCache.<Long>chunks(ids)) {
+            for (Book book : bookRepository.findAllById(chunk)) {
+                loaded.put(book.getId(), Optional.of(book));
+            }
+        }
+        for (Long id : ids) {
+            loaded.putIfAbsent(id, Optional.empty());
+        }
+        return loaded;
+    }
+
+    private List<Book> loadByIsbns(Collection<? extends String> isbns) {
+        List<Book> books = new ArrayList<>();
+        for (List<String> chunk : BookCache.<String>chunks(isbns)) {
+            books.addAll(bookRepository.findByIsbnIn(chunk));
+        }
+        return books;
+    }
+
+    private static <T> List<List<T>> chunks(Collection<? extends T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(Math.min(values.size(), IN_CHUNK_SIZE));
+        for (T value : values) {
+            chunk.add(value);
+            if (chunk.size() == IN_CHUNK_SIZE) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(IN_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        invalidations.incrementAndGet(stripe(event.getBookId()));
+        booksById.invalidate(event.getBookId());
+        if (event.getBook() != null && event.getBook().getIsbn() != null) {
+            // 新 ISBN 可能之前被缓存为“不存在”
+            invalidations.incrementAndGet(stripe(event.getBook().getIsbn()));
+            bookIdsByIsbn.invalidate(event.getBook().getIsbn());
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < INVALIDATION_STRIPES; i++) {
+            invalidations.incrementAndGet(i);
+        }
+        booksById.invalidateAll();
+        bookIdsByIsbn.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("booksById", CacheStatsSupport.describe(booksById, maximumSize));
+        stats.put("bookIdsByIsbn", CacheStatsSupport.describe(bookIdsByIsbn, maximumSize));
+        return stats;
+    }
+
+    /**
+     * 当前线程 muted 时丢弃记录，其余委托给 {@link ConcurrentStatsCounter}。
+     */
+    private static final class BatchStatsCounter implements StatsCounter {
+
+        private final StatsCounter delegate = new ConcurrentStatsCounter();
+        private final ThreadLocal<Boolean> muted = ThreadLocal.withInitial(() -> false);
+
+        @Override
+        public void recordHits(int count) {
+            if (!muted.get()) {
+                delegate.recordHits(count);
+            }
+        }
+
+        @Override
+        public void recordMisses(int count) {
+            if (!muted.get()) {
+                delegate.recordMisses(count);
+            }
+        }
+
+        @Override
+        public void recordLoadSuccess(long loadTime) {
+            if (!muted.get()) {
+                delegate.recordLoadSuccess(loadTime);
+            }
+        }
+
+        @Override
+        public void recordLoadFailure(long loadTime) {
+            if (!muted.get()) {
+                delegate.recordLoadFailure(loadTime);
+            }
+        }
+
+        @Override
+        public void recordEviction(int weight, RemovalCause cause) {
+            delegate.recordEviction(weight, cause);
+        }
+
+        @Override
+        public CacheStats snapshot() {
+            return delegate.snapshot();
+        }
+    }
+}
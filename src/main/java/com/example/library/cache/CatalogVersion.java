@@ -0,0 +1,58 @@
+package com.example.library.cache;
+
+import com.example.library.event.BookChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 图书目录的整体版本号，任何图书写入（增删改、借还书改变库存、批量导入）后递增，
+ * 作为图书列表、计数等聚合查询的 ETag / Last-Modified，条件请求据此直接返回 304，不查库、不序列化。
+ * <p>
+ * 计数器只在内存中，重启后从 0 开始，ETag 中带上启动时间，避免与重启前发出的 ETag 相同。
+ * 使用弱 ETag：Tomcat 不压缩带强 ETag 的响应。
+ * 在 AFTER_COMPLETION 阶段递增，晚于所有 AFTER_COMMIT 监听器（{@link BookCache}、统计、搜索索引），
+ * 读到新版本号的请求一定也读到已更新的数据；回滚时也会递增，只会多一次缓存失效。
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile Stamp current = new Stamp(0, epoch, System.currentTimeMillis());
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        bump();
+    }
+
+    public synchronized void bump() {
+        current = new Stamp(current.getVersion() + 1, epoch, System.currentTimeMillis());
+    }
+
+    public Stamp current() {
+        return current;
+    }
+
+    /**
+     * 同一时刻的版本号、ETag 与修改时间，一次读取，三者一致。
+     */
+    public static final class Stamp {
+
+        private final long version;
+        private final String eTag;
+        private final long lastModified;
+
+        private Stamp(long version, String epoch, long lastModified) {
+            this.version = version;
+            this.eTag = "W/\"catalog-" + epoch + "-" + version + "\"";
+            this.lastModified = lastModified;
+        }
+
+        public long getVersion() { return version; }
+
+        public String getETag() { return eTag; }
+
+        /** 毫秒时间戳 */
+        public long getLastModified() { return lastModified; }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.library.cache;
+
+import com.example.library.event.UserChangedEvent;
+import com.example.library.model.User;
+import com.example.library.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * JWT 认证使用的用户缓存。缓存的是不含密码的用户快照，短 TTL 兜底，
+ * UserService 保存或删除用户时通过 {@link UserChangedEvent} 立即失效。统计以 cache=users.principal 发布到 Micrometer。
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.cache.users.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${library.cache.users.expire-after-write:60s}")
+    private Duration expireAfterWrite;
+
+    private Cache<String, User> principals;
+
+    @PostConstruct
+    void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "users.principal");
+    }
+
+    /**
+     * 返回用户快照，用户不存在时返回 null（不缓存）。
+     */
+    public User get(String username) {
+        return principals.get(username, key -> userRepository.findByUsername(key)
+                .map(UserPrincipalCache::snapshot)
+                .orElse(null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUsername() != null) {
+            principals.invalidate(event.getUsername());
+        }
+        if (event.getPreviousUsername() != null) {
+            principals.invalidate(event.getPreviousUsername());
+        }
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        return CacheStatsSupport.describe(principals, maximumSize);
+    }
+
+    private static User snapshot(User user) {
+        User principal = new User(user.getUsername(), null, user.getRole(), user.getEmail());
+        principal.setId(user.getId());
+        return principal;
+    }
+}
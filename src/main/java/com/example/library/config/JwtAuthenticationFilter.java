@@ -1,8 +1,13 @@
 package com.example.library.config;
 
+import com.example.library.cache.UserPrincipalCache;
 import com.example.library.model.User;
-import com.example.library.service.UserService;
 import com.example.library.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,6 +20,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -23,7 +29,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserService userService;
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** 令牌解析与用户查找的耗时，按结果分别计时，不含后续过滤器和控制器 */
+    private Timer authenticatedTimer;
+    private Timer unknownUserTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    void initMeters() {
+        authenticatedTimer = jwtTimer("authenticated");
+        unknownUserTimer = jwtTimer("unknown_user");
+        invalidTimer = jwtTimer("invalid");
+    }
+
+    private Timer jwtTimer(String outcome) {
+        return Timer.builder("security.jwt.filter")
+                .description("JWT 校验耗时")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
@@ -31,27 +60,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            long start = System.nanoTime();
+            Timer timer = invalidTimer;
             try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                logger.error("无法从JWT中提取用户名: " + e.getMessage());
-            }
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            User userDetails = (User) userService.loadUserByUsername(username);
+                // 一次解析同时完成签名、有效期校验和用户名提取
+                Claims claims = jwtUtil.parseToken(jwt);
+                User user = userPrincipalCache.get(claims.getSubject());
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                timer = user != null ? authenticatedTimer : unknownUserTimer;
+                if (user != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                            user, null, user.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.error("JWT校验失败: " + e.getMessage());
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         }
 
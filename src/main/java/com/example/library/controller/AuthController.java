@@ -4,85 +4,93 @@ import com.example.library.model.User;
 import com.example.library.service.UserService;
 import com.example.library.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     @Autowired
     private UserService userService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    /**
+     * 密码校验在哈希线程池中异步执行，请求线程随即释放；线程池排满时返回 503。
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> loginRequest) {
         String username = loginRequest.get("username");
         String password = loginRequest.get("password");
 
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(username, password)
-            );
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            User user = (User) authentication.getPrincipal();
-            
-            String token = jwtUtil.generateToken(user);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", token);
-            response.put("type", "Bearer");
-            response.put("id", user.getId());
-            response.put("username", user.getUsername());
-            response.put("role", user.getRole());
-            response.put("email", user.getEmail());
-            
-            return ResponseEntity.ok(response);
-        } catch (AuthenticationException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("用户名或密码错误");
+            return userService.authenticate(username, password).thenApply(authenticated -> {
+                if (authenticated.isEmpty()) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                            .body("用户名或密码错误");
+                }
+                User user = authenticated.get();
+
+                String token = jwtUtil.generateToken(user);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("token", token);
+                response.put("type", "Bearer");
+                response.put("id", user.getId());
+                response.put("username", user.getUsername());
+                response.put("role", user.getRole());
+                response.put("email", user.getEmail());
+
+                return ResponseEntity.ok(response);
+            }).exceptionally(AuthController::failed);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
         }
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody Map<String, String> registerRequest) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody Map<String, String> registerRequest) {
         String username = registerRequest.get("username");
         String password = registerRequest.get("password");
         String email = registerRequest.get("email");
         String role = registerRequest.getOrDefault("role", "READER");
 
         if (userService.existsByUsername(username)) {
-            return ResponseEntity.badRequest().body("用户名已存在");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("用户名已存在"));
         }
 
         User user = new User(username, password, role, email);
-        User savedUser = userService.saveUser(user);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", savedUser.getId());
-        response.put("username", savedUser.getUsername());
-        response.put("role", savedUser.getRole());
-        response.put("email", savedUser.getEmail());
-        response.put("message", "用户注册成功");
-
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        try {
+            return userService.registerUser(user).<ResponseEntity<?>>thenApply(savedUser -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("id", savedUser.getId());
+                response.put("username", savedUser.getUsername());
+                response.put("role", savedUser.getRole());
+                response.put("email", savedUser.getEmail());
+                response.put("message", "用户注册成功");
+
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            }).exceptionally(e -> e.getCause() instanceof DuplicateKeyException
+                    ? ResponseEntity.badRequest().body("用户名已存在")
+                    : failed(e));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
     }
 
     @GetMapping("/me")
@@ -102,6 +110,20 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    private static ResponseEntity<?> failed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return busy();
+        }
+        return ResponseEntity.internalServerError().body("服务器内部错误");
+    }
+
+    private static ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("服务繁忙，请稍后重试");
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout() {
         SecurityContextHolder.clearContext();
@@ -1,75 +1,344 @@
 package com.example.library.controller;
 
+import com.example.library.cache.CatalogVersion;
+import com.example.library.dto.BookBatchRequest;
+import com.example.library.dto.BookLookup;
+import com.example.library.dto.BookSuggestion;
+import com.example.library.dto.BookSummary;
 import com.example.library.model.Book;
+import com.example.library.pagination.CompactPage;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.KeysetSupport;
+import com.example.library.search.BookSearchIndex;
+import com.example.library.search.FacetField;
+import com.example.library.search.FacetFilter;
+import com.example.library.search.SearchField;
+import com.example.library.search.SuggestIndex;
 import com.example.library.service.BookService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/books")
 @CrossOrigin(origins = "*")
 public class BookController {
 
+    private static final List<MediaType> COMPACT_TYPES = List.of(
+        MediaType.parseMediaType(BookSummary.MEDIA_TYPE),
+        new MediaType("application", "x-jackson-smile"),
+        MediaType.APPLICATION_CBOR);
+
+    /** 单本图书的 ETag，带或不带 W/ 前缀 */
+    private static final Pattern BOOK_ETAG = Pattern.compile("^(?:W/)?\"book-(\\d+)-(\\d+)\"$");
+
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    /** 公开图书接口的缓存时长，0 表示客户端每次都带 ETag 回源校验 */
+    @Value("${library.http.books-cache-max-age:0s}")
+    private Duration booksCacheMaxAge;
+
+    /** 批量查询一次最多的 ID / ISBN 个数 */
+    @Value("${library.books.batch-max-size:2000}")
+    private int batchMaxSize;
+
+    private String cacheControl;
+
+    @PostConstruct
+    void init() {
+        cacheControl = CacheControl.maxAge(booksCacheMaxAge).cachePublic().mustRevalidate().getHeaderValue();
+    }
+
+    /**
+     * 传入 cursor 参数（第一页传空字符串）时切换为游标分页，返回 CursorPage 而非 Page。
+     * Accept 为 {@link BookSummary#MEDIA_TYPE}、Smile 或 CBOR 时返回精简表示，见 {@link #listResponse}。
+     */
     @GetMapping
-    public ResponseEntity<Page<Book>> getAllBooks(
+    public ResponseEntity<?> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            ServletWebRequest webRequest) {
+
+        MediaType compact = compactType(accept);
+        webRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        CatalogVersion.Stamp stamp = catalogVersion.current();
+        if (notModified(webRequest, variantETag(stamp.getETag(), compact), stamp.getLastModified())) {
+            return null;
+        }
+        if (cursor != null) {
+            try {
+                Sort keysetSort = KeysetSupport.keysetSort(sortBy, sortDir, BookService.KEYSET_SORTABLE);
+                return listResponse(bookService.scrollBooks(cursor, size, keysetSort), compact);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
         Page<Book> books = bookService.findAllBooks(pageable);
-        return ResponseEntity.ok(books);
+        return listResponse(books, compact);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-        Optional<Book> book = bookService.findBookById(id);
-        return book.map(ResponseEntity::ok)
-                  .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, ServletWebRequest webRequest) {
+        return conditionalBook(bookService.findBookById(id), webRequest);
     }
 
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
-        Optional<Book> book = bookService.findBookByIsbn(isbn);
-        return book.map(ResponseEntity::ok)
-                  .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn, ServletWebRequest webRequest) {
+        return conditionalBook(bookService.findBookByIsbn(isbn), webRequest);
+    }
+
+    /**
+     * 批量查询：请求体为 {@code {"ids": [...]}} 或 {@code {"isbns": [...]}}，最多 library.books.batch-max-size 项。
+     * 结果与请求顺序一一对应（重复的项各占一个位置），未找到的项 found 为 false。
+     * 缓存未命中的部分按块 IN 查询，书单、购物车页面一次请求代替逐本查询；Accept 为精简类型时 book 为 {@link BookSummary}。
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getBooksInBatch(
+            @RequestBody BookBatchRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        List<Long> ids = request.getIds();
+        List<String> isbns = request.getIsbns();
+        if ((ids == null) == (isbns == null)) {
+            return ResponseEntity.badRequest().body("ids 与 isbns 须且只能提供一个");
+        }
+        int size = ids != null ? ids.size() : isbns.size();
+        if (size > batchMaxSize) {
+            return ResponseEntity.badRequest().body("批量查询最多 " + batchMaxSize + " 项");
+        }
+
+        MediaType compact = compactType(accept);
+        Function<Book, Object> view = compact == null ? book -> book : BookSummary::from;
+        List<BookLookup<Object>> results = new ArrayList<>(size);
+        if (ids != null) {
+            if (ids.contains(null)) {
+                return ResponseEntity.badRequest().body("ID不能为空");
+            }
+            Map<Long, Book> found = bookService.findBooksByIds(new LinkedHashSet<>(ids));
+            for (Long id : ids) {
+                Book book = found.get(id);
+                results.add(BookLookup.byId(id, book == null ? null : view.apply(book)));
+            }
+        } else {
+            for (String isbn : isbns) {
+                if (isbn == null || isbn.isBlank()) {
+                    return ResponseEntity.badRequest().body("ISBN不能为空");
+                }
+            }
+            Map<String, Book> found = bookService.findBooksByIsbns(new LinkedHashSet<>(isbns));
+            for (String isbn : isbns) {
+                Book book = found.get(isbn);
+                results.add(BookLookup.byIsbn(isbn, book == null ? null : view.apply(book)));
+            }
+        }
+        return compact == null ? ResponseEntity.ok(results) : ResponseEntity.ok().contentType(compact).body(results);
     }
 
+    /**
+     * 单本图书的 ETag 取自实体版本号。图书来自 {@link com.example.library.cache.BookCache}，
+     * 缓存命中时 304 既不查库也不序列化。与列表相同使用弱 ETag：单本图书的响应长度未知，同样会被压缩。
+     */
+    private ResponseEntity<Book> conditionalBook(Optional<Book> book, ServletWebRequest webRequest) {
+        if (book.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Book found = book.get();
+        String eTag = bookETag(found);
+        long lastModified = found.getLastModified() == null ? -1
+                : found.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (notModified(webRequest, eTag, lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok(found);
+    }
+
+    private static String bookETag(Book book) {
+        return "W/\"book-" + book.getId() + "-" + book.getVersion() + "\"";
+    }
+
+    private boolean notModified(ServletWebRequest webRequest, CatalogVersion.Stamp stamp) {
+        return notModified(webRequest, stamp.getETag(), stamp.getLastModified());
+    }
+
+    /**
+     * Accept 中显式列出的精简表示类型；只接受 JSON 或通配符时返回 null，按完整的 {@link Book} 输出。
+     */
+    private static MediaType compactType(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        try {
+            for (MediaType requested : MediaType.parseMediaTypes(accept)) {
+                for (MediaType compact : COMPACT_TYPES) {
+                    if (compact.equalsTypeAndSubtype(requested)) {
+                        return compact;
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    /** 同一 URL 的不同表示使用不同的 ETag */
+    private static String variantETag(String eTag, MediaType compact) {
+        return compact == null ? eTag : eTag.substring(0, eTag.length() - 1) + "-" + compact.getSubtype() + "\"";
+    }
+
+    /**
+     * 精简表示只含 {@link BookSummary} 字段，分页信息用 {@link CompactPage}，
+     * 按请求的类型输出为 JSON、Smile 或 CBOR（对应的消息转换器在类路径上有 Jackson 数据格式模块时自动注册）。
+     */
+    private static ResponseEntity<?> listResponse(Page<Book> books, MediaType compact) {
+        if (compact == null) {
+            return ResponseEntity.ok(books);
+        }
+        return ResponseEntity.ok().contentType(compact).body(CompactPage.of(books, BookSummary::from));
+    }
+
+    private static ResponseEntity<?> listResponse(CursorPage<Book> books, MediaType compact) {
+        if (compact == null) {
+            return ResponseEntity.ok(books);
+        }
+        return ResponseEntity.ok().contentType(compact).body(books.map(BookSummary::from));
+    }
+
+    /**
+     * 写入 Cache-Control 并按 If-None-Match / If-Modified-Since 判断；返回 true 时响应已置为 304，
+     * 处理方法直接返回 null。200 响应的 ETag 和 Last-Modified 也由这里写入。
+     */
+    private boolean notModified(ServletWebRequest webRequest, String eTag, long lastModified) {
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        return webRequest.checkNotModified(eTag, lastModified);
+    }
+
+    /**
+     * filter 可重复，形如 {@code category:计算机}、{@code publishYear:2020}，同一字段多个取值为“或”；
+     * facets 为逗号分隔的分面字段（category、language、publisher、publishYear、status），
+     * 给出时响应附带 facets 计数，游标分页不支持统计。
+     */
     @GetMapping("/search")
-    public ResponseEntity<Page<Book>> searchBooks(
+    public ResponseEntity<?> searchBooks(
+            @RequestParam(required = false) String q,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String author,
             @RequestParam(required = false) String publisher,
             @RequestParam(required = false) String isbn,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        
+            @RequestParam(defaultValue = BookSearchIndex.SORT_RELEVANCE) String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) List<String> filter,
+            @RequestParam(required = false) String facets,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        MediaType compact = compactType(accept);
+        FacetFilter facetFilter;
+        Set<FacetField> facetFields = EnumSet.noneOf(FacetField.class);
+        try {
+            facetFilter = FacetFilter.parse(filter);
+            if (facets != null) {
+                for (String field : facets.split(",")) {
+                    if (!field.isBlank()) {
+                        facetFields.add(FacetField.fromParam(field));
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (cursor != null) {
+            if (!facetFields.isEmpty()) {
+                return ResponseEntity.badRequest().body("游标分页不支持分面统计");
+            }
+            try {
+                Sort keysetSort = BookSearchIndex.SORT_RELEVANCE.equals(sortBy)
+                    ? Sort.by(BookSearchIndex.SORT_RELEVANCE).and(Sort.by("id"))
+                    : KeysetSupport.keysetSort(sortBy, sortDir, BookService.KEYSET_SORTABLE);
+                return listResponse(bookService.scrollSearchBooks(q, title, author, publisher, isbn,
+                    facetFilter, cursor, size, keysetSort), compact);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Book> books = bookService.searchBooks(title, author, publisher, isbn, pageable);
-        return ResponseEntity.ok(books);
+        Page<Book> books = bookService.searchBooks(q, title, author, publisher, isbn, facetFilter, facetFields,
+            pageable);
+        return listResponse(books, compact);
+    }
+
+    /**
+     * 输入联想：q 为书名、作者或出版社的前缀，也可以是中文的全拼或拼音首字母，按借阅热度排序。
+     * fields 取 title、author、publisher 的任意组合，逗号分隔。
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "title,author,publisher") String fields,
+            @RequestParam(defaultValue = "10") int limit) {
+        EnumSet<SearchField> selected = EnumSet.noneOf(SearchField.class);
+        try {
+            for (String field : fields.split(",")) {
+                if (!field.isBlank()) {
+                    selected.add(SearchField.valueOf(field.trim().toUpperCase(Locale.ROOT)));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("不支持的联想字段: " + fields);
+        }
+        List<BookSuggestion> suggestions = suggestIndex.suggest(q, selected, limit);
+        return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/search/title")
@@ -101,12 +370,28 @@ public class BookController {
         }
     }
 
+    /**
+     * 必须带 If-Match（取自 GET 响应的 ETag，如 {@code W/"book-1-3"}），缺少时返回 428；
+     * 图书在读取后被修改过（包括借还书改变了库存）时返回 409，客户端应重新读取后再提交。
+     */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book book) {
+    public ResponseEntity<?> updateBook(@PathVariable Long id, @Valid @RequestBody Book book,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                    .body("需要 If-Match 请求头，取值为读取图书时响应的 ETag");
+        }
+        Matcher matcher = BOOK_ETAG.matcher(ifMatch.trim());
+        if (!matcher.matches() || !id.equals(Long.valueOf(matcher.group(1)))) {
+            return ResponseEntity.badRequest().body("If-Match 不是这本图书的 ETag: " + ifMatch);
+        }
         try {
-            Book updatedBook = bookService.updateBook(id, book);
-            return ResponseEntity.ok(updatedBook);
+            Book updatedBook = bookService.updateBook(id, book, Long.parseLong(matcher.group(2)));
+            return ResponseEntity.ok().eTag(bookETag(updatedBook)).body(updatedBook);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // 读取后被并发修改（如借还书改变了库存），不覆盖
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("图书已被修改，请重新读取后再提交");
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -124,7 +409,10 @@ public class BookController {
     }
 
     @GetMapping("/count")
-    public ResponseEntity<Long> getTotalBookCount() {
+    public ResponseEntity<Long> getTotalBookCount(ServletWebRequest webRequest) {
+        if (notModified(webRequest, catalogVersion.current())) {
+            return null;
+        }
         long count = bookService.getTotalBookCount();
         return ResponseEntity.ok(count);
     }
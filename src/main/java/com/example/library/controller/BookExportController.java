@@ -0,0 +1,49 @@
+package com.example.library.controller;
+
+import com.example.library.service.BookExportService;
+import com.example.library.service.BookImportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/admin/books")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class BookExportController {
+
+    @Autowired
+    private BookExportService bookExportService;
+
+    /**
+     * 导出图书目录，筛选条件与 /api/books/search 相同。结果直接写入响应流，不分页、不计数。
+     */
+    @GetMapping("/export")
+    public void exportBooks(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestParam(required = false) String title,
+                            @RequestParam(required = false) String author,
+                            @RequestParam(required = false) String publisher,
+                            @RequestParam(required = false) String isbn,
+                            HttpServletResponse response) throws IOException {
+        BookImportService.Format exportFormat;
+        try {
+            exportFormat = BookImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "不支持的导出格式: " + format);
+            return;
+        }
+
+        boolean csv = exportFormat == BookImportService.Format.CSV;
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"books." + (csv ? "csv" : "ndjson") + "\"");
+        bookExportService.exportBooks(title, author, publisher, isbn, exportFormat, response.getOutputStream());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.library.controller;
+
+import com.example.library.service.BookImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/books")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class BookImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 批量导入图书。请求体为 CSV（首行为字段名）或 NDJSON，响应按 NDJSON 逐行输出
+     * 出错行、每批进度和最终汇总，客户端无需等待整个文件处理完即可看到结果。
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", NDJSON, MediaType.APPLICATION_JSON_VALUE })
+    public void importBooks(@RequestParam(required = false) String format,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        BookImportService.Format importFormat = resolveFormat(format, request.getContentType());
+        if (importFormat == null) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "不支持的导入格式: " + format);
+            return;
+        }
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+
+        BookImportService.ImportResult result = bookImportService.importBooks(request.getInputStream(), importFormat,
+            new BookImportService.ImportListener() {
+                @Override
+                public void onError(long line, String isbn, String message) {
+                    Map<String, Object> event = new LinkedHashMap<>();
+                    event.put("type", "error");
+                    event.put("line", line);
+                    event.put("isbn", isbn);
+                    event.put("message", message);
+                    write(out, event, false);
+                }
+
+                @Override
+                public void onProgress(BookImportService.ImportResult progress) {
+                    write(out, describe("progress", progress), true);
+                }
+            });
+        write(out, describe("summary", result), true);
+    }
+
+    private static BookImportService.Format resolveFormat(String format, String contentType) {
+        if (format != null) {
+            try {
+                return BookImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return contentType != null && contentType.startsWith("text/csv")
+                ? BookImportService.Format.CSV : BookImportService.Format.NDJSON;
+    }
+
+    private static Map<String, Object> describe(String type, BookImportService.ImportResult result) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("processed", result.getProcessed());
+        event.put("imported", result.getImported());
+        event.put("failed", result.getFailed());
+        if ("summary".equals(type)) {
+            event.put("elapsedMillis", result.getElapsedMillis());
+        }
+        return event;
+    }
+
+    private void write(OutputStream out, Map<String, Object> event, boolean flush) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+            if (flush) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BorrowingBatchRequest;
+import com.example.library.dto.BorrowingView;
 import com.example.library.model.Borrowing;
+import com.example.library.pagination.KeysetSupport;
 import com.example.library.service.BorrowingService;
+import com.example.library.stats.LibraryStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -11,7 +16,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/borrowings")
@@ -21,56 +28,83 @@ public class BorrowingController {
     @Autowired
     private BorrowingService borrowingService;
 
+    @Autowired
+    private LibraryStatistics libraryStatistics;
+
+    @Value("${library.borrowings.batch-max-size:50}")
+    private int batchMaxSize;
+
+    /**
+     * 传入 cursor 参数（第一页传空字符串）时切换为游标分页，返回 CursorPage 而非 Page。
+     */
     @GetMapping
-    public ResponseEntity<Page<Borrowing>> getAllBorrowings(
+    public ResponseEntity<?> getAllBorrowings(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor) {
         
+        if (cursor != null) {
+            try {
+                Sort keysetSort = KeysetSupport.keysetSort(sortBy, sortDir, BorrowingService.KEYSET_SORTABLE);
+                return ResponseEntity.ok(borrowingService.scrollBorrowings(cursor, size, keysetSort));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Borrowing> borrowings = borrowingService.findAllBorrowings(pageable);
+        Page<BorrowingView> borrowings = borrowingService.findAllBorrowings(pageable);
         return ResponseEntity.ok(borrowings);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Page<Borrowing>> getBorrowingsByUser(
+    public ResponseEntity<Page<BorrowingView>> getBorrowingsByUser(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("borrowDate").descending());
-        Page<Borrowing> borrowings = borrowingService.findBorrowingsByUser(userId, pageable);
+        Page<BorrowingView> borrowings = borrowingService.findBorrowingsByUser(userId, pageable);
         return ResponseEntity.ok(borrowings);
     }
 
     @GetMapping("/book/{bookId}")
-    public ResponseEntity<List<Borrowing>> getBorrowingsByBook(@PathVariable Long bookId) {
-        List<Borrowing> borrowings = borrowingService.findBorrowingsByBook(bookId);
+    public ResponseEntity<List<BorrowingView>> getBorrowingsByBook(@PathVariable Long bookId) {
+        List<BorrowingView> borrowings = borrowingService.findBorrowingsByBook(bookId);
         return ResponseEntity.ok(borrowings);
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<Borrowing>> getOverdueBorrowings() {
-        List<Borrowing> borrowings = borrowingService.findOverdueBorrowings();
+    public ResponseEntity<Page<BorrowingView>> getOverdueBorrowings(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("dueDate").ascending());
+        Page<BorrowingView> borrowings = borrowingService.findOverdueBorrowings(pageable);
         return ResponseEntity.ok(borrowings);
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<Borrowing>> getActiveBorrowings() {
-        List<Borrowing> borrowings = borrowingService.findActiveBorrowings();
+    public ResponseEntity<Page<BorrowingView>> getActiveBorrowings(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("dueDate").ascending());
+        Page<BorrowingView> borrowings = borrowingService.findActiveBorrowings(pageable);
         return ResponseEntity.ok(borrowings);
     }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<Borrowing> borrowBook(@RequestBody Borrowing borrowing) {
+    public ResponseEntity<BorrowingView> borrowBook(@RequestBody Borrowing borrowing) {
         try {
             Borrowing savedBorrowing = borrowingService.borrowBook(borrowing);
-            return ResponseEntity.ok(savedBorrowing);
+            return ResponseEntity.ok(BorrowingView.from(savedBorrowing));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -78,21 +112,55 @@ public class BorrowingController {
 
     @PutMapping("/{id}/return")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<Borrowing> returnBook(@PathVariable Long id) {
+    public ResponseEntity<BorrowingView> returnBook(@PathVariable Long id) {
         try {
             Borrowing borrowing = borrowingService.returnBook(id);
-            return ResponseEntity.ok(borrowing);
+            return ResponseEntity.ok(BorrowingView.from(borrowing));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * 批量借书（如柜台一次借一摞书），一个事务内完成。mode 为 ALL_OR_NOTHING（默认）时任一本失败即整批不借，
+     * 返回 400 和失败原因；PARTIAL 时返回逐项结果。
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<?> borrowBooks(@RequestBody BorrowingBatchRequest request) {
+        if (request.getBookIds() != null && request.getBookIds().size() > batchMaxSize) {
+            return ResponseEntity.badRequest().body("批量借阅最多 " + batchMaxSize + " 本");
+        }
+        try {
+            return ResponseEntity.ok(borrowingService.borrowBooks(request.getUserId(), request.getBookIds(),
+                request.getDueDate(), request.getMode()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * 批量还书，模式同批量借书。
+     */
+    @PutMapping("/batch/return")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<?> returnBooks(@RequestBody BorrowingBatchRequest request) {
+        if (request.getBorrowingIds() != null && request.getBorrowingIds().size() > batchMaxSize) {
+            return ResponseEntity.badRequest().body("批量归还最多 " + batchMaxSize + " 本");
+        }
+        try {
+            return ResponseEntity.ok(borrowingService.returnBooks(request.getBorrowingIds(), request.getMode()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}/renew")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<Borrowing> renewBook(@PathVariable Long id) {
+    public ResponseEntity<BorrowingView> renewBook(@PathVariable Long id) {
         try {
             Borrowing borrowing = borrowingService.renewBook(id);
-            return ResponseEntity.ok(borrowing);
+            return ResponseEntity.ok(BorrowingView.from(borrowing));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -103,4 +171,21 @@ public class BorrowingController {
         var stats = borrowingService.getBorrowingStats();
         return ResponseEntity.ok(stats);
     }
+
+    @GetMapping("/stats/daily")
+    public ResponseEntity<Map<LocalDate, Long>> getDailyBorrowingStats(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(libraryStatistics.getDailyBorrowings(days));
+    }
+
+    @GetMapping("/stats/books/{bookId}")
+    public ResponseEntity<Map<String, Object>> getBookBorrowingStats(@PathVariable Long bookId) {
+        return ResponseEntity.ok(Map.of("bookId", bookId,
+            "totalBorrowings", libraryStatistics.getBookBorrowCount(bookId)));
+    }
+
+    @GetMapping("/stats/users/{userId}")
+    public ResponseEntity<Map<String, Object>> getUserBorrowingStats(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("userId", userId,
+            "totalBorrowings", libraryStatistics.getUserBorrowCount(userId)));
+    }
 }
\ No newline at end of file
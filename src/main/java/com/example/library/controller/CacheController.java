@@ -0,0 +1,45 @@
+package com.example.library.controller;
+
+import com.example.library.cache.BookCache;
+import com.example.library.cache.UserPrincipalCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheController {
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @GetMapping("/books")
+    public ResponseEntity<Map<String, Object>> getBookCacheStats() {
+        return ResponseEntity.ok(bookCache.getStats());
+    }
+
+    @DeleteMapping("/books")
+    public ResponseEntity<Void> clearBookCache() {
+        bookCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<Map<String, Object>> getUserCacheStats() {
+        return ResponseEntity.ok(userPrincipalCache.getStats());
+    }
+
+    @DeleteMapping("/users")
+    public ResponseEntity<Void> clearUserCache() {
+        userPrincipalCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
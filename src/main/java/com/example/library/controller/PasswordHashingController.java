@@ -0,0 +1,60 @@
+package com.example.library.controller;
+
+import com.example.library.security.PasswordHasher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/admin/password-hashing")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class PasswordHashingController {
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(passwordHasher.getStats());
+    }
+
+    /**
+     * 调整 BCrypt cost，已有用户在下次登录时按新 cost 重新哈希。
+     * 新 cost 的占位哈希在哈希线程池中生成，完成后返回；cost 超出范围返回 400，线程池排满返回 503。
+     */
+    @PutMapping("/strength")
+    public CompletableFuture<ResponseEntity<?>> setStrength(@RequestParam int strength) {
+        try {
+            return passwordHasher.setStrength(strength)
+                    .<ResponseEntity<?>>thenApply(applied -> ResponseEntity.ok(passwordHasher.getStats()))
+                    .exceptionally(PasswordHashingController::failed);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
+
+    private static ResponseEntity<?> failed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return busy();
+        }
+        return ResponseEntity.internalServerError().body("服务器内部错误");
+    }
+
+    private static ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("服务繁忙，请稍后重试");
+    }
+}
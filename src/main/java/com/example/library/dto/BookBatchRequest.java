@@ -0,0 +1,20 @@
+package com.example.library.dto;
+
+import java.util.List;
+
+/**
+ * 批量查询图书的请求体：ids 与 isbns 二选一，可以重复，结果按请求顺序逐项返回。
+ */
+public class BookBatchRequest {
+
+    private List<Long> ids;
+    private List<String> isbns;
+
+    public List<Long> getIds() { return ids; }
+
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public List<String> getIsbns() { return isbns; }
+
+    public void setIsbns(List<String> isbns) { this.isbns = isbns; }
+}
@@ -0,0 +1,39 @@
+package com.example.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 批量查询中的一项：请求的 ID 或 ISBN（与请求一致的那一个），是否找到，以及图书本身
+ * （完整的 Book 或精简的 {@link BookSummary}，未找到时省略）。
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookLookup<T> {
+
+    private final Long id;
+    private final String isbn;
+    private final boolean found;
+    private final T book;
+
+    private BookLookup(Long id, String isbn, T book) {
+        this.id = id;
+        this.isbn = isbn;
+        this.found = book != null;
+        this.book = book;
+    }
+
+    public static <T> BookLookup<T> byId(Long id, T book) {
+        return new BookLookup<>(id, null, book);
+    }
+
+    public static <T> BookLookup<T> byIsbn(String isbn, T book) {
+        return new BookLookup<>(null, isbn, book);
+    }
+
+    public Long getId() { return id; }
+
+    public String getIsbn() { return isbn; }
+
+    public boolean isFound() { return found; }
+
+    public T getBook() { return book; }
+}
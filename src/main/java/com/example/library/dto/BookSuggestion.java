@@ -0,0 +1,29 @@
+package com.example.library.dto;
+
+import com.example.library.search.SearchField;
+
+/**
+ * 输入联想结果：字段、取值，热度为该取值下所有图书的借阅次数之和。
+ */
+public class BookSuggestion {
+
+    private final SearchField field;
+    private final String text;
+    private final long popularity;
+    private final int bookCount;
+
+    public BookSuggestion(SearchField field, String text, long popularity, int bookCount) {
+        this.field = field;
+        this.text = text;
+        this.popularity = popularity;
+        this.bookCount = bookCount;
+    }
+
+    public SearchField getField() { return field; }
+
+    public String getText() { return text; }
+
+    public long getPopularity() { return popularity; }
+
+    public int getBookCount() { return bookCount; }
+}
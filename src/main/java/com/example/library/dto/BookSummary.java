@@ -0,0 +1,64 @@
+package com.example.library.dto;
+
+import com.example.library.model.Book;
+
+/**
+ * 图书列表的精简视图，去掉描述（最长 500 字）、版本号等列表网格用不到的字段。
+ * 客户端通过 Accept 头显式请求，见 {@link #MEDIA_TYPE}；默认仍返回完整的 {@link Book}。
+ */
+public class BookSummary {
+
+    /** 精简 JSON；二进制的 Smile（application/x-jackson-smile）、CBOR（application/cbor）使用同样的字段 */
+    public static final String MEDIA_TYPE = "application/vnd.library.book-summary+json";
+
+    private final Long id;
+    private final String isbn;
+    private final String title;
+    private final String author;
+    private final String publisher;
+    private final Integer publishYear;
+    private final Double price;
+    private final Integer stockQuantity;
+    private final String category;
+    private final String coverImageUrl;
+
+    public BookSummary(Long id, String isbn, String title, String author, String publisher, Integer publishYear,
+                       Double price, Integer stockQuantity, String category, String coverImageUrl) {
+        this.id = id;
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.publisher = publisher;
+        this.publishYear = publishYear;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.category = category;
+        this.coverImageUrl = coverImageUrl;
+    }
+
+    public static BookSummary from(Book book) {
+        return new BookSummary(book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(),
+                book.getPublishYear(), book.getPrice(), book.getStockQuantity(), book.getCategory(),
+                book.getCoverImageUrl());
+    }
+
+    public Long getId() { return id; }
+
+    public String getIsbn() { return isbn; }
+
+    public String getTitle() { return title; }
+
+    public String getAuthor() { return author; }
+
+    public String getPublisher() { return publisher; }
+
+    public Integer getPublishYear() { return publishYear; }
+
+    public Double getPrice() { return price; }
+
+    public Integer getStockQuantity() { return stockQuantity; }
+
+    public String getCategory() { return category; }
+
+    public String getCoverImageUrl() { return coverImageUrl; }
+}
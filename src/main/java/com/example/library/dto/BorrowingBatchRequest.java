@@ -0,0 +1,42 @@
+package com.example.library.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 批量借还的请求体。批量借书用 userId、bookIds（同一本书出现多次即借多册）和可选的 dueDate；
+ * 批量还书只用 borrowingIds。结果按请求顺序逐项返回。
+ */
+public class BorrowingBatchRequest {
+
+    /**
+     * ALL_OR_NOTHING：任一项失败则整批回滚；PARTIAL：失败项跳过，其余照常提交。
+     */
+    public enum Mode { ALL_OR_NOTHING, PARTIAL }
+
+    private Long userId;
+    private List<Long> bookIds;
+    private List<Long> borrowingIds;
+    private LocalDateTime dueDate;
+    private Mode mode = Mode.ALL_OR_NOTHING;
+
+    public Long getUserId() { return userId; }
+
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public List<Long> getBookIds() { return bookIds; }
+
+    public void setBookIds(List<Long> bookIds) { this.bookIds = bookIds; }
+
+    public List<Long> getBorrowingIds() { return borrowingIds; }
+
+    public void setBorrowingIds(List<Long> borrowingIds) { this.borrowingIds = borrowingIds; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+
+    public Mode getMode() { return mode; }
+
+    public void setMode(Mode mode) { this.mode = mode; }
+}
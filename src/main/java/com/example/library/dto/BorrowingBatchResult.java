@@ -0,0 +1,71 @@
+package com.example.library.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * 批量借还的结果：成功与失败项数，以及按请求顺序的逐项结果。
+ * ALL_OR_NOTHING 模式下只有全部成功才会返回结果，失败时整批回滚并返回错误信息。
+ */
+public class BorrowingBatchResult {
+
+    private final int succeeded;
+    private final int failed;
+    private final List<Item> items;
+
+    public BorrowingBatchResult(List<Item> items) {
+        this.items = items;
+        this.succeeded = (int) items.stream().filter(Item::isSuccess).count();
+        this.failed = items.size() - succeeded;
+    }
+
+    public int getSucceeded() { return succeeded; }
+
+    public int getFailed() { return failed; }
+
+    public List<Item> getItems() { return items; }
+
+    /**
+     * 一项：请求中的图书ID（借书）或借阅ID（还书），成功时附借阅记录，失败时附原因。
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+
+        private final Long bookId;
+        private final Long borrowingId;
+        private final boolean success;
+        private final BorrowingView borrowing;
+        private final String error;
+
+        private Item(Long bookId, Long borrowingId, BorrowingView borrowing, String error) {
+            this.bookId = bookId;
+            this.borrowingId = borrowingId;
+            this.success = error == null;
+            this.borrowing = borrowing;
+            this.error = error;
+        }
+
+        public static Item borrowed(Long bookId, BorrowingView borrowing) {
+            return new Item(bookId, null, borrowing, null);
+        }
+
+        public static Item returned(Long borrowingId, BorrowingView borrowing) {
+            return new Item(null, borrowingId, borrowing, null);
+        }
+
+        public static Item failed(Long bookId, Long borrowingId, String error) {
+            return new Item(bookId, borrowingId, null, error);
+        }
+
+        public Long getBookId() { return bookId; }
+
+        public Long getBorrowingId() { return borrowingId; }
+
+        public boolean isSuccess() { return success; }
+
+        public BorrowingView getBorrowing() { return borrowing; }
+
+        public String getError() { return error; }
+    }
+}
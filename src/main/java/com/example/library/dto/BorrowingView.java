@@ -0,0 +1,82 @@
+package com.example.library.dto;
+
+import com.example.library.model.Borrowing;
+
+import java.time.LocalDateTime;
+
+/**
+ * 借阅记录的只读视图，只含列表展示需要的图书与用户字段（不含密码等敏感信息）。
+ * 列表查询在 JPQL 中以构造器表达式一次联表取出，不加载实体，也就不会再触发懒加载。
+ */
+public class BorrowingView {
+
+    private final Long id;
+    private final Long bookId;
+    private final String bookIsbn;
+    private final String bookTitle;
+    private final String bookAuthor;
+    private final Long userId;
+    private final String username;
+    private final LocalDateTime borrowDate;
+    private final LocalDateTime dueDate;
+    private final LocalDateTime returnDate;
+    private final String status;
+    private final String notes;
+
+    public BorrowingView(Long id, Long bookId, String bookIsbn, String bookTitle, String bookAuthor,
+                         Long userId, String username, LocalDateTime borrowDate, LocalDateTime dueDate,
+                         LocalDateTime returnDate, String status, String notes) {
+        this.id = id;
+        this.bookId = bookId;
+        this.bookIsbn = bookIsbn;
+        this.bookTitle = bookTitle;
+        this.bookAuthor = bookAuthor;
+        this.userId = userId;
+        this.username = username;
+        this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.status = status;
+        this.notes = notes;
+    }
+
+    /**
+     * 由已加载图书和用户的实体构造，供借书、还书、续借等写操作返回结果。
+     */
+    public static BorrowingView from(Borrowing borrowing) {
+        return new BorrowingView(borrowing.getId(),
+                borrowing.getBook().getId(), borrowing.getBook().getIsbn(),
+                borrowing.getBook().getTitle(), borrowing.getBook().getAuthor(),
+                borrowing.getUser().getId(), borrowing.getUser().getUsername(),
+                borrowing.getBorrowDate(), borrowing.getDueDate(), borrowing.getReturnDate(),
+                borrowing.getStatus(), borrowing.getNotes());
+    }
+
+    public Long getId() { return id; }
+
+    public Long getBookId() { return bookId; }
+
+    public String getBookIsbn() { return bookIsbn; }
+
+    public String getBookTitle() { return bookTitle; }
+
+    public String getBookAuthor() { return bookAuthor; }
+
+    public Long getUserId() { return userId; }
+
+    public String getUsername() { return username; }
+
+    public LocalDateTime getBorrowDate() { return borrowDate; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+
+    public LocalDateTime getReturnDate() { return returnDate; }
+
+    public String getStatus() { return status; }
+
+    public String getNotes() { return notes; }
+
+    public boolean isOverdue() {
+        return "BORROWED".equals(status) && LocalDateTime.now().isAfter(dueDate);
+    }
+}
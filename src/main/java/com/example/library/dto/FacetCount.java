@@ -0,0 +1,19 @@
+package com.example.library.dto;
+
+/**
+ * 分面统计中的一项：取值及其命中图书数。
+ */
+public class FacetCount {
+
+    private final String value;
+    private final int count;
+
+    public FacetCount(String value, int count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    public String getValue() { return value; }
+
+    public int getCount() { return count; }
+}
@@ -0,0 +1,50 @@
+package com.example.library.event;
+
+import com.example.library.model.Book;
+
+/**
+ * 图书写入事件，由 BookService 在保存、更新、删除后发布；借还书改变库存时发布 STOCK_CHANGED。
+ * 监听方应使用 @TransactionalEventListener，在事务提交后再更新内存结构。
+ */
+public class BookChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED, STOCK_CHANGED }
+
+    private final Type type;
+    private final Long bookId;
+    private final Book book;
+
+    private BookChangedEvent(Type type, Long bookId, Book book) {
+        this.type = type;
+        this.bookId = bookId;
+        this.book = book;
+    }
+
+    public static BookChangedEvent created(Book book) {
+        return new BookChangedEvent(Type.CREATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent updated(Book book) {
+        return new BookChangedEvent(Type.UPDATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(Type.DELETED, bookId, null);
+    }
+
+    /**
+     * 仅库存计数变化，书目字段不变，因此不携带图书实体。
+     */
+    public static BookChangedEvent stockChanged(Long bookId) {
+        return new BookChangedEvent(Type.STOCK_CHANGED, bookId, null);
+    }
+
+    public Type getType() { return type; }
+
+    public Long getBookId() { return bookId; }
+
+    /** 删除和库存变化事件时为 null */
+    public Book getBook() { return book; }
+
+    public boolean isDeleted() { return type == Type.DELETED; }
+}
@@ -0,0 +1,71 @@
+package com.example.library.event;
+
+import com.example.library.model.Borrowing;
+
+import java.time.LocalDateTime;
+
+/**
+ * 借阅状态变化事件，由 BorrowingService 在借书、还书、续借后发布，逾期由 OverdueEngine 发布。
+ * 监听方应使用 @TransactionalEventListener，只统计已提交的变化。
+ */
+public class BorrowingChangedEvent {
+
+    public enum Type { BORROWED, RETURNED, RENEWED, OVERDUE }
+
+    private final Type type;
+    private final Long borrowingId;
+    private final Long bookId;
+    private final Long userId;
+    private final LocalDateTime borrowDate;
+    private final String previousStatus;
+    private final LocalDateTime previousDueDate;
+    private final LocalDateTime dueDate;
+
+    private BorrowingChangedEvent(Type type, Borrowing borrowing, String previousStatus, LocalDateTime previousDueDate) {
+        this.type = type;
+        this.borrowingId = borrowing.getId();
+        this.bookId = borrowing.getBook().getId();
+        this.userId = borrowing.getUser().getId();
+        this.borrowDate = borrowing.getBorrowDate();
+        this.previousStatus = previousStatus;
+        this.previousDueDate = previousDueDate;
+        this.dueDate = borrowing.getDueDate();
+    }
+
+    public static BorrowingChangedEvent borrowed(Borrowing borrowing) {
+        return new BorrowingChangedEvent(Type.BORROWED, borrowing, null, null);
+    }
+
+    public static BorrowingChangedEvent returned(Borrowing borrowing, String previousStatus) {
+        return new BorrowingChangedEvent(Type.RETURNED, borrowing, previousStatus, borrowing.getDueDate());
+    }
+
+    public static BorrowingChangedEvent renewed(Borrowing borrowing, LocalDateTime previousDueDate) {
+        return new BorrowingChangedEvent(Type.RENEWED, borrowing, borrowing.getStatus(), previousDueDate);
+    }
+
+    /**
+     * 在借记录到期被标记为 OVERDUE。
+     */
+    public static BorrowingChangedEvent overdue(Borrowing borrowing) {
+        return new BorrowingChangedEvent(Type.OVERDUE, borrowing, "BORROWED", borrowing.getDueDate());
+    }
+
+    public Type getType() { return type; }
+
+    public Long getBorrowingId() { return borrowingId; }
+
+    public Long getBookId() { return bookId; }
+
+    public Long getUserId() { return userId; }
+
+    public LocalDateTime getBorrowDate() { return borrowDate; }
+
+    /** 变化前的状态，借书事件时为 null */
+    public String getPreviousStatus() { return previousStatus; }
+
+    /** 变化前的应还日期，借书事件时为 null */
+    public LocalDateTime getPreviousDueDate() { return previousDueDate; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+}
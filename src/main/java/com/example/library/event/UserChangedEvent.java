@@ -0,0 +1,24 @@
+package com.example.library.event;
+
+/**
+ * 用户写入事件，由 UserService 在保存、删除后发布，用于失效认证相关的缓存。
+ */
+public class UserChangedEvent {
+
+    private final Long userId;
+    private final String username;
+    private final String previousUsername;
+
+    public UserChangedEvent(Long userId, String username, String previousUsername) {
+        this.userId = userId;
+        this.username = username;
+        this.previousUsername = previousUsername;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public String getUsername() { return username; }
+
+    /** 用户名被修改时为旧用户名，否则与 username 相同或为 null */
+    public String getPreviousUsername() { return previousUsername; }
+}
@@ -0,0 +1,231 @@
+package com.example.library.inventory;
+
+import com.example.library.event.BookChangedEvent;
+import com.example.library.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 图书库存引擎。正确性由条件更新保证（stock_quantity > 0 才扣减，见 {@link BookRepository#checkOut}），
+ * 数据库里不会超借；JVM 内再按图书 ID 分段加锁，同一热门图书的并发借还在进入数据库前排队，
+ * 避免大量事务同时持有连接争抢同一行锁。死锁、锁等待超时等瞬时失败整体重试，次数有限。
+ */
+@Component
+public class InventoryEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryEngine.class);
+
+    /** 与 {@link BookRepository#checkOut}、{@link BookRepository#checkIn} 相同的条件更新，供批量借还使用 */
+    private static final String CHECK_OUT_SQL = "UPDATE books SET stock_quantity = stock_quantity - 1, "
+            + "borrowed_quantity = COALESCE(borrowed_quantity, 0) + 1, version = version + 1, last_modified = ? "
+            + "WHERE id = ? AND stock_quantity > 0";
+    private static final String CHECK_IN_SQL = "UPDATE books SET stock_quantity = stock_quantity + 1, "
+            + "borrowed_quantity = CASE WHEN COALESCE(borrowed_quantity, 0) > 0 THEN borrowed_quantity - 1 ELSE 0 END, "
+            + "version = version + 1, last_modified = ? WHERE id = ?";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${library.inventory.lock-stripes:256}")
+    private int lockStripes;
+
+    @Value("${library.inventory.lock-timeout:2s}")
+    private Duration lockTimeout;
+
+    @Value("${library.inventory.max-attempts:3}")
+    private int maxAttempts;
+
+    private ReentrantLock[] locks;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate lookupTemplate;
+
+    @PostConstruct
+    void init() {
+        // 取不小于配置值的 2 的幂，便于用位运算定位分段
+        int stripes = Integer.highestOneBit(Math.max(1, lockStripes - 1)) << 1;
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        lookupTemplate = new TransactionTemplate(transactionManager);
+        lookupTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        lookupTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 加锁前的查询（如按借阅记录找图书ID）放在独立短事务中执行，结束即归还连接。
+     * 否则连接会一直挂在调用方的 EntityManager 上，持连接排队等锁的线程占满连接池后，
+     * 持锁线程拿不到连接，形成死锁。
+     */
+    public <T> T lookup(Supplier<T> query) {
+        return lookupTemplate.execute(status -> query.get());
+    }
+
+    /**
+     * 持有图书所在分段的锁，在事务中执行 work 并在提交后释放锁。
+     * 调用方已处于事务中时直接加入该事务，此时不做重试（外层事务已被标记回滚）。
+     */
+    public <T> T execute(Long bookId, Supplier<T> work) {
+        return executeAll(List.of(bookId), work);
+    }
+
+    /**
+     * 同时持有多本图书所在分段的锁，在一个事务中执行 work，用于批量借还。
+     * 各分段按下标升序加锁（每段只加一次），所有批量操作的加锁顺序一致，不会互相等待成环；
+     * 单本操作只持有一个分段，同样不会参与成环。锁等待总时长不超过 lock-timeout，超时释放已持有的锁。
+     * work 中修改图书行时也应按图书ID升序，使数据库行锁的顺序同样固定。
+     */
+    public <T> T executeAll(Collection<Long> bookIds, Supplier<T> work) {
+        List<ReentrantLock> held = lockAll(bookIds);
+        try {
+            int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> work.get());
+                } catch (TransientDataAccessException e) {
+                    if (attempt >= attempts) {
+                        throw e;
+                    }
+                    logger.debug("库存更新冲突，第 {} 次重试，图书ID: {}", attempt, bookIds, e);
+                }
+            }
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private List<ReentrantLock> lockAll(Collection<Long> bookIds) {
+        // 分段下标 -> 落在该段的第一本图书（超时时用于提示）
+        TreeMap<Integer, Long> stripes = new TreeMap<>();
+        for (Long bookId : bookIds) {
+            stripes.putIfAbsent(stripeFor(bookId), bookId);
+        }
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (Map.Entry<Integer, Long> stripe : stripes.entrySet()) {
+                ReentrantLock lock = locks[stripe.getKey()];
+                boolean acquired;
+                try {
+                    acquired = lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("借阅操作被中断，图书ID: " + stripe.getValue());
+                }
+                if (!acquired) {
+                    throw new RuntimeException("图书借阅繁忙，请稍后重试，图书ID: " + stripe.getValue());
+                }
+                held.add(lock);
+            }
+            return held;
+        } catch (RuntimeException e) {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 扣减一本库存，库存不足或图书不存在时返回 false。须在 {@link #execute} 中调用。
+     */
+    public boolean checkOut(Long bookId) {
+        if (bookRepository.checkOut(bookId) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(BookChangedEvent.stockChanged(bookId));
+        return true;
+    }
+
+    /**
+     * 归还一本库存。须在 {@link #execute} 中调用。
+     */
+    public void checkIn(Long bookId) {
+        if (bookRepository.checkIn(bookId) > 0) {
+            eventPublisher.publishEvent(BookChangedEvent.stockChanged(bookId));
+        }
+    }
+
+    /**
+     * 按给定顺序各扣减一本库存，作为一次 JDBC batch 发送，返回每一项是否扣减成功（库存不足或图书不存在为 false）。
+     * 逐本调用 {@link #checkOut} 时每条 @Modifying 更新都要重新解析、翻译一次 JPQL，批量借书不走那条路径。
+     * 须在 {@link #executeAll} 中调用，bookIds 应已按图书ID升序排列。
+     */
+    public boolean[] checkOutAll(List<Long> bookIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(CHECK_OUT_SQL, bookIds.stream()
+            .map(bookId -> new Object[] { now, bookId }).toList());
+        boolean[] checkedOut = new boolean[bookIds.size()];
+        for (int i = 0; i < counts.length; i++) {
+            checkedOut[i] = counts[i] > 0;
+        }
+        publishStockChanged(bookIds, checkedOut);
+        return checkedOut;
+    }
+
+    /**
+     * 按给定顺序各归还一本库存，作为一次 JDBC batch 发送。要求同 {@link #checkOutAll}。
+     */
+    public void checkInAll(List<Long> bookIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(CHECK_IN_SQL, bookIds.stream()
+            .map(bookId -> new Object[] { now, bookId }).toList());
+        boolean[] checkedIn = new boolean[bookIds.size()];
+        for (int i = 0; i < counts.length; i++) {
+            checkedIn[i] = counts[i] > 0;
+        }
+        publishStockChanged(bookIds, checkedIn);
+    }
+
+    private void publishStockChanged(List<Long> bookIds, boolean[] changed) {
+        Set<Long> published = new HashSet<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            if (changed[i] && published.add(bookIds.get(i))) {
+                eventPublisher.publishEvent(BookChangedEvent.stockChanged(bookIds.get(i)));
+            }
+        }
+    }
+
+    private int stripeFor(Long bookId) {
+        int hash = Long.hashCode(bookId);
+        hash ^= hash >>> 16;
+        return hash & (locks.length - 1);
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.library.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "books")
@@ -36,8 +42,10 @@ public class Book {
     @Column(nullable = false)
     private Integer publishYear;
 
+    // 与 init.sql 的 DECIMAL(10,2) 一致，ddl-auto=validate 才能通过
     @NotNull(message = "价格不能为空")
-    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.DECIMAL)
+    @Column(nullable = false, precision = 10, scale = 2)
     private Double price;
 
     @NotNull(message = "库存数量不能为空")
@@ -64,6 +72,20 @@ public class Book {
     
     private String status;
 
+    /**
+     * 乐观锁版本号，任何写入（包括借还书的库存条件更新）都会递增，用作单本图书的 ETag。
+     * 列默认值 0，直接用 JDBC 插入的行和升级前已有的行也有版本号。
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    @Column(name = "last_modified")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime lastModified;
+
     public Book() {}
 
     public Book(String isbn, String title, String author, String publisher, 
@@ -126,4 +148,16 @@ public class Book {
     
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public LocalDateTime getLastModified() { return lastModified; }
+    public void setLastModified(LocalDateTime lastModified) { this.lastModified = lastModified; }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = LocalDateTime.now();
+    }
 }
\ No newline at end of file
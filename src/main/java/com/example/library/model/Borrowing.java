@@ -5,7 +5,9 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "borrowings")
+@Table(name = "borrowings", indexes = {
+    @Index(name = "idx_borrowings_status_due_date", columnList = "status, due_date")
+})
 public class Borrowing {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,46 @@
+package com.example.library.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计 Hibernate 发出的 SQL 条数，按线程分别计数。调用方在操作前后各取一次 {@link #current()}，
+ * 差值即该操作执行的语句数，用于发现 N+1 查询。处于请求中时同时记入 {@link RequestProfile}。只计数，不修改 SQL。
+ */
+@Component
+public class QueryCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final ThreadLocal<long[]> perThread = ThreadLocal.withInitial(() -> new long[1]);
+    private final LongAdder total = new LongAdder();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        perThread.get()[0]++;
+        total.increment();
+        RequestProfile profile = RequestProfile.current();
+        if (profile != null) {
+            profile.statement(sql);
+        }
+        return sql;
+    }
+
+    /** 当前线程累计执行的语句数 */
+    public long current() {
+        return perThread.get()[0];
+    }
+
+    /** 全部线程累计执行的语句数 */
+    public long total() {
+        return total.sum();
+    }
+}
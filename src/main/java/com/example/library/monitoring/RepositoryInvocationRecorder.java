@@ -0,0 +1,33 @@
+package com.example.library.monitoring;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把每次仓库方法调用记入当前请求的 {@link RequestProfile}，慢请求日志据此列出调用了哪些仓库方法、各耗时多少。
+ * 与 Actuator 的 spring.data.repository.invocations 指标挂在同一扩展点上，后者只给出聚合值。
+ */
+@Component
+public class RepositoryInvocationRecorder implements BeanPostProcessor, RepositoryMethodInvocationListener {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(this));
+        }
+        return bean;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        RequestProfile profile = RequestProfile.current();
+        if (profile != null) {
+            profile.repositoryCall(invocation.getRepositoryInterface().getSimpleName() + "."
+                    + invocation.getMethod().getName(), invocation.getDuration(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.library.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求级的 SQL 计数与慢请求日志。每个请求执行的语句数记入 http.server.requests.queries
+ * （按 method、uri 模板分组），与 Spring Boot 自带的 http.server.requests 耗时指标对应；
+ * 耗时超过 library.monitoring.slow-request-threshold 的请求输出一条 WARN 日志，
+ * 列出执行过的仓库方法和按次数排序的 SQL，便于直接定位 N+1 或慢查询。
+ * <p>
+ * 排在 Spring Security 之前，JWT 校验中查询用户的 SQL 也计入。异步请求（登录、注册）在异步处理完成时结算，
+ * 哈希线程池中执行的 SQL 不在请求线程上，不计入。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger slowLogger = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.monitoring.slow-request-threshold:500ms}")
+    private Duration slowRequestThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestProfile profile = RequestProfile.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestProfile.detach();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, profile);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, profile);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestProfile profile) {
+        long elapsedNanos = profile.elapsedNanos();
+        int queries = profile.getStatementCount();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("每个请求执行的 SQL 条数")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(queries);
+
+        if (elapsedNanos >= slowRequestThreshold.toNanos()) {
+            String query = request.getQueryString();
+            slowLogger.warn("慢请求 {} {}{} -> {}，耗时 {} ms，SQL {} 条{}", request.getMethod(), request.getRequestURI(),
+                    query != null ? "?" + query : "", response.getStatus(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), queries, profile.describe());
+        }
+    }
+}
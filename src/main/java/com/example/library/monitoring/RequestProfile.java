@@ -0,0 +1,77 @@
+package com.example.library.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个请求执行的 SQL 与仓库方法调用明细，绑定在处理请求的线程上，由 {@link RequestMetricsFilter} 开启和结束。
+ * 只在慢请求日志中输出，SQL 按文本去重计数，最多保留 {@value #MAX_DISTINCT} 种。
+ */
+final class RequestProfile {
+
+    static final int MAX_DISTINCT = 50;
+    private static final int MAX_SQL_LENGTH = 300;
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, int[]> statements = new LinkedHashMap<>();
+    private final Map<String, long[]> repositoryCalls = new LinkedHashMap<>();
+    private int statementCount;
+
+    static RequestProfile start() {
+        RequestProfile profile = new RequestProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    static void detach() {
+        CURRENT.remove();
+    }
+
+    synchronized void statement(String sql) {
+        statementCount++;
+        int[] count = statements.get(sql);
+        if (count != null) {
+            count[0]++;
+        } else if (statements.size() < MAX_DISTINCT) {
+            statements.put(sql, new int[] { 1 });
+        }
+    }
+
+    synchronized void repositoryCall(String method, long nanos) {
+        long[] stats = repositoryCalls.computeIfAbsent(method, k -> new long[2]);
+        stats[0]++;
+        stats[1] += nanos;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    synchronized int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * 仓库方法按调用次数与耗时列出，SQL 按执行次数从多到少列出。
+     */
+    synchronized String describe() {
+        StringBuilder out = new StringBuilder();
+        repositoryCalls.forEach((method, stats) -> out.append(String.format("%n  %s x%d, %.1f ms",
+                method, stats[0], stats[1] / (double) TimeUnit.MILLISECONDS.toNanos(1))));
+        statements.entrySet().stream()
+                .sorted((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]))
+                .forEach(e -> out.append(String.format("%n  %dx %s", e.getValue()[0], abbreviate(e.getKey()))));
+        return out.toString();
+    }
+
+    private static String abbreviate(String sql) {
+        String flat = sql.replaceAll("\\s+", " ").trim();
+        return flat.length() <= MAX_SQL_LENGTH ? flat : flat.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+}
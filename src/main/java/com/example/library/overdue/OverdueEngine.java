@@ -0,0 +1,219 @@
+package com.example.library.overdue;
+
+import com.example.library.event.BorrowingChangedEvent;
+import com.example.library.model.Borrowing;
+import com.example.library.repository.BorrowingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 逾期检测。在借记录按应还日期放入内存最小堆，定时任务只弹出已到期的堆顶，
+ * 分批把数据库中的状态从 BORROWED 改为 OVERDUE，每轮工作量与新到期记录数成正比，
+ * 与在借总数无关。借书、续借、还书通过事件增量维护堆；续借和还书不从堆中删除旧条目，
+ * 弹出时与当前应还日期比对，不一致的直接丢弃。
+ * <p>
+ * 启动预热时从数据库加载全部在借记录并立即检查一次，停机期间到期的记录在启动后即被标记。
+ */
+@Component
+public class OverdueEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueEngine.class);
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${library.overdue.batch-size:500}")
+    private int batchSize;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(
+            Comparator.comparing((Entry e) -> e.dueDate).thenComparingLong(e -> e.borrowingId));
+    /** 每条在借记录当前的应还日期，堆中日期与之不符的条目已失效 */
+    private final Map<Long, LocalDateTime> dueDates = new HashMap<>();
+    private final Object monitor = new Object();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 从数据库加载全部在借记录，随后立即检查一次。由启动预热调用，加载完成前定时检查直接跳过。
+     */
+    public void load() {
+        List<Object[]> rows = borrowingRepository.findBorrowedDueDates();
+        synchronized (monitor) {
+            for (Object[] row : rows) {
+                track((Long) row[0], (LocalDateTime) row[1]);
+            }
+        }
+        ready = true;
+        logger.info("逾期检测已加载 {} 条在借记录", rows.size());
+        sweep();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowingChanged(BorrowingChangedEvent event) {
+        synchronized (monitor) {
+            switch (event.getType()) {
+                case BORROWED, RENEWED -> track(event.getBorrowingId(), event.getDueDate());
+                case RETURNED, OVERDUE -> dueDates.remove(event.getBorrowingId());
+            }
+        }
+    }
+
+    /**
+     * 标记所有已到期的在借记录，返回本轮标记的条数。上一轮尚未结束时直接跳过。
+     */
+    @Scheduled(fixedDelayString = "${library.overdue.check-interval:PT1M}",
+               initialDelayString = "${library.overdue.check-interval:PT1M}")
+    public int sweep() {
+        if (!ready || !sweepLock.tryLock()) {
+            return 0;
+        }
+        try {
+            long start = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            int marked = 0;
+            List<Entry> batch;
+            while (!(batch = pollDue(now)).isEmpty()) {
+                try {
+                    marked += markBatch(batch, now);
+                } catch (RuntimeException e) {
+                    // 放回堆中，下一轮重试
+                    synchronized (monitor) {
+                        queue.addAll(batch);
+                    }
+                    logger.warn("逾期标记失败，{} 条记录将在下一轮重试", batch.size(), e);
+                    break;
+                }
+            }
+            if (marked > 0) {
+                logger.info("标记逾期借阅 {} 条，耗时 {} ms", marked, (System.nanoTime() - start) / 1_000_000);
+            }
+            return marked;
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    /**
+     * 标记本批中仍在借且已到期的记录。其余记录在数据库中已归还、已逾期或已续借到未来：
+     * 前两种的事件可能早于堆条目弹出就已处理过或根本不会到来，这里直接停止跟踪；
+     * 续借的保留，由续借事件以新日期重新入堆。
+     */
+    private int markBatch(List<Entry> batch, LocalDateTime now) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            ids.add(entry.borrowingId);
+        }
+        Set<Long> finished = new HashSet<>();
+        Integer marked = transactionTemplate.execute(status -> {
+            // 先加行锁再更新：期间已归还或续借的记录不会被选中
+            List<Borrowing> overdue = borrowingRepository.lockOverdueCandidates(ids, now);
+            if (overdue.size() < ids.size()) {
+                finished.addAll(ids);
+                for (Borrowing borrowing : overdue) {
+                    finished.remove(borrowing.getId());
+                }
+                finished.removeAll(borrowingRepository.findBorrowedIds(finished));
+            }
+            if (overdue.isEmpty()) {
+                return 0;
+            }
+            List<Long> lockedIds = new ArrayList<>(overdue.size());
+            for (Borrowing borrowing : overdue) {
+                lockedIds.add(borrowing.getId());
+            }
+            int updated = borrowingRepository.markOverdue(lockedIds);
+            for (Borrowing borrowing : overdue) {
+                eventPublisher.publishEvent(BorrowingChangedEvent.overdue(borrowing));
+            }
+            return updated;
+        });
+        if (!finished.isEmpty()) {
+            synchronized (monitor) {
+                for (Entry entry : batch) {
+                    if (finished.contains(entry.borrowingId)) {
+                        // 只删除弹出时的日期，期间到达的事件已写入的新日期保留
+                        dueDates.remove(entry.borrowingId, entry.dueDate);
+                    }
+                }
+            }
+        }
+        return marked == null ? 0 : marked;
+    }
+
+    /**
+     * 弹出至多 batchSize 条应还日期早于 now 且仍然有效的条目。
+     */
+    private List<Entry> pollDue(LocalDateTime now) {
+        List<Entry> batch = new ArrayList<>();
+        synchronized (monitor) {
+            Entry head;
+            while (batch.size() < batchSize && (head = queue.peek()) != null && head.dueDate.isBefore(now)) {
+                queue.poll();
+                if (head.dueDate.equals(dueDates.get(head.borrowingId))) {
+                    batch.add(head);
+                }
+            }
+        }
+        return batch;
+    }
+
+    private void track(Long borrowingId, LocalDateTime dueDate) {
+        if (borrowingId == null || dueDate == null) {
+            return;
+        }
+        LocalDateTime previous = dueDates.put(borrowingId, dueDate);
+        if (!dueDate.equals(previous)) {
+            queue.add(new Entry(dueDate, borrowingId));
+        }
+    }
+
+    /** 当前堆中在借记录数（不含已失效条目） */
+    public int getTrackedCount() {
+        synchronized (monitor) {
+            return dueDates.size();
+        }
+    }
+
+    private static final class Entry {
+        final LocalDateTime dueDate;
+        final long borrowingId;
+
+        Entry(LocalDateTime dueDate, long borrowingId) {
+            this.dueDate = dueDate;
+            this.borrowingId = borrowingId;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.library.pagination;
+
+import com.example.library.dto.FacetCount;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 偏移分页结果的精简形式：只保留页码、页大小和总数，不输出 Spring 的 pageable、sort 等元数据。
+ * 由 {@link FacetedPage} 转换而来时保留分面统计。
+ */
+public class CompactPage<T> {
+
+    private final List<T> content;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final int totalPages;
+    private final Map<String, List<FacetCount>> facets;
+
+    public CompactPage(List<T> content, int page, int size, long totalElements, int totalPages,
+                       Map<String, List<FacetCount>> facets) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.facets = facets;
+    }
+
+    public static <S, T> CompactPage<T> of(Page<S> page, Function<S, T> mapper) {
+        Map<String, List<FacetCount>> facets = page instanceof FacetedPage<S> faceted ? faceted.getFacets() : null;
+        return new CompactPage<>(page.getContent().stream().map(mapper).toList(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), facets);
+    }
+
+    public List<T> getContent() { return content; }
+
+    public int getPage() { return page; }
+
+    public int getSize() { return size; }
+
+    public long getTotalElements() { return totalElements; }
+
+    public int getTotalPages() { return totalPages; }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Map<String, List<FacetCount>> getFacets() { return facets; }
+}
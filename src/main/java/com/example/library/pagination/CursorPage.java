@@ -0,0 +1,32 @@
+package com.example.library.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果：不返回总数，nextCursor 为下一页的不透明令牌，没有下一页时为 null。
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() { return content; }
+
+    public int getNumberOfElements() { return content.size(); }
+
+    public boolean isHasNext() { return hasNext; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).toList(), hasNext, nextCursor);
+    }
+}
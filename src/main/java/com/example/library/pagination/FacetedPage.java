@@ -0,0 +1,23 @@
+package com.example.library.pagination;
+
+import com.example.library.dto.FacetCount;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带分面统计的偏移分页结果：在 Page 的基础上多一个 facets 字段，键为分面字段名，值为各取值的命中数。
+ */
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final Map<String, List<FacetCount>> facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total, Map<String, List<FacetCount>> facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public Map<String, List<FacetCount>> getFacets() { return facets; }
+}
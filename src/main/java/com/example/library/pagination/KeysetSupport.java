@@ -0,0 +1,105 @@
+package com.example.library.pagination;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 游标（keyset/seek）分页的公共逻辑。游标是排序键取值的 Base64URL(JSON)，
+ * 解码时按各实体的属性类型还原，查询形如 WHERE (sortKey, id) &gt; (?, ?)，无 OFFSET、无 COUNT。
+ */
+public final class KeysetSupport {
+
+    public static final String SOURCE_KEY = "_src";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private KeysetSupport() {}
+
+    /**
+     * 构造游标排序：sortBy 必须在允许的列表中（非空且可比较的列），并以 id 作为唯一的次级排序键。
+     */
+    public static Sort keysetSort(String sortBy, String sortDir, Map<String, ?> sortable) {
+        if (!sortable.containsKey(sortBy)) {
+            throw new IllegalArgumentException("游标分页不支持按该字段排序: " + sortBy);
+        }
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortBy);
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    public static String encode(Map<String, String> keys) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(MAPPER.writeValueAsBytes(keys));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("无法生成分页游标", e);
+        }
+    }
+
+    /**
+     * 空字符串表示第一页，返回空 Map。
+     */
+    public static Map<String, String> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.trim());
+            return MAPPER.readValue(new String(json, StandardCharsets.UTF_8), new TypeReference<LinkedHashMap<String, String>>() {});
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 把游标还原为 Spring Data 的 KeysetScrollPosition，游标中的键必须与当前排序一致。
+     * 键值无法按 types 转换时同样抛出 IllegalArgumentException。
+     */
+    public static ScrollPosition position(String cursor, Sort sort, Map<String, Function<String, Object>> types) {
+        Map<String, String> raw = decode(cursor);
+        if (raw.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+        if (raw.containsKey(SOURCE_KEY)) {
+            throw new IllegalArgumentException("分页游标与当前查询不匹配");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            String value = raw.get(order.getProperty());
+            if (value == null) {
+                throw new IllegalArgumentException("分页游标与排序条件不匹配");
+            }
+            try {
+                keys.put(order.getProperty(), types.get(order.getProperty()).apply(value));
+            } catch (RuntimeException e) {
+                // 类型转换函数各自抛出不同的异常，如 LocalDateTime::parse 的 DateTimeParseException
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public static <T> CursorPage<T> toCursorPage(Window<T> window) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            Map<String, String> keys = new LinkedHashMap<>();
+            last.getKeys().forEach((property, value) -> keys.put(property, String.valueOf(value)));
+            nextCursor = encode(keys);
+        }
+        List<T> content = window.getContent();
+        return new CursorPage<>(content, window.hasNext(), nextCursor);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.library.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全局并发准入：同时处理的 /api 请求不超过 max-concurrent，已满时最多等待 max-wait，仍无空位即返回 429。
+ * 上限应略高于数据库连接池（请求并非全程持有连接），超出的请求在这里快速失败，
+ * 而不是在连接池中排队直到 connection-timeout，拖慢所有请求。
+ * <p>
+ * 排在请求指标过滤器之后、Spring Security 之前：被拒的请求仍计入 http.server.requests，但不做 JWT 校验。
+ * 异步请求（登录、注册）在请求线程返回时即归还名额：其 BCrypt 计算由 PasswordHasher 的有界队列限流（排满返回 503），
+ * 若持有名额直到异步完成，一波登录就能占满名额，让其他 /api 请求也收到 429。判定结果记入 library.admission.decisions。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.admission.max-concurrent:20}")
+    private int maxConcurrent;
+
+    @Value("${library.admission.max-wait:50ms}")
+    private Duration maxWait;
+
+    private Semaphore permits;
+    private Counter admitted;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConcurrent);
+        admitted = decisionCounter("admitted");
+        rejected = decisionCounter("rejected");
+        Gauge.builder("library.admission.in_flight", permits, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .description("正在处理的 /api 请求数")
+                .register(meterRegistry);
+    }
+
+    private Counter decisionCounter(String outcome) {
+        return Counter.builder("library.admission.decisions")
+                .description("并发准入判定次数")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader("Retry-After", "1");
+            response.setStatus(429);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("服务繁忙，请稍后重试");
+            return;
+        }
+        admitted.increment();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
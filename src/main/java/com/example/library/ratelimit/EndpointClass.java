@@ -0,0 +1,40 @@
+package com.example.library.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 限流按接口类别分别计数，每类有自己的档位：
+ * AUTH 为登录注册（始终按 IP，防暴力破解），PUBLIC 为匿名可读的图书查询，API 为其余业务接口。
+ */
+public enum EndpointClass {
+    AUTH("auth"),
+    PUBLIC("public"),
+    API("api");
+
+    private final String tag;
+
+    EndpointClass(String tag) {
+        this.tag = tag;
+    }
+
+    /** 指标标签与配置项中使用的名称 */
+    public String getTag() { return tag; }
+
+    /**
+     * 请求所属类别，不在 /api 下的请求（静态页面、actuator 等）返回 null，不限流。
+     */
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        String method = request.getMethod();
+        if (path.startsWith("/api/books") && ("GET".equals(method) || "HEAD".equals(method))) {
+            return PUBLIC;
+        }
+        return API;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.library.ratelimit;
+
+/**
+ * 限流档位：每秒补充的令牌数与可累积的突发量。
+ */
+final class RateLimitTier {
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    RateLimitTier(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("限流档位须满足 rate > 0 且 burst >= 1: " + ratePerSecond + "/" + burst);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+    }
+
+    double getRatePerSecond() { return ratePerSecond; }
+
+    int getBurst() { return burst; }
+
+    long getIntervalNanos() { return intervalNanos; }
+
+    long getToleranceNanos() { return toleranceNanos; }
+
+    @Override
+    public String toString() {
+        return ratePerSecond + "/s, burst " + burst;
+    }
+}
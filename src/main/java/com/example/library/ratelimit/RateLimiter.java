@@ -0,0 +1,106 @@
+package com.example.library.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 按客户端与接口类别限流。每个 (类别, 客户端) 一个 {@link TokenBucket}，客户端为登录用户或来源 IP。
+ * 桶放在 Caffeine 中，条数有上限，空闲超过 idle-timeout 即淘汰（此时桶早已补满，淘汰不影响结果），
+ * 扫描器换 IP 也不会让内存无限增长。放行与拒绝次数按类别记入 library.ratelimit.decisions。
+ */
+@Component
+public class RateLimiter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.ratelimit.auth.rate:0.2}")
+    private double authRate;
+
+    @Value("${library.ratelimit.auth.burst:10}")
+    private int authBurst;
+
+    @Value("${library.ratelimit.public.rate:20}")
+    private double publicRate;
+
+    @Value("${library.ratelimit.public.burst:50}")
+    private int publicBurst;
+
+    @Value("${library.ratelimit.api.rate:20}")
+    private double apiRate;
+
+    @Value("${library.ratelimit.api.burst:40}")
+    private int apiBurst;
+
+    @Value("${library.ratelimit.max-buckets:100000}")
+    private long maxBuckets;
+
+    @Value("${library.ratelimit.idle-timeout:10m}")
+    private Duration idleTimeout;
+
+    private final Map<EndpointClass, RateLimitTier> tiers = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> allowed = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> limited = new EnumMap<>(EndpointClass.class);
+    private Cache<String, TokenBucket> buckets;
+
+    @PostConstruct
+    void init() {
+        tiers.put(EndpointClass.AUTH, new RateLimitTier(authRate, authBurst));
+        tiers.put(EndpointClass.PUBLIC, new RateLimitTier(publicRate, publicBurst));
+        tiers.put(EndpointClass.API, new RateLimitTier(apiRate, apiBurst));
+        // 空闲时间不短于桶从空到满所需的时间，淘汰的桶必然已满
+        Duration refill = tiers.values().stream()
+                .map(tier -> Duration.ofNanos(tier.getToleranceNanos() + tier.getIntervalNanos()))
+                .max(Duration::compareTo).orElse(Duration.ZERO);
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout.compareTo(refill) > 0 ? idleTimeout : refill)
+                .build();
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            allowed.put(endpointClass, decisionCounter(endpointClass, "allowed"));
+            limited.put(endpointClass, decisionCounter(endpointClass, "limited"));
+        }
+        Gauge.builder("library.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("内存中的限流桶数")
+                .register(meterRegistry);
+    }
+
+    private Counter decisionCounter(EndpointClass endpointClass, String outcome) {
+        return Counter.builder("library.ratelimit.decisions")
+                .description("限流判定次数")
+                .tag("endpoint", endpointClass.getTag())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 为 client 在 endpointClass 上取一个令牌。返回 0 表示放行，否则为建议的等待纳秒数。
+     */
+    public long tryAcquire(EndpointClass endpointClass, String client) {
+        RateLimitTier tier = tiers.get(endpointClass);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(endpointClass.getTag() + '|' + client, key -> new TokenBucket(tier, now));
+        long wait = bucket.tryAcquire(now);
+        (wait == 0 ? allowed : limited).get(endpointClass).increment();
+        return wait;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.library.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 令牌桶，按 GCRA（理论到达时间）实现：每秒补充 rate 个令牌、最多累积 burst 个，与经典令牌桶等价，
+ * 但状态只有一个 long（下一个令牌的理论到达时间），用 CAS 无锁更新，也不需要定时补充令牌。
+ * 新建的桶是满的；空闲时间足够长的桶同样是满的，因此淘汰空闲桶不会改变限流结果。
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(RateLimitTier tier, long now) {
+        this.intervalNanos = tier.getIntervalNanos();
+        this.toleranceNanos = tier.getToleranceNanos();
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * 尝试取一个令牌。返回 0 表示放行，否则为还需等待的纳秒数（此次不消耗令牌）。
+     * now 取自 System.nanoTime()，只比较差值，不受数值溢出影响。
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = tat - now > 0 ? tat : now;
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
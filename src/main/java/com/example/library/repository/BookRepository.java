@@ -4,17 +4,22 @@ import com.example.library.model.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
     
     Optional<Book> findByIsbn(String isbn);
+
+    List<Book> findByIsbnIn(Collection<String> isbns);
     
     boolean existsByIsbn(String isbn);
     
@@ -34,4 +39,24 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> findByAuthorContainingIgnoreCase(String author);
     
     List<Book> findByPublisherContainingIgnoreCase(String publisher);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * 借出一本：库存为正时原子地扣减，返回 0 表示库存不足或图书不存在。
+     * 批量更新绕过实体回调，版本号和修改时间在语句中一并更新。
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.stockQuantity = b.stockQuantity - 1, " +
+           "b.borrowedQuantity = COALESCE(b.borrowedQuantity, 0) + 1, " +
+           "b.version = b.version + 1, b.lastModified = LOCAL DATETIME " +
+           "WHERE b.id = :id AND b.stockQuantity > 0")
+    int checkOut(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.stockQuantity = b.stockQuantity + 1, " +
+           "b.borrowedQuantity = CASE WHEN COALESCE(b.borrowedQuantity, 0) > 0 THEN b.borrowedQuantity - 1 ELSE 0 END, " +
+           "b.version = b.version + 1, b.lastModified = LOCAL DATETIME " +
+           "WHERE b.id = :id")
+    int checkIn(@Param("id") Long id);
 }
\ No newline at end of file
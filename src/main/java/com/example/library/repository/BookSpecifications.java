@@ -0,0 +1,49 @@
+package com.example.library.repository;
+
+import com.example.library.model.Book;
+import com.example.library.search.FacetField;
+import com.example.library.search.FacetFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 与 BookRepository.findByMultipleConditions 语义相同的动态条件，用于游标分页等需要 Specification 的查询。
+ */
+public final class BookSpecifications {
+
+    private BookSpecifications() {}
+
+    public static Specification<Book> matching(String title, String author, String publisher, String isbn) {
+        return Specification.where(contains("title", title))
+                .and(contains("author", author))
+                .and(contains("publisher", publisher))
+                .and(isbn == null ? null : (root, query, cb) -> cb.equal(root.get("isbn"), isbn));
+    }
+
+    /**
+     * 分面筛选的数据库等价条件：同一字段内 IN，字段之间 AND。检索索引未就绪时使用。
+     */
+    public static Specification<Book> inFacets(FacetFilter filter) {
+        Specification<Book> spec = Specification.where(null);
+        for (Map.Entry<FacetField, Set<String>> entry : filter.getSelected().entrySet()) {
+            String attribute = entry.getKey().getParamName();
+            Set<?> values = entry.getKey() == FacetField.PUBLISH_YEAR
+                    ? entry.getValue().stream().map(Integer::valueOf).collect(Collectors.toSet())
+                    : entry.getValue();
+            spec = spec.and((root, query, cb) -> root.get(attribute).in(values));
+        }
+        return spec;
+    }
+
+    private static Specification<Book> contains(String attribute, String value) {
+        if (value == null) {
+            return null;
+        }
+        String pattern = "%" + value.toLowerCase(Locale.ROOT) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(attribute)), pattern);
+    }
+}
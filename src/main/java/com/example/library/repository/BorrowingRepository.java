@@ -0,0 +1,119 @@
+package com.example.library.repository;
+
+import com.example.library.dto.BorrowingView;
+import com.example.library.model.Borrowing;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BorrowingRepository extends JpaRepository<Borrowing, Long>, JpaSpecificationExecutor<Borrowing> {
+
+    /**
+     * 列表查询：构造器表达式一次联表取出视图所需的列，分页时另有一条 COUNT。
+     * 排序属性按 Borrowing 的属性名解析（如 dueDate、borrowDate）。
+     */
+    String VIEW_SELECT = "SELECT new com.example.library.dto.BorrowingView(b.id, bk.id, bk.isbn, bk.title, bk.author, " +
+                         "u.id, u.username, b.borrowDate, b.dueDate, b.returnDate, b.status, b.notes) " +
+                         "FROM Borrowing b JOIN b.book bk JOIN b.user u";
+
+    @Query(value = VIEW_SELECT, countQuery = "SELECT COUNT(b) FROM Borrowing b")
+    Page<BorrowingView> findAllViews(Pageable pageable);
+
+    @Query(value = VIEW_SELECT + " WHERE b.user.id = :userId",
+           countQuery = "SELECT COUNT(b) FROM Borrowing b WHERE b.user.id = :userId")
+    Page<BorrowingView> findViewsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(VIEW_SELECT + " WHERE b.book.id = :bookId ORDER BY b.borrowDate DESC, b.id DESC")
+    List<BorrowingView> findViewsByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * 按状态分页，走 (status, due_date) 索引。
+     */
+    @Query(value = VIEW_SELECT + " WHERE b.status = :status",
+           countQuery = "SELECT COUNT(b) FROM Borrowing b WHERE b.status = :status")
+    Page<BorrowingView> findViewsByStatus(@Param("status") String status, Pageable pageable);
+
+    long countByStatus(String status);
+
+    long countByStatusAndDueDateBefore(String status, LocalDateTime dateTime);
+
+    /**
+     * 连同图书和用户一起加载，供写操作返回完整结果。
+     */
+    @EntityGraph(attributePaths = { "book", "user" })
+    Optional<Borrowing> findWithBookAndUserById(Long id);
+
+    @Query("SELECT b.dueDate, COUNT(b) FROM Borrowing b WHERE b.status = :status GROUP BY b.dueDate")
+    List<Object[]> countByDueDate(@Param("status") String status);
+
+    @Query("SELECT b.book.id, COUNT(b) FROM Borrowing b GROUP BY b.book.id")
+    List<Object[]> countGroupByBook();
+
+    @Query("SELECT b.user.id, COUNT(b) FROM Borrowing b GROUP BY b.user.id")
+    List<Object[]> countGroupByUser();
+
+    @Query("SELECT CAST(b.borrowDate AS LocalDate), COUNT(b) FROM Borrowing b " +
+           "WHERE b.borrowDate >= :since GROUP BY CAST(b.borrowDate AS LocalDate)")
+    List<Object[]> countGroupByBorrowDay(@Param("since") LocalDateTime since);
+
+    @Query("SELECT b.book.id FROM Borrowing b WHERE b.id = :id")
+    Optional<Long> findBookIdById(@Param("id") Long id);
+
+    /**
+     * 批量还书在加锁前一次取出各借阅记录及其图书、用户。
+     */
+    @EntityGraph(attributePaths = { "book", "user" })
+    List<Borrowing> findWithBookAndUserByIdIn(Collection<Long> ids);
+
+    /**
+     * 标记归还，仅当状态仍为读到的 expectedStatus 时生效；
+     * 返回 0 表示记录已被归还（含并发重复归还）或状态刚被改为逾期。
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Borrowing b SET b.status = 'RETURNED', b.returnDate = :returnDate " +
+           "WHERE b.id = :id AND b.status = :expectedStatus")
+    int markReturned(@Param("id") Long id,
+                     @Param("expectedStatus") String expectedStatus,
+                     @Param("returnDate") LocalDateTime returnDate);
+
+    @Query("SELECT b.id, b.dueDate FROM Borrowing b WHERE b.status = 'BORROWED'")
+    List<Object[]> findBorrowedDueDates();
+
+    /**
+     * 锁定本批中确实已到期且仍在借的记录，防止与并发还书交错。
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Borrowing b WHERE b.id IN :ids AND b.status = 'BORROWED' AND b.dueDate < :now")
+    List<Borrowing> lockOverdueCandidates(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.id FROM Borrowing b WHERE b.id IN :ids AND b.status = 'BORROWED'")
+    List<Long> findBorrowedIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Borrowing b SET b.status = 'OVERDUE' WHERE b.id IN :ids AND b.status = 'BORROWED'")
+    int markOverdue(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 续借：以读到的应还日期作比较条件，并发续借只有一个生效。
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Borrowing b SET b.dueDate = :newDueDate " +
+           "WHERE b.id = :id AND b.status = 'BORROWED' AND b.dueDate = :expectedDueDate")
+    int extendDueDate(@Param("id") Long id,
+                      @Param("expectedDueDate") LocalDateTime expectedDueDate,
+                      @Param("newDueDate") LocalDateTime newDueDate);
+}
@@ -0,0 +1,26 @@
+package com.example.library.repository;
+
+import com.example.library.model.Borrowing;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * 借阅查询的 Specification。
+ */
+public final class BorrowingSpecifications {
+
+    private BorrowingSpecifications() {}
+
+    /**
+     * 以 fetch join 随同一条查询取出图书和用户。游标分页的 fluent 查询会忽略 project() 指定的抓取图，
+     * 只能在条件中加入 fetch；COUNT 查询不能带 fetch，按结果类型跳过。
+     */
+    public static Specification<Borrowing> fetchBookAndUser() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType()) && !long.class.equals(query.getResultType())) {
+                root.fetch("book");
+                root.fetch("user");
+            }
+            return null;
+        };
+    }
+}
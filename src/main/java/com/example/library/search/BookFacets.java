@@ -0,0 +1,223 @@
+package com.example.library.search;
+
+import com.example.library.dto.FacetCount;
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分面位图：每个字段的每个取值对应一个 Roaring 压缩位图，记录具有该取值的存活文档序号
+ * （与 {@link BookInvertedIndex} 的序号一致）。筛选是各取值位图的并、交运算，
+ * 统计是各取值位图与命中集合的交集基数，都不需要回表或 GROUP BY。
+ * <p>
+ * 取值很多而命中集合较小时，逐个取值求交反而慢于把命中集合扫描一遍，
+ * 因此同时按文档序号记录每个字段的取值编号，统计时按两者的代价择一，结果相同。
+ * <p>
+ * 位图中只保留存活文档，删除时同步清除，统计结果不需要再与存活集合求交。
+ * 本类非线程安全，由 {@link BookSearchIndex} 加锁。
+ */
+final class BookFacets {
+
+    private static final FacetField[] FIELDS = FacetField.values();
+    private static final Comparator<FacetCount> BY_COUNT = Comparator.comparingInt(FacetCount::getCount).reversed()
+        .thenComparing(FacetCount::getValue);
+    /** 命中数低于“取值个数 × 该值”时扫描命中集合，否则逐个取值求交 */
+    private static final int SCAN_HITS_PER_VALUE = 2048;
+    private static final int NO_VALUE = -1;
+
+    private final Map<String, FacetValue>[] byValue;
+    /** 各字段按编号排列的取值，取值被删光后对应位置为 null，编号不复用（压缩索引时重新编号） */
+    private final List<FacetValue>[] byCode;
+    /** 每个文档在各字段上的取值编号，没有取值为 {@link #NO_VALUE} */
+    private int[][] codes = new int[FIELDS.length][];
+
+    @SuppressWarnings("unchecked")
+    BookFacets() {
+        byValue = new Map[FIELDS.length];
+        byCode = new List[FIELDS.length];
+        for (int f = 0; f < FIELDS.length; f++) {
+            byValue[f] = new HashMap<>();
+            byCode[f] = new ArrayList<>();
+            codes[f] = new int[1024];
+            Arrays.fill(codes[f], NO_VALUE);
+        }
+    }
+
+    void add(int ordinal, String[] facetValues) {
+        ensureCapacity(ordinal + 1);
+        for (int f = 0; f < FIELDS.length; f++) {
+            String value = facetValues[f];
+            if (value == null) {
+                continue;
+            }
+            List<FacetValue> fieldCodes = byCode[f];
+            FacetValue facet = byValue[f].computeIfAbsent(value, key -> {
+                FacetValue created = new FacetValue(key, fieldCodes.size());
+                fieldCodes.add(created);
+                return created;
+            });
+            facet.ordinals.add(ordinal);
+            codes[f][ordinal] = facet.code;
+        }
+    }
+
+    void remove(int ordinal) {
+        for (int f = 0; f < FIELDS.length; f++) {
+            int code = codes[f][ordinal];
+            if (code == NO_VALUE) {
+                continue;
+            }
+            FacetValue facet = byCode[f].get(code);
+            facet.ordinals.remove(ordinal);
+            if (facet.ordinals.isEmpty()) {
+                byValue[f].remove(facet.value);
+                byCode[f].set(code, null);
+            }
+            codes[f][ordinal] = NO_VALUE;
+        }
+    }
+
+    String[] values(int ordinal) {
+        String[] result = new String[FIELDS.length];
+        for (int f = 0; f < FIELDS.length; f++) {
+            int code = codes[f][ordinal];
+            result[f] = code == NO_VALUE ? null : byCode[f].get(code).value;
+        }
+        return result;
+    }
+
+    /** 全量构建后把连续区间转为游程编码，减少内存并加快求交 */
+    void optimize() {
+        for (Map<String, FacetValue> field : byValue) {
+            for (FacetValue facet : field.values()) {
+                facet.ordinals.runOptimize();
+            }
+        }
+    }
+
+    /**
+     * 同时满足文本条件与分面筛选（不能为空）的文档序号，升序。textHits 为 null 表示没有文本条件。
+     */
+    int[] select(RoaringBitmap textHits, FacetFilter filter) {
+        RoaringBitmap mask = mask(filter, null);
+        if (textHits != null) {
+            mask.and(textHits);
+        }
+        return mask.toArray();
+    }
+
+    /**
+     * 各字段取值的命中数，只返回大于 0 的前 limit 项，按命中数降序。
+     * 统计某个字段时不应用该字段自身的筛选（其余字段的筛选照常），选中一个出版社后仍能看到其他出版社的数量。
+     */
+    Map<String, List<FacetCount>> count(RoaringBitmap textHits, FacetFilter filter, Set<FacetField> facets,
+                                        int limit) {
+        Map<String, List<FacetCount>> result = new LinkedHashMap<>();
+        for (FacetField field : facets) {
+            RoaringBitmap scope = mask(filter, field);
+            if (textHits != null) {
+                scope = scope == null ? textHits : RoaringBitmap.and(scope, textHits);
+            }
+            int[] counts = scope != null && scope.getCardinality() < (long) byValue[field.ordinal()].size()
+                * SCAN_HITS_PER_VALUE ? scan(field, scope) : intersect(field, scope);
+
+            List<FacetCount> fieldCounts = new ArrayList<>();
+            List<FacetValue> fieldCodes = byCode[field.ordinal()];
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    fieldCounts.add(new FacetCount(fieldCodes.get(code).value, counts[code]));
+                }
+            }
+            fieldCounts.sort(BY_COUNT);
+            result.put(field.getParamName(),
+                fieldCounts.size() > limit ? new ArrayList<>(fieldCounts.subList(0, limit)) : fieldCounts);
+        }
+        return result;
+    }
+
+    /** 按取值编号计数：scope 为 null 时直接取各位图的基数 */
+    private int[] intersect(FacetField field, RoaringBitmap scope) {
+        int[] counts = new int[byCode[field.ordinal()].size()];
+        for (FacetValue facet : byValue[field.ordinal()].values()) {
+            counts[facet.code] = scope == null ? facet.ordinals.getCardinality()
+                : RoaringBitmap.andCardinality(facet.ordinals, scope);
+        }
+        return counts;
+    }
+
+    private int[] scan(FacetField field, RoaringBitmap scope) {
+        int[] fieldCodes = codes[field.ordinal()];
+        int[] counts = new int[byCode[field.ordinal()].size()];
+        int[] batch = new int[256];
+        BatchIterator iterator = scope.getBatchIterator();
+        while (iterator.hasNext()) {
+            int n = iterator.nextBatch(batch);
+            for (int i = 0; i < n; i++) {
+                int code = fieldCodes[batch[i]];
+                if (code != NO_VALUE) {
+                    counts[code]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 除 except 外各字段筛选条件的交集（新建的位图，可以直接修改）；没有条件时返回 null，调用方按“不限”处理。
+     */
+    private RoaringBitmap mask(FacetFilter filter, FacetField except) {
+        RoaringBitmap mask = null;
+        for (Map.Entry<FacetField, Set<String>> entry : filter.getSelected().entrySet()) {
+            if (entry.getKey() == except) {
+                continue;
+            }
+            List<RoaringBitmap> selected = new ArrayList<>(entry.getValue().size());
+            for (String value : entry.getValue()) {
+                FacetValue facet = byValue[entry.getKey().ordinal()].get(value);
+                if (facet != null) {
+                    selected.add(facet.ordinals);
+                }
+            }
+            RoaringBitmap union = FastAggregation.or(selected.iterator());
+            if (mask == null) {
+                mask = union;
+            } else {
+                mask.and(union);
+            }
+        }
+        return mask;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int length = codes[0].length;
+        if (capacity <= length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, length + (length >> 1));
+        for (int f = 0; f < FIELDS.length; f++) {
+            codes[f] = Arrays.copyOf(codes[f], newCapacity);
+            Arrays.fill(codes[f], length, newCapacity, NO_VALUE);
+        }
+    }
+
+    private static final class FacetValue {
+
+        private final String value;
+        private final int code;
+        private final RoaringBitmap ordinals = new RoaringBitmap();
+
+        FacetValue(String value, int code) {
+            this.value = value;
+            this.code = code;
+        }
+    }
+}
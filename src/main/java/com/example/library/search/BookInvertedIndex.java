@@ -0,0 +1,241 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 图书倒排索引。每个字段按单字和相邻二字（bigram）建立 posting list，
+ * 中文书名不依赖分词也能做任意子串匹配；命中候选再用原文校验，结果与 LIKE '%x%' 一致。
+ * <p>
+ * 文档按写入顺序分配 int 序号，更新即“删除旧序号 + 追加新序号”，
+ * 删除比例过高时通过 {@link #compact()} 重建。分面取值的位图（{@link BookFacets}）使用同一套序号，随文档一起维护。
+ * 本类非线程安全，由 {@link BookSearchIndex} 加锁。
+ */
+final class BookInvertedIndex {
+
+    static final int[] EMPTY = new int[0];
+
+    private static final SearchField[] FIELDS = SearchField.values();
+    private static final FacetField[] FACETS = FacetField.values();
+    private static final int MIN_COMPACT_DELETES = 1024;
+
+    private long[] ids = new long[1024];
+    private String[][] values = new String[FIELDS.length][1024];
+    private String[] isbns = new String[1024];
+    private int[] publishYears = new int[1024];
+    private final BitSet live = new BitSet();
+    private int size;
+    private int deleted;
+
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final Map<String, Integer> ordinalByIsbn = new HashMap<>();
+    private final Map<Integer, PostingList>[] unigrams;
+    private final Map<Integer, PostingList>[] bigrams;
+    private final BookFacets facets = new BookFacets();
+
+    @SuppressWarnings("unchecked")
+    BookInvertedIndex() {
+        unigrams = new Map[FIELDS.length];
+        bigrams = new Map[FIELDS.length];
+        for (int f = 0; f < FIELDS.length; f++) {
+            unigrams[f] = new HashMap<>();
+            bigrams[f] = new HashMap<>();
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    void upsert(Book book) {
+        if (book.getId() == null) {
+            return;
+        }
+        remove(book.getId());
+        String[] facetValues = new String[FACETS.length];
+        for (FacetField facet : FACETS) {
+            facetValues[facet.ordinal()] = facet.valueOf(book);
+        }
+        add(book.getId(), book.getIsbn(), book.getPublishYear() == null ? 0 : book.getPublishYear(), facetValues,
+            normalize(book.getTitle()), normalize(book.getAuthor()), normalize(book.getPublisher()));
+    }
+
+    boolean remove(long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return false;
+        }
+        live.clear(ordinal);
+        facets.remove(ordinal);
+        ordinalByIsbn.remove(isbns[ordinal], ordinal);
+        deleted++;
+        return true;
+    }
+
+    private void add(long id, String isbn, int publishYear, String[] facetValues, String... fieldValues) {
+        ensureCapacity(size + 1);
+        int ordinal = size++;
+        ids[ordinal] = id;
+        isbns[ordinal] = isbn;
+        publishYears[ordinal] = publishYear;
+        for (int f = 0; f < FIELDS.length; f++) {
+            String value = fieldValues[f];
+            values[f][ordinal] = value;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                unigrams[f].computeIfAbsent((int) c, k -> new PostingList()).add(ordinal);
+                if (i + 1 < value.length()) {
+                    bigrams[f].computeIfAbsent(bigram(c, value.charAt(i + 1)), k -> new PostingList()).add(ordinal);
+                }
+            }
+        }
+        facets.add(ordinal, facetValues);
+        live.set(ordinal);
+        ordinalById.put(id, ordinal);
+        if (isbn != null) {
+            ordinalByIsbn.put(isbn, ordinal);
+        }
+    }
+
+    /**
+     * 返回指定字段包含 query（已归一化）的存活文档序号，升序。
+     */
+    int[] match(SearchField field, String query) {
+        if (query.isEmpty()) {
+            return allLive();
+        }
+        if (query.length() == 1) {
+            PostingList list = unigrams[field.ordinal()].get((int) query.charAt(0));
+            return list == null ? EMPTY : filterLive(list.docs(), list.size());
+        }
+
+        Set<Integer> keys = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < query.length(); i++) {
+            keys.add(bigram(query.charAt(i), query.charAt(i + 1)));
+        }
+        PostingList[] lists = new PostingList[keys.size()];
+        int n = 0;
+        for (Integer key : keys) {
+            PostingList list = bigrams[field.ordinal()].get(key);
+            if (list == null) {
+                return EMPTY;
+            }
+            lists[n++] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        int[] candidates = Arrays.copyOf(lists[0].docs(), lists[0].size());
+        int count = candidates.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            count = PostingList.intersect(candidates, count, lists[i].docs(), lists[i].size(), candidates);
+        }
+
+        // bigram 交集只是候选集，用原文校验顺序与连续性
+        String[] fieldValues = values[field.ordinal()];
+        int verified = 0;
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates[i];
+            if (live.get(ordinal) && fieldValues[ordinal].contains(query)) {
+                candidates[verified++] = ordinal;
+            }
+        }
+        return verified == candidates.length ? candidates : Arrays.copyOf(candidates, verified);
+    }
+
+    int[] matchIsbn(String isbn) {
+        Integer ordinal = ordinalByIsbn.get(isbn);
+        return ordinal == null ? EMPTY : new int[] { ordinal };
+    }
+
+    int[] allLive() {
+        int[] result = new int[liveCount()];
+        int n = 0;
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            result[n++] = ordinal;
+        }
+        return result;
+    }
+
+    /**
+     * 相关度：字段权重 × 匹配质量（完全相等 > 前缀 > 包含）× 查询覆盖字段的比例。
+     */
+    float score(int ordinal, SearchField field, String query) {
+        if (query.isEmpty()) {
+            return 0f;
+        }
+        String value = values[field.ordinal()][ordinal];
+        float quality = value.equals(query) ? 4f : value.startsWith(query) ? 2f : 1f;
+        return field.getWeight() * quality * query.length() / Math.max(1, value.length());
+    }
+
+    long id(int ordinal) { return ids[ordinal]; }
+
+    String value(SearchField field, int ordinal) { return values[field.ordinal()][ordinal]; }
+
+    String isbn(int ordinal) { return isbns[ordinal]; }
+
+    int publishYear(int ordinal) { return publishYears[ordinal]; }
+
+    int liveCount() { return size - deleted; }
+
+    BookFacets facets() { return facets; }
+
+    boolean needsCompaction() {
+        return deleted >= MIN_COMPACT_DELETES && deleted > (size >> 2);
+    }
+
+    /**
+     * 丢弃已删除的序号，按原有顺序重新写入存活文档。
+     */
+    BookInvertedIndex compact() {
+        BookInvertedIndex compacted = new BookInvertedIndex();
+        String[] fieldValues = new String[FIELDS.length];
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            for (int f = 0; f < FIELDS.length; f++) {
+                fieldValues[f] = values[f][ordinal];
+            }
+            compacted.add(ids[ordinal], isbns[ordinal], publishYears[ordinal], facets.values(ordinal), fieldValues);
+        }
+        compacted.facets.optimize();
+        return compacted;
+    }
+
+    private int[] filterLive(int[] docs, int length) {
+        int[] result = new int[length];
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (live.get(docs[i])) {
+                result[n++] = docs[i];
+            }
+        }
+        return n == length ? result : Arrays.copyOf(result, n);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        isbns = Arrays.copyOf(isbns, newCapacity);
+        publishYears = Arrays.copyOf(publishYears, newCapacity);
+        for (int f = 0; f < FIELDS.length; f++) {
+            values[f] = Arrays.copyOf(values[f], newCapacity);
+        }
+    }
+
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+}
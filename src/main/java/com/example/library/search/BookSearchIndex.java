@@ -0,0 +1,495 @@
+package com.example.library.search;
+
+import com.example.library.dto.FacetCount;
+import com.example.library.event.BookChangedEvent;
+import com.example.library.model.Book;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.FacetedPage;
+import com.example.library.pagination.KeysetSupport;
+import com.example.library.repository.BookRepository;
+import org.slf4j.Logger;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内图书全文索引，替代 BookRepository 中 LOWER(col) LIKE '%x%' 的全表扫描。
+ * 启动预热（{@link com.example.library.startup.StartupWarmup}）时从数据库全量构建，之后通过 {@link BookChangedEvent} 在事务提交后增量维护。
+ * 索引未就绪前 {@link #isReady()} 返回 false，调用方应回退到数据库查询。
+ * <p>
+ * 分类、语言、出版社、出版年份、状态的分面筛选与统计基于同一套文档序号上的压缩位图（{@link BookFacets}），
+ * 与文本命中求交即可得到整个馆藏的下钻计数。
+ */
+@Component
+public class BookSearchIndex {
+
+    public static final String SORT_RELEVANCE = "relevance";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final String CURSOR_SOURCE = "index";
+    private static final Set<String> SORTABLE = Set.of(
+        SORT_RELEVANCE, "id", "isbn", "title", "author", "publisher", "publishYear");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    /** 每个分面字段最多返回的取值个数 */
+    @Value("${library.search.max-facet-values:20}")
+    private int maxFacetValues;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private BookInvertedIndex index = new BookInvertedIndex();
+    private List<BookChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    /**
+     * 按主键分批读取全部图书构建新索引，构建期间的写事件先缓存，完成后重放再切换。
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        BookInvertedIndex fresh = new BookInvertedIndex();
+        try {
+            long lastId = 0L;
+            List<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Book book : batch) {
+                    fresh.upsert(book);
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            fresh.facets().optimize();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int docs;
+        lock.writeLock().lock();
+        try {
+            for (BookChangedEvent event : pendingDuringRebuild) {
+                fresh = apply(fresh, event);
+            }
+            pendingDuringRebuild = null;
+            index = fresh;
+            docs = fresh.liveCount();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("图书检索索引构建完成: {} 本, 耗时 {} ms", docs, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.STOCK_CHANGED) {
+            // 库存不参与检索
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index = apply(index, event);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static BookInvertedIndex apply(BookInvertedIndex target, BookChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.getBookId());
+        } else {
+            target.upsert(event.getBook());
+        }
+        return target.needsCompaction() ? target.compact() : target;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean supports(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Page<Long> search(String keyword, String title, String author, String publisher, String isbn,
+                             Pageable pageable) {
+        return search(keyword, title, author, publisher, isbn, FacetFilter.NONE, EnumSet.noneOf(FacetField.class),
+            pageable);
+    }
+
+    /**
+     * 多条件检索，返回当前页的图书 ID（按排序顺序）和命中总数。
+     * keyword 按空白切分，每个词须命中书名、作者或出版社之一；其余条件语义与 findByMultipleConditions 一致。
+     * 排序字段为 relevance 时按相关度降序，忽略排序方向。
+     * facets 不为空时返回 {@link FacetedPage}，附带这些字段在全部命中（不只是当前页）上的取值计数。
+     */
+    public Page<Long> search(String keyword, String title, String author, String publisher, String isbn,
+                             FacetFilter filter, Set<FacetField> facets, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            BookInvertedIndex idx = index;
+            Query query = new Query(keyword, title, author, publisher, isbn);
+            Matches matches = match(idx, query, filter, facets);
+            int[] hits = matches.hits;
+            HitOrdering ordering = new HitOrdering(idx, hits, query, pageable.getSort());
+
+            List<Long> ids;
+            if (pageable.isUnpaged()) {
+                ids = toIds(idx, hits, select(hits.length, hits.length, ordering, null));
+            } else if (pageable.getOffset() >= hits.length) {
+                ids = Collections.emptyList();
+            } else {
+                int offset = (int) pageable.getOffset();
+                int k = (int) Math.min(hits.length, offset + pageable.getPageSize());
+                int[] top = select(hits.length, k, ordering, null);
+                ids = toIds(idx, hits, Arrays.copyOfRange(top, offset, k));
+            }
+            if (matches.facetCounts != null) {
+                return new FacetedPage<>(ids, pageable, hits.length, matches.facetCounts);
+            }
+            return pageable.isUnpaged() ? new PageImpl<>(ids) : new PageImpl<>(ids, pageable, hits.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 游标分页检索：只返回排在游标之后的 limit 条，不计算总数。
+     * 游标中保存上一页最后一条的排序键，与偏移量无关，翻到多深代价都一样。
+     */
+    public CursorPage<Long> scroll(String keyword, String title, String author, String publisher, String isbn,
+                                   Sort sort, String cursor, int limit) {
+        return scroll(keyword, title, author, publisher, isbn, FacetFilter.NONE, sort, cursor, limit);
+    }
+
+    public CursorPage<Long> scroll(String keyword, String title, String author, String publisher, String isbn,
+                                   FacetFilter filter, Sort sort, String cursor, int limit) {
+        Map<String, String> after = KeysetSupport.decode(cursor);
+        if (!after.isEmpty() && !CURSOR_SOURCE.equals(after.get(KeysetSupport.SOURCE_KEY))) {
+            throw new IllegalArgumentException("分页游标与当前查询不匹配");
+        }
+        lock.readLock().lock();
+        try {
+            BookInvertedIndex idx = index;
+            Query query = new Query(keyword, title, author, publisher, isbn);
+            int[] hits = match(idx, query, filter, EnumSet.noneOf(FacetField.class)).hits;
+            HitOrdering ordering = new HitOrdering(idx, hits, query, sort);
+
+            int[] top = select(hits.length, limit + 1, ordering, after.isEmpty() ? null : after);
+            boolean hasNext = top.length > limit;
+            int[] page = hasNext ? Arrays.copyOf(top, limit) : top;
+            String nextCursor = null;
+            if (hasNext) {
+                Map<String, String> keys = ordering.cursorOf(page[page.length - 1]);
+                keys.put(KeysetSupport.SOURCE_KEY, CURSOR_SOURCE);
+                nextCursor = KeysetSupport.encode(keys);
+            }
+            return new CursorPage<>(toIds(idx, hits, page), hasNext, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 单字段检索，按相关度返回全部命中 ID。
+     */
+    public List<Long> searchField(SearchField field, String text) {
+        String title = field == SearchField.TITLE ? text : null;
+        String author = field == SearchField.AUTHOR ? text : null;
+        String publisher = field == SearchField.PUBLISHER ? text : null;
+        return search(null, title, author, publisher, null,
+            Pageable.unpaged(Sort.by(SORT_RELEVANCE))).getContent();
+    }
+
+    /**
+     * 文本条件的命中再按分面筛选；需要统计或筛选时才把文本命中转为位图，纯文本检索不受影响。
+     */
+    private Matches match(BookInvertedIndex idx, Query query, FacetFilter filter, Set<FacetField> facets) {
+        int[] textHits = query.collect(idx);
+        if (filter.isEmpty() && facets.isEmpty()) {
+            return new Matches(textHits == null ? idx.allLive() : textHits, null);
+        }
+        RoaringBitmap textBitmap = textHits == null ? null : RoaringBitmap.bitmapOf(textHits);
+        int[] hits = filter.isEmpty() ? (textHits == null ? idx.allLive() : textHits)
+            : idx.facets().select(textBitmap, filter);
+        Map<String, List<FacetCount>> counts = facets.isEmpty() ? null
+            : idx.facets().count(textBitmap, filter, facets, maxFacetValues);
+        return new Matches(hits, counts);
+    }
+
+    private static int[] intersect(int[] current, int[] next) {
+        if (current == null) {
+            return next;
+        }
+        int[] out = new int[Math.min(current.length, next.length)];
+        return Arrays.copyOf(out, PostingList.intersect(current, current.length, next, next.length, out));
+    }
+
+    /**
+     * 按排序选出前 k 个命中（after 不为空时只考虑排在游标之后的），返回它们在 hits 中的下标，已排好序。
+     * 使用大小为 k 的堆，代价为 O(n log k)，翻页浅时远小于全量排序。
+     */
+    private static int[] select(int hitCount, int k, HitOrdering ordering, Map<String, String> after) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, ordering.reversed());
+        for (int i = 0; i < hitCount; i++) {
+            if (after != null && ordering.compareToCursor(i, after) <= 0) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (ordering.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        int[] selected = new int[heap.size()];
+        for (int i = selected.length - 1; i >= 0; i--) {
+            selected[i] = heap.poll();
+        }
+        return selected;
+    }
+
+    private static List<Long> toIds(BookInvertedIndex idx, int[] hits, int[] positions) {
+        List<Long> ids = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            ids.add(idx.id(hits[position]));
+        }
+        return ids;
+    }
+
+    private static final class Matches {
+
+        private final int[] hits;
+        private final Map<String, List<FacetCount>> facetCounts;
+
+        Matches(int[] hits, Map<String, List<FacetCount>> facetCounts) {
+            this.hits = hits;
+            this.facetCounts = facetCounts;
+        }
+    }
+
+    /**
+     * 归一化后的检索条件。
+     */
+    private static final class Query {
+
+        private final List<String> terms;
+        private final String[] fieldQueries;
+        private final String isbn;
+
+        Query(String keyword, String title, String author, String publisher, String isbn) {
+            String normalized = BookInvertedIndex.normalize(keyword).trim();
+            this.terms = normalized.isEmpty() ? Collections.emptyList() : Arrays.asList(normalized.split("\\s+"));
+            this.fieldQueries = new String[] {
+                BookInvertedIndex.normalize(title),
+                BookInvertedIndex.normalize(author),
+                BookInvertedIndex.normalize(publisher)
+            };
+            this.isbn = isbn;
+        }
+
+        /** 命中的文档序号，升序；没有任何文本条件时返回 null，表示不限 */
+        int[] collect(BookInvertedIndex idx) {
+            int[] hits = null;
+            if (isbn != null) {
+                hits = idx.matchIsbn(isbn);
+            }
+            for (SearchField field : SearchField.values()) {
+                String query = fieldQueries[field.ordinal()];
+                if (!query.isEmpty()) {
+                    hits = intersect(hits, idx.match(field, query));
+                }
+            }
+            for (String term : terms) {
+                int[] termHits = BookInvertedIndex.EMPTY;
+                for (SearchField field : SearchField.values()) {
+                    int[] fieldHits = idx.match(field, term);
+                    int[] merged = new int[termHits.length + fieldHits.length];
+                    termHits = Arrays.copyOf(merged,
+                        PostingList.union(termHits, termHits.length, fieldHits, fieldHits.length, merged));
+                }
+                hits = intersect(hits, termHits);
+            }
+            return hits;
+        }
+
+        float score(BookInvertedIndex idx, int ordinal) {
+            float score = 0f;
+            for (SearchField field : SearchField.values()) {
+                score += idx.score(ordinal, field, fieldQueries[field.ordinal()]);
+                for (String term : terms) {
+                    if (idx.value(field, ordinal).contains(term)) {
+                        score += idx.score(ordinal, field, term);
+                    }
+                }
+            }
+            return score;
+        }
+    }
+
+    /**
+     * 命中结果的排序规则，元素为命中在 hits 数组中的下标。相关度总是高分在前，最后以 id 升序保证全序。
+     */
+    private static final class HitOrdering implements Comparator<Integer> {
+
+        private final BookInvertedIndex idx;
+        private final int[] hits;
+        private final float[] scores;
+        private final List<Sort.Order> orders = new ArrayList<>();
+
+        HitOrdering(BookInvertedIndex idx, int[] hits, Query query, Sort sort) {
+            this.idx = idx;
+            this.hits = hits;
+            for (Sort.Order order : sort) {
+                if (!"id".equals(order.getProperty())) {
+                    orders.add(order);
+                }
+            }
+            if (orders.isEmpty() && sort.isUnsorted()) {
+                orders.add(Sort.Order.by(SORT_RELEVANCE));
+            }
+            Sort.Order idOrder = sort.getOrderFor("id");
+            orders.add(idOrder != null ? idOrder : Sort.Order.asc("id"));
+
+            boolean relevance = orders.stream().anyMatch(o -> SORT_RELEVANCE.equals(o.getProperty()));
+            this.scores = relevance ? new float[hits.length] : null;
+            if (relevance) {
+                for (int i = 0; i < hits.length; i++) {
+                    scores[i] = query.score(idx, hits[i]);
+                }
+            }
+        }
+
+        @Override
+        public int compare(Integer left, Integer right) {
+            for (Sort.Order order : orders) {
+                int result = compareKeys(order, key(order.getProperty(), left), key(order.getProperty(), right));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+
+        int compareToCursor(int position, Map<String, String> cursor) {
+            for (Sort.Order order : orders) {
+                String raw = cursor.get(order.getProperty());
+                if (raw == null) {
+                    throw new IllegalArgumentException("分页游标与排序条件不匹配");
+                }
+                int result = compareKeys(order, key(order.getProperty(), position), parse(order.getProperty(), raw));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+
+        Map<String, String> cursorOf(int position) {
+            Map<String, String> keys = new LinkedHashMap<>();
+            for (Sort.Order order : orders) {
+                keys.put(order.getProperty(), String.valueOf(key(order.getProperty(), position)));
+            }
+            return keys;
+        }
+
+        private Comparable<?> key(String property, int position) {
+            int ordinal = hits[position];
+            switch (property) {
+                case SORT_RELEVANCE:
+                    return scores[position];
+                case "isbn":
+                    return idx.isbn(ordinal) == null ? "" : idx.isbn(ordinal);
+                case "title":
+                    return idx.value(SearchField.TITLE, ordinal);
+                case "author":
+                    return idx.value(SearchField.AUTHOR, ordinal);
+                case "publisher":
+                    return idx.value(SearchField.PUBLISHER, ordinal);
+                case "publishYear":
+                    return idx.publishYear(ordinal);
+                default:
+                    return idx.id(ordinal);
+            }
+        }
+
+        private static Comparable<?> parse(String property, String raw) {
+            try {
+                switch (property) {
+                    case SORT_RELEVANCE:
+                        return Float.valueOf(raw);
+                    case "publishYear":
+                        return Integer.valueOf(raw);
+                    case "id":
+                        return Long.valueOf(raw);
+                    default:
+                        return raw;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static int compareKeys(Sort.Order order, Comparable a, Comparable b) {
+            int result = a.compareTo(b);
+            if (SORT_RELEVANCE.equals(order.getProperty())) {
+                return -result;
+            }
+            return order.isDescending() ? -result : result;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+
+import java.util.function.Function;
+
+/**
+ * 支持分面统计与筛选的图书字段，取值按原文（去掉首尾空白）精确匹配，空值不参与统计。
+ * paramName 同时是请求参数中的字段名和 {@link Book} 的属性名。
+ */
+public enum FacetField {
+    CATEGORY("category", Book::getCategory),
+    LANGUAGE("language", Book::getLanguage),
+    PUBLISHER("publisher", Book::getPublisher),
+    PUBLISH_YEAR("publishYear", book -> book.getPublishYear() == null ? null : book.getPublishYear().toString()),
+    STATUS("status", Book::getStatus);
+
+    private final String paramName;
+    private final Function<Book, String> extractor;
+
+    FacetField(String paramName, Function<Book, String> extractor) {
+        this.paramName = paramName;
+        this.extractor = extractor;
+    }
+
+    public String getParamName() { return paramName; }
+
+    /** 图书在该字段上的分面取值，没有取值时返回 null */
+    String valueOf(Book book) {
+        String value = extractor.apply(book);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    public static FacetField fromParam(String name) {
+        for (FacetField field : values()) {
+            if (field.paramName.equalsIgnoreCase(name.trim())) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("不支持的分面字段: " + name);
+    }
+}
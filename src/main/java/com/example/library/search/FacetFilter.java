@@ -0,0 +1,57 @@
+package com.example.library.search;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分面筛选条件：同一字段的多个取值之间为“或”，不同字段之间为“与”。
+ */
+public final class FacetFilter {
+
+    public static final FacetFilter NONE = new FacetFilter(new EnumMap<>(FacetField.class));
+
+    private final Map<FacetField, Set<String>> selected;
+
+    private FacetFilter(Map<FacetField, Set<String>> selected) {
+        this.selected = selected;
+    }
+
+    /**
+     * 解析形如 {@code category:计算机}、{@code publishYear:2020} 的条件，字段名与取值以第一个冒号分隔。
+     */
+    public static FacetFilter parse(List<String> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return NONE;
+        }
+        Map<FacetField, Set<String>> selected = new EnumMap<>(FacetField.class);
+        for (String filter : filters) {
+            int colon = filter.indexOf(':');
+            String value = colon < 0 ? "" : filter.substring(colon + 1).trim();
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("无效的筛选条件: " + filter);
+            }
+            FacetField field = FacetField.fromParam(filter.substring(0, colon));
+            if (field == FacetField.PUBLISH_YEAR) {
+                try {
+                    value = String.valueOf(Integer.parseInt(value));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("无效的出版年份: " + value);
+                }
+            }
+            selected.computeIfAbsent(field, key -> new LinkedHashSet<>()).add(value);
+        }
+        return new FacetFilter(selected);
+    }
+
+    public boolean isEmpty() {
+        return selected.isEmpty();
+    }
+
+    public Map<FacetField, Set<String>> getSelected() {
+        return Collections.unmodifiableMap(selected);
+    }
+}
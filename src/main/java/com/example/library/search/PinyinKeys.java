@@ -0,0 +1,133 @@
+package com.example.library.search;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 生成联想词在前缀树中的检索键：规范化原文、原文中每个单词起始处的后缀（输入 "sedge" 可命中
+ * "Robert Sedgewick"），以及含汉字时的全拼与首字母（"数据结构" 对应 "shujujiegou"、"sjjg"）。
+ * 多音字按读音组合展开，每段文本最多 {@value #MAX_PINYIN_VARIANTS} 种组合，超出部分只取常用读音。
+ */
+final class PinyinKeys {
+
+    static final int MAX_PINYIN_VARIANTS = 4;
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    private PinyinKeys() {
+    }
+
+    static Set<String> keysFor(String text) {
+        Set<String> keys = new LinkedHashSet<>();
+        String normalized = normalizeQuery(text);
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ' && normalized.charAt(i) != ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        if (containsHan(normalized)) {
+            addPinyinKeys(normalized, keys);
+        }
+        return keys;
+    }
+
+    /**
+     * 与建键时相同的规范化：NFKC、小写、合并空白。
+     */
+    static String normalizeQuery(String text) {
+        return BookInvertedIndex.normalize(text).trim().replaceAll("\\s+", " ");
+    }
+
+    private static boolean containsHan(String text) {
+        return text.codePoints().anyMatch(PinyinKeys::isHan);
+    }
+
+    private static boolean isHan(int codePoint) {
+        return Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN;
+    }
+
+    /**
+     * 汉字取拼音，字母数字原样保留，空白与标点跳过；首字母键中连续的字母数字只取第一个字符。
+     */
+    private static void addPinyinKeys(String text, Set<String> keys) {
+        List<StringBuilder> full = new ArrayList<>(List.of(new StringBuilder()));
+        List<StringBuilder> initials = new ArrayList<>(List.of(new StringBuilder()));
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isHan(c)) {
+                inWord = false;
+                String[] readings = readings(c);
+                if (readings.length == 0) {
+                    continue;
+                }
+                full = expand(full, readings, false);
+                initials = expand(initials, readings, true);
+            } else if (Character.isLetterOrDigit(c)) {
+                full.forEach(builder -> builder.append(c));
+                if (!inWord) {
+                    initials.forEach(builder -> builder.append(c));
+                }
+                inWord = true;
+            } else {
+                inWord = false;
+            }
+        }
+        full.forEach(builder -> keys.add(builder.toString()));
+        initials.forEach(builder -> keys.add(builder.toString()));
+    }
+
+    private static String[] readings(char c) {
+        try {
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+            if (readings == null) {
+                return new String[0];
+            }
+            Set<String> distinct = new LinkedHashSet<>(List.of(readings));
+            return distinct.toArray(new String[0]);
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 以每个已有前缀拼接该字的各个读音；第一个（最常用的）读音总是拼接，其余读音在组合数未达上限时才展开。
+     * 先为所有前缀拼接常用读音再展开其余读音，否则排在前面的前缀占用名额后，后面的前缀仍会各加一种，组合数随字数增长。
+     */
+    private static List<StringBuilder> expand(List<StringBuilder> prefixes, String[] readings, boolean initialOnly) {
+        Set<String> next = new LinkedHashSet<>();
+        for (StringBuilder prefix : prefixes) {
+            next.add(prefix + (initialOnly ? readings[0].substring(0, 1) : readings[0]));
+        }
+        for (int j = 1; j < readings.length && next.size() < MAX_PINYIN_VARIANTS; j++) {
+            for (StringBuilder prefix : prefixes) {
+                if (next.size() >= MAX_PINYIN_VARIANTS) {
+                    break;
+                }
+                next.add(prefix + (initialOnly ? readings[j].substring(0, 1) : readings[j]));
+            }
+        }
+        List<StringBuilder> builders = new ArrayList<>(next.size());
+        next.forEach(candidate -> builders.add(new StringBuilder(candidate)));
+        return builders;
+    }
+}
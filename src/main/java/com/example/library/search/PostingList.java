@@ -0,0 +1,92 @@
+package com.example.library.search;
+
+import java.util.Arrays;
+
+/**
+ * 升序的文档序号列表，直接存放在 int[] 中避免装箱。
+ */
+final class PostingList {
+
+    private int[] docs = new int[4];
+    private int size;
+
+    void add(int doc) {
+        // 同一文档的 n-gram 是连续写入的，只需和末尾比较即可去重
+        if (size > 0 && docs[size - 1] == doc) {
+            return;
+        }
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size << 1);
+        }
+        docs[size++] = doc;
+    }
+
+    int[] docs() { return docs; }
+
+    int size() { return size; }
+
+    /**
+     * 求两个升序数组的交集，长度相差悬殊时对长数组做指数搜索。
+     */
+    static int intersect(int[] a, int aLen, int[] b, int bLen, int[] out) {
+        if (aLen > bLen) {
+            int[] t = a; a = b; b = t;
+            int tl = aLen; aLen = bLen; bLen = tl;
+        }
+        int n = 0;
+        int j = 0;
+        boolean gallop = bLen > (aLen << 4);
+        for (int i = 0; i < aLen && j < bLen; i++) {
+            int target = a[i];
+            j = gallop ? advance(b, j, bLen, target) : linearAdvance(b, j, bLen, target);
+            if (j < bLen && b[j] == target) {
+                out[n++] = target;
+                j++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 求两个升序数组的并集（去重）。
+     */
+    static int union(int[] a, int aLen, int[] b, int bLen, int[] out) {
+        int i = 0, j = 0, n = 0;
+        while (i < aLen && j < bLen) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < aLen) {
+            out[n++] = a[i++];
+        }
+        while (j < bLen) {
+            out[n++] = b[j++];
+        }
+        return n;
+    }
+
+    private static int linearAdvance(int[] b, int from, int bLen, int target) {
+        while (from < bLen && b[from] < target) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int advance(int[] b, int from, int bLen, int target) {
+        int step = 1;
+        int hi = from;
+        while (hi < bLen && b[hi] < target) {
+            from = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        int idx = Arrays.binarySearch(b, from, Math.min(hi + 1, bLen), target);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+}
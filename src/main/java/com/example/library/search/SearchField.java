@@ -0,0 +1,18 @@
+package com.example.library.search;
+
+/**
+ * 参与全文检索的图书字段，weight 用于相关度排序。
+ */
+public enum SearchField {
+    TITLE(3.0f),
+    AUTHOR(2.0f),
+    PUBLISHER(1.0f);
+
+    private final float weight;
+
+    SearchField(float weight) {
+        this.weight = weight;
+    }
+
+    public float getWeight() { return weight; }
+}
@@ -0,0 +1,47 @@
+package com.example.library.search;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 一条联想词：某个字段的一个取值（如同一作者的多本书合并为一条），热度为这些图书借阅次数之和。
+ * 可变，只在 {@link SuggestIndex} 的锁内读写，对外返回 {@link com.example.library.dto.BookSuggestion} 快照。
+ */
+final class SuggestEntry {
+
+    /** 热度从高到低，相同热度按文本排序，结果稳定 */
+    static final Comparator<SuggestEntry> BY_POPULARITY = Comparator
+        .comparingLong(SuggestEntry::getPopularity).reversed()
+        .thenComparing(SuggestEntry::getText)
+        .thenComparing(SuggestEntry::getField);
+
+    private final SearchField field;
+    private final String text;
+    private final Set<String> keys;
+    private final Set<Long> bookIds = new HashSet<>();
+    private long popularity;
+
+    SuggestEntry(SearchField field, String text) {
+        this.field = field;
+        this.text = text;
+        this.keys = PinyinKeys.keysFor(text);
+    }
+
+    SearchField getField() { return field; }
+
+    String getText() { return text; }
+
+    long getPopularity() { return popularity; }
+
+    int getBookCount() { return bookIds.size(); }
+
+    /** 在前缀树中的全部检索键，见 {@link PinyinKeys#keysFor} */
+    Set<String> keys() { return keys; }
+
+    Set<Long> bookIds() { return bookIds; }
+
+    void addPopularity(long delta) {
+        popularity += delta;
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.library.search;
+
+import com.example.library.dto.BookSuggestion;
+import com.example.library.event.BookChangedEvent;
+import com.example.library.event.BorrowingChangedEvent;
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BorrowingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 书名、作者、出版社的输入联想。每个字段一个分片（{@link SuggestTrie}），同一取值合并为一条联想词，
+ * 按借阅次数排序；查询各分片取前 k 条再合并，不访问数据库。
+ * <p>
+ * 与 {@link BookSearchIndex} 相同：启动预热时全量构建，之后通过 {@link BookChangedEvent}
+ * 在事务提交后增量维护，借书事件（{@link BorrowingChangedEvent}）提升对应词条的热度。
+ * 未就绪前查询返回空列表。
+ */
+@Component
+public class SuggestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final SearchField[] FIELDS = SearchField.values();
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    /** 单次查询返回条数的上限，也是前缀树每个节点预存的条数 */
+    @Value("${library.suggest.max-results:10}")
+    private int maxResults;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Shards shards;
+    private List<Object> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    /**
+     * 读取各图书的借阅次数后按主键分批读取图书构建，构建期间的事件先缓存，完成后重放再切换。
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Shards fresh = new Shards(maxResults);
+        try {
+            for (Object[] row : borrowingRepository.countGroupByBook()) {
+                fresh.popularity.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            long lastId = 0L;
+            List<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Book book : batch) {
+                    fresh.upsert(book);
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int entries;
+        lock.writeLock().lock();
+        try {
+            for (Object event : pendingDuringRebuild) {
+                fresh.apply(event);
+            }
+            pendingDuringRebuild = null;
+            shards = fresh;
+            entries = fresh.entryCount();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("联想词索引构建完成: {} 条, 耗时 {} ms", entries, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() != BookChangedEvent.Type.STOCK_CHANGED) {
+            applyEvent(event);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowingChanged(BorrowingChangedEvent event) {
+        if (event.getType() == BorrowingChangedEvent.Type.BORROWED) {
+            applyEvent(event);
+        }
+    }
+
+    private void applyEvent(Object event) {
+        lock.writeLock().lock();
+        try {
+            if (shards != null) {
+                shards.apply(event);
+            }
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 以 prefix 开头（原文、单词起始处、全拼或拼音首字母）的联想词，按热度取前 limit 条。
+     */
+    public List<BookSuggestion> suggest(String prefix, Collection<SearchField> fields, int limit) {
+        String normalized = PinyinKeys.normalizeQuery(prefix);
+        if (!ready || normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int k = Math.min(limit, maxResults);
+        lock.readLock().lock();
+        try {
+            List<SuggestEntry> candidates = new ArrayList<>();
+            for (SearchField field : fields) {
+                candidates.addAll(shards.tries.get(field).top(normalized, k));
+            }
+            candidates.sort(SuggestEntry.BY_POPULARITY);
+            List<BookSuggestion> result = new ArrayList<>(Math.min(k, candidates.size()));
+            for (SuggestEntry entry : candidates.subList(0, Math.min(k, candidates.size()))) {
+                result.add(new BookSuggestion(entry.getField(), entry.getText(), entry.getPopularity(),
+                    entry.getBookCount()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 各字段的前缀树、取值到词条的映射，以及每本书当前的取值和借阅次数（更新、删除时据此撤销旧词条）。
+     */
+    private static final class Shards {
+
+        private final Map<SearchField, SuggestTrie> tries = new EnumMap<>(SearchField.class);
+        private final Map<SearchField, Map<String, SuggestEntry>> entries = new EnumMap<>(SearchField.class);
+        private final Map<Long, String[]> valuesByBook = new HashMap<>();
+        private final Map<Long, Long> popularity = new HashMap<>();
+
+        Shards(int capacity) {
+            for (SearchField field : FIELDS) {
+                tries.put(field, new SuggestTrie(capacity));
+                entries.put(field, new HashMap<>());
+            }
+        }
+
+        void apply(Object event) {
+            if (event instanceof BorrowingChangedEvent borrowed) {
+                borrowed(borrowed.getBookId());
+            } else if (event instanceof BookChangedEvent changed) {
+                if (changed.isDeleted()) {
+                    remove(changed.getBookId());
+                    popularity.remove(changed.getBookId());
+                } else {
+                    upsert(changed.getBook());
+                }
+            }
+        }
+
+        void upsert(Book book) {
+            if (book.getId() == null) {
+                return;
+            }
+            remove(book.getId());
+            long bookPopularity = popularity.getOrDefault(book.getId(), 0L);
+            String[] values = { book.getTitle(), book.getAuthor(), book.getPublisher() };
+            for (SearchField field : FIELDS) {
+                String value = values[field.ordinal()];
+                String normalized = value == null ? "" : PinyinKeys.normalizeQuery(value);
+                if (normalized.isEmpty()) {
+                    values[field.ordinal()] = null;
+                    continue;
+                }
+                values[field.ordinal()] = normalized;
+                SuggestEntry entry = entries.get(field)
+                    .computeIfAbsent(normalized, key -> new SuggestEntry(field, value.trim()));
+                entry.bookIds().add(book.getId());
+                entry.addPopularity(bookPopularity);
+                SuggestTrie trie = tries.get(field);
+                for (String key : entry.keys()) {
+                    trie.add(key, entry);
+                }
+            }
+            valuesByBook.put(book.getId(), values);
+        }
+
+        void remove(Long bookId) {
+            String[] values = valuesByBook.remove(bookId);
+            if (values == null) {
+                return;
+            }
+            long bookPopularity = popularity.getOrDefault(bookId, 0L);
+            for (SearchField field : FIELDS) {
+                String normalized = values[field.ordinal()];
+                SuggestEntry entry = normalized == null ? null : entries.get(field).get(normalized);
+                if (entry == null) {
+                    continue;
+                }
+                entry.bookIds().remove(bookId);
+                entry.addPopularity(-bookPopularity);
+                SuggestTrie trie = tries.get(field);
+                if (entry.bookIds().isEmpty()) {
+                    entries.get(field).remove(normalized);
+                    for (String key : entry.keys()) {
+                        trie.remove(key, entry);
+                    }
+                } else if (bookPopularity > 0) {
+                    for (String key : entry.keys()) {
+                        trie.refresh(key);
+                    }
+                }
+            }
+        }
+
+        void borrowed(Long bookId) {
+            popularity.merge(bookId, 1L, Long::sum);
+            String[] values = valuesByBook.get(bookId);
+            if (values == null) {
+                return;
+            }
+            for (SearchField field : FIELDS) {
+                String normalized = values[field.ordinal()];
+                SuggestEntry entry = normalized == null ? null : entries.get(field).get(normalized);
+                if (entry != null) {
+                    entry.addPopularity(1);
+                    SuggestTrie trie = tries.get(field);
+                    for (String key : entry.keys()) {
+                        trie.add(key, entry);
+                    }
+                }
+            }
+        }
+
+        int entryCount() {
+            return entries.values().stream().mapToInt(Map::size).sum();
+        }
+    }
+}
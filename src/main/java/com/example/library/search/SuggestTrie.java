@@ -0,0 +1,238 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 联想词前缀树（压缩前缀树，单分支路径合并为一条边）。每个节点预先保存其子树中热度最高的
+ * capacity 条联想词，查询只需沿前缀走到对应节点直接取出，耗时与前缀长度相关，与词条总数无关。
+ * <p>
+ * 热度只增不减时（借书）沿路径插入即可；删除词条或热度下降时，沿路径自底向上用子节点的 top 列表重算，
+ * 子节点的列表已是其子树的前 capacity 名，不需要遍历整棵子树。删除后不再合并单分支节点，
+ * 全量重建时恢复紧凑结构。本类非线程安全，由 {@link SuggestIndex} 加锁。
+ */
+final class SuggestTrie {
+
+    private final int capacity;
+    private final Node root;
+
+    SuggestTrie(int capacity) {
+        this.capacity = capacity;
+        this.root = new Node("", capacity);
+    }
+
+    /**
+     * 登记一个检索键；词条已存在时视为热度上升，沿路径重新排序。
+     */
+    void add(String key, SuggestEntry entry) {
+        List<Node> path = descendCreating(key);
+        Node end = path.get(path.size() - 1);
+        if (end.terminals == null) {
+            end.terminals = new ArrayList<>(1);
+        }
+        if (!end.terminals.contains(entry)) {
+            end.terminals.add(entry);
+        }
+        for (Node node : path) {
+            offer(node, entry);
+        }
+    }
+
+    void remove(String key, SuggestEntry entry) {
+        List<Node> path = descend(key);
+        if (path == null) {
+            return;
+        }
+        Node end = path.get(path.size() - 1);
+        if (end.terminals != null) {
+            end.terminals.remove(entry);
+            if (end.terminals.isEmpty()) {
+                end.terminals = null;
+            }
+        }
+        recompute(path);
+    }
+
+    /**
+     * 词条热度下降后重算其所在路径上的排名。
+     */
+    void refresh(String key) {
+        List<Node> path = descend(key);
+        if (path != null) {
+            recompute(path);
+        }
+    }
+
+    /**
+     * 以 prefix 开头的检索键中热度最高的 limit 个词条；prefix 可以停在一条边的中间。
+     */
+    List<SuggestEntry> top(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return Collections.emptyList();
+            }
+            node = child;
+            i += common;
+        }
+        int size = Math.min(limit, node.topSize);
+        List<SuggestEntry> result = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+            result.add(node.top[j]);
+        }
+        return result;
+    }
+
+    private List<Node> descendCreating(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            char c = key.charAt(i);
+            Node child = node.child(c);
+            if (child == null) {
+                child = new Node(key.substring(i), capacity);
+                node.putChild(child);
+                path.add(child);
+                return path;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // 拆分边：新节点的子树与原节点相同，top 列表直接复制
+                Node middle = new Node(child.label.substring(0, common), capacity);
+                System.arraycopy(child.top, 0, middle.top, 0, child.topSize);
+                middle.topSize = child.topSize;
+                child.label = child.label.substring(common);
+                middle.putChild(child);
+                node.putChild(middle);
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        return path;
+    }
+
+    /** 与 key 完全匹配的路径，不存在时返回 null */
+    private List<Node> descend(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return null;
+            }
+            node = child;
+            path.add(node);
+            i += child.label.length();
+        }
+        return path;
+    }
+
+    private void offer(Node node, SuggestEntry entry) {
+        SuggestEntry[] top = node.top;
+        int pos = -1;
+        for (int j = 0; j < node.topSize; j++) {
+            if (top[j] == entry) {
+                pos = j;
+                break;
+            }
+        }
+        if (pos < 0) {
+            if (node.topSize == capacity && SuggestEntry.BY_POPULARITY.compare(entry, top[capacity - 1]) >= 0) {
+                return;
+            }
+            pos = node.topSize < capacity ? node.topSize++ : capacity - 1;
+            top[pos] = entry;
+        }
+        while (pos > 0 && SuggestEntry.BY_POPULARITY.compare(top[pos], top[pos - 1]) < 0) {
+            SuggestEntry swap = top[pos - 1];
+            top[pos - 1] = top[pos];
+            top[pos] = swap;
+            pos--;
+        }
+    }
+
+    /**
+     * 自底向上重算路径上各节点的 top 列表，顺带摘除已空的节点。
+     */
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            if (i > 0 && node.terminals == null && (node.children == null || node.children.isEmpty())) {
+                path.get(i - 1).children.remove(node.label.charAt(0));
+                continue;
+            }
+            Set<SuggestEntry> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (node.terminals != null) {
+                candidates.addAll(node.terminals);
+            }
+            if (node.children != null) {
+                for (Node child : node.children.values()) {
+                    for (int j = 0; j < child.topSize; j++) {
+                        candidates.add(child.top[j]);
+                    }
+                }
+            }
+            List<SuggestEntry> sorted = new ArrayList<>(candidates);
+            sorted.sort(SuggestEntry.BY_POPULARITY);
+            node.topSize = Math.min(capacity, sorted.size());
+            for (int j = 0; j < capacity; j++) {
+                node.top[j] = j < node.topSize ? sorted.get(j) : null;
+            }
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+
+        private String label;
+        private Map<Character, Node> children;
+        private List<SuggestEntry> terminals;
+        private final SuggestEntry[] top;
+        private int topSize;
+
+        Node(String label, int capacity) {
+            this.label = label;
+            this.top = new SuggestEntry[capacity];
+        }
+
+        Node child(char c) {
+            return children == null ? null : children.get(c);
+        }
+
+        void putChild(Node child) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            children.put(child.label.charAt(0), child);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.library.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt 哈希与校验。登录、注册走异步接口，在按 CPU 核数配置的专用线程池中执行，
+ * 队列有界，排满时直接拒绝（{@link RejectedExecutionException}），登录洪峰不会占满 Tomcat 线程、
+ * 拖慢其他接口。同步的 {@link PasswordEncoder} 接口保留给初始化数据等非请求路径。
+ * <p>
+ * cost 可在运行时调整，之后新生成的哈希使用新 cost；已有用户在下次登录成功时按新 cost 重新哈希，
+ * 见 {@link #upgradeEncoding}。
+ * <p>
+ * 队列深度、拒绝与超时次数、排队和哈希耗时以 library.password.* 发布到 Micrometer。
+ */
+@Component
+public class PasswordHasher implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    /** 允许的 cost 范围。每加 1 耗时翻倍，16 时单次哈希已需数秒，再高会让登录和注册失去可用性 */
+    public static final int MIN_STRENGTH = 4;
+    public static final int MAX_STRENGTH = 16;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.password.bcrypt-strength:10}")
+    private volatile int strength;
+
+    /** 0 表示与 CPU 核数相同 */
+    @Value("${library.password.threads:0}")
+    private int threads;
+
+    @Value("${library.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    /** 排队超过该时长的任务不再执行，客户端多半已超时放弃 */
+    @Value("${library.password.max-queue-wait:10s}")
+    private Duration maxQueueWait;
+
+    private volatile BCryptPasswordEncoder encoder;
+    private volatile String dummyHash;
+    private ThreadPoolExecutor executor;
+
+    /** 每次调整 cost 递增；哈希线程池多线程时，只有最后一次调整生效，先完成的旧请求不会覆盖它 */
+    private final AtomicLong strengthRequests = new AtomicLong();
+    private long appliedStrengthRequest;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        setStrength(strength).join();
+        registerMeters();
+    }
+
+    private void registerMeters() {
+        Gauge.builder("library.password.queue_depth", executor, pool -> pool.getQueue().size())
+                .description("等待哈希线程的任务数")
+                .register(meterRegistry);
+        Gauge.builder("library.password.active_threads", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在计算的哈希线程数")
+                .register(meterRegistry);
+        Gauge.builder("library.password.strength", this, PasswordHasher::getStrength)
+                .description("当前 BCrypt cost")
+                .register(meterRegistry);
+        taskCounter("completed", completed);
+        taskCounter("rejected", rejected);
+        taskCounter("expired", expired);
+        FunctionCounter.builder("library.password.rehashed", rehashed, LongAdder::sum)
+                .description("登录时按新 cost 重新哈希的次数")
+                .register(meterRegistry);
+        FunctionTimer.builder("library.password.queue_wait", this,
+                        hasher -> hasher.completed.sum() + hasher.expired.sum(),
+                        hasher -> hasher.queueWaitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("任务在哈希队列中的等待时间")
+                .register(meterRegistry);
+        FunctionTimer.builder("library.password.hash", this,
+                        hasher -> hasher.completed.sum(),
+                        hasher -> hasher.hashNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("单次哈希或校验的耗时")
+                .register(meterRegistry);
+    }
+
+    private void taskCounter(String outcome, LongAdder count) {
+        FunctionCounter.builder("library.password.tasks", count, LongAdder::sum)
+                .description("哈希任务数，按完成、队列满拒绝、排队超时区分")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 修改 BCrypt cost（{@value #MIN_STRENGTH}~{@value #MAX_STRENGTH}），对之后生成的哈希生效。
+     * 新 cost 的占位哈希在哈希线程池中生成，完成后才切换，调用线程不等待；
+     * 超出范围时抛出 IllegalArgumentException，线程池排满时抛出 RejectedExecutionException。
+     */
+    public CompletableFuture<Void> setStrength(int strength) {
+        if (strength < MIN_STRENGTH || strength > MAX_STRENGTH) {
+            throw new IllegalArgumentException(
+                    "BCrypt cost 必须在 " + MIN_STRENGTH + " 到 " + MAX_STRENGTH + " 之间: " + strength);
+        }
+        long request = strengthRequests.incrementAndGet();
+        BCryptPasswordEncoder next = new BCryptPasswordEncoder(strength);
+        // 用户不存在时以同 cost 的哈希做一次校验，响应时间与密码错误一致，不暴露用户名是否存在
+        return submit(() -> next.encode("dummy-password"))
+                .thenAccept(hash -> applyStrength(request, strength, next, hash));
+    }
+
+    private synchronized void applyStrength(long request, int strength, BCryptPasswordEncoder next, String hash) {
+        if (request < appliedStrengthRequest) {
+            return;
+        }
+        appliedStrengthRequest = request;
+        dummyHash = hash;
+        encoder = next;
+        this.strength = strength;
+        logger.info("BCrypt cost 设置为 {}", strength);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public String getDummyHash() {
+        return dummyHash;
+    }
+
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        // 校验使用哈希自身携带的 cost，与当前配置无关
+        return encoder.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * 哈希的 cost 与当前配置不同（调高或调低）时返回 true。
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public void recordRehash() {
+        rehashed.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        long done = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strength", strength);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("expired", expired.sum());
+        stats.put("rehashed", rehashed.sum());
+        stats.put("averageQueueWaitMillis", done == 0 ? 0.0 : queueWaitNanos.sum() / 1_000_000.0 / done);
+        stats.put("averageHashMillis", done == 0 ? 0.0 : hashNanos.sum() / 1_000_000.0 / done);
+        return stats;
+    }
+
+    /**
+     * 提交到哈希线程池。队列已满时立即抛出 {@link RejectedExecutionException}；
+     * 排队超时的任务以同一异常结束 future。两种情况调用方都返回 503。
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueued = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                queueWaitNanos.add(start - enqueued);
+                if (start - enqueued > maxQueueWait.toNanos()) {
+                    expired.increment();
+                    throw new RejectedExecutionException("排队超时");
+                }
+                try {
+                    return task.get();
+                } finally {
+                    hashNanos.add(System.nanoTime() - start);
+                    completed.increment();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.library.seed;
+
+import com.example.library.security.PasswordHasher;
+import com.example.library.service.BorrowingService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 生成合成数据：N 本图书、M 个读者和 K 条借阅记录，用于开发环境和压测环境。
+ * <p>
+ * 图书字段由 {@link SyntheticCatalogue} 按序号确定性生成，ISBN 不会重复；借阅记录的图书和读者按 Zipf 分布抽取，
+ * 少数热门图书和活跃读者占大部分借阅。工作按序号区间用 fork/join 拆分，每个叶子任务一个 JDBC batch、一个事务，
+ * 不经过 JPA，也不发布变更事件——种子数据由启动预热（{@link com.example.library.startup.StartupWarmup}）
+ * 在检索索引、统计等全量构建之前写入。
+ * 在借记录同步扣减图书库存，同一本书的在借数不超过其库存（按借阅序号先到先得，见 {@link #seedBorrowings}）。
+ */
+@Component
+public class DataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    /** 合成读者的用户名前缀，重复执行时据此识别已生成的读者 */
+    static final String READER_PREFIX = "reader-";
+    private static final String READER_PASSWORD = "reader123";
+
+    private static final String INSERT_BOOK_SQL = "INSERT INTO books (isbn, title, author, publisher, publish_year, "
+            + "price, stock_quantity, description, category, language, total_quantity, borrowed_quantity, "
+            + "version, last_modified) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+    private static final String INSERT_READER_SQL = "INSERT INTO users (username, password, role, email) "
+            + "VALUES (?, ?, 'READER', ?)";
+    private static final String INSERT_BORROWING_SQL = "INSERT INTO borrowings (book_id, user_id, borrow_date, "
+            + "due_date, return_date, status) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_STOCK_SQL = "UPDATE books SET stock_quantity = stock_quantity - ?, "
+            + "borrowed_quantity = ? WHERE id = ?";
+
+    private static final long BORROWING_SALT = 0x2545F4914F6CDD1DL;
+    /** 已到期的借阅仍未归还的比例，其余已按时或略晚归还 */
+    private static final double OVERDUE_RATE = 0.05;
+    /** 未到期的借阅仍在借的比例 */
+    private static final double ACTIVE_RATE = 0.6;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Value("${library.seed.books:1000}")
+    private int books;
+
+    @Value("${library.seed.readers:0}")
+    private int readers;
+
+    @Value("${library.seed.borrowings:0}")
+    private int borrowings;
+
+    /** 每个 JDBC batch（也是每个事务）的行数 */
+    @Value("${library.seed.batch-size:1000}")
+    private int batchSize;
+
+    /** 并行写入的线程数，0 表示 CPU 核数；不会超过连接池大小 */
+    @Value("${library.seed.parallelism:0}")
+    private int parallelism;
+
+    @Value("${library.seed.random-seed:42}")
+    private long randomSeed;
+
+    /** Zipf 指数，越大借阅越集中在少数图书和读者上，0 为均匀分布 */
+    @Value("${library.seed.popularity-skew:1.0}")
+    private double popularitySkew;
+
+    /** 借阅记录的借出日期分布在最近多少天内 */
+    @Value("${library.seed.history-days:180}")
+    private int historyDays;
+
+    /**
+     * 写入图书，补足读者，再生成借阅记录。图书表应为空；读者按用户名前缀识别，已有的不重复生成。
+     */
+    public void seed() {
+        if (books < 0 || books >= SyntheticCatalogue.MAX_BOOKS) {
+            throw new IllegalArgumentException("图书数量超出范围: " + books);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads());
+        try {
+            SyntheticCatalogue catalogue = new SyntheticCatalogue(randomSeed);
+            long start = System.nanoTime();
+            pool.invoke(new RangeTask(0, books, (from, to) -> insertBooks(catalogue, from, to)));
+            logRate("图书", books, start);
+
+            long[] readerIds = seedReaders(pool);
+            if (borrowings > 0 && books > 0 && readerIds.length > 0) {
+                seedBorrowings(pool, catalogue, loadBookIds(), readerIds);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int threads() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        if (dataSource instanceof HikariDataSource hikari) {
+            threads = Math.min(threads, hikari.getMaximumPoolSize());
+        }
+        return Math.max(1, threads);
+    }
+
+    private void insertBooks(SyntheticCatalogue catalogue, int from, int to) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            var book = catalogue.book(index);
+            rows.add(new Object[] {
+                book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getPublishYear(),
+                book.getPrice(), book.getStockQuantity(), book.getDescription(), book.getCategory(),
+                book.getLanguage(), book.getTotalQuantity(), book.getBorrowedQuantity(), now
+            });
+        }
+        batch(INSERT_BOOK_SQL, rows);
+    }
+
+    private long[] seedReaders(ForkJoinPool pool) {
+        Integer existing = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username LIKE ?", Integer.class, READER_PREFIX + "%");
+        int missing = readers - (existing == null ? 0 : existing);
+        if (missing > 0) {
+            long start = System.nanoTime();
+            // 所有合成读者共用一个密码，只计算一次 BCrypt
+            String hash = passwordHasher.encode(READER_PASSWORD);
+            int first = readers - missing;
+            pool.invoke(new RangeTask(first, readers, (from, to) -> {
+                List<Object[]> rows = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    String username = READER_PREFIX + String.format("%06d", i + 1);
+                    rows.add(new Object[] { username, hash, username + "@library.com" });
+                }
+                batch(INSERT_READER_SQL, rows);
+            }));
+            logRate("读者", missing, start);
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ? ORDER BY id", Long.class,
+            READER_PREFIX + "%").stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * 按 ISBN 还原序号，得到序号到主键的映射。并行插入时主键与序号的顺序不一致，不能按主键区间推算。
+     */
+    private long[] loadBookIds() {
+        long[] ids = new long[books];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT id, isbn FROM books",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(10_000);
+            return statement;
+        }, rs -> {
+            int index = SyntheticCatalogue.indexOf(rs.getString(2));
+            if (index >= 0 && index < books) {
+                ids[index] = rs.getLong(1);
+            }
+        });
+        for (int index = 0; index < books; index++) {
+            if (ids[index] == 0) {
+                throw new IllegalStateException("未找到合成图书: " + SyntheticCatalogue.isbn(index));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 借阅记录分两遍生成。第一遍并行抽取每条记录想要保持在借的图书；再按借阅序号顺序扣库存，
+     * 同一本书超出库存的改为已归还（序号小的先得）；第二遍以相同的随机序列重新生成并写入。
+     * 哪些记录保持在借只取决于 random-seed，与线程数和任务调度无关。
+     */
+    private void seedBorrowings(ForkJoinPool pool, SyntheticCatalogue catalogue, long[] bookIds, long[] readerIds) {
+        long start = System.nanoTime();
+        LoanSampler sampler = new LoanSampler(new ZipfSampler(bookIds.length, popularitySkew),
+            new ZipfSampler(readerIds.length, popularitySkew), LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+            Math.max(1L, historyDays * 86_400L), BorrowingService.DEFAULT_BORROW_DAYS * 86_400L);
+
+        // 想保持在借的记录对应的图书序号，其余为 -1
+        int[] outBook = new int[borrowings];
+        pool.invoke(new RangeTask(0, borrowings, (from, to) -> {
+            SplittableRandom random = borrowingRandom(from);
+            for (int i = from; i < to; i++) {
+                Loan loan = sampler.next(random);
+                outBook[i] = loan.wantsOut() ? loan.book() : -1;
+            }
+        }));
+        int[] active = new int[bookIds.length];
+        for (int i = 0; i < borrowings; i++) {
+            int book = outBook[i];
+            if (book >= 0) {
+                if (active[book] < catalogue.stock(book)) {
+                    active[book]++;
+                } else {
+                    outBook[i] = -1;
+                }
+            }
+        }
+
+        pool.invoke(new RangeTask(0, borrowings, (from, to) -> {
+            SplittableRandom random = borrowingRandom(from);
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Loan loan = sampler.next(random);
+                boolean stillOut = outBook[i] >= 0;
+                String status = !stillOut ? "RETURNED" : loan.pastDue() ? "OVERDUE" : "BORROWED";
+                rows.add(new Object[] {
+                    bookIds[loan.book()], readerIds[loan.reader()], Timestamp.valueOf(loan.borrowDate()),
+                    Timestamp.valueOf(loan.dueDate()), stillOut ? null : Timestamp.valueOf(loan.returnDate()), status
+                });
+            }
+            batch(INSERT_BORROWING_SQL, rows);
+        }));
+
+        pool.invoke(new RangeTask(0, bookIds.length, (from, to) -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (int book = from; book < to; book++) {
+                int out = active[book];
+                if (out > 0) {
+                    rows.add(new Object[] { out, out, bookIds[book] });
+                }
+            }
+            batch(UPDATE_STOCK_SQL, rows);
+        }));
+        logRate("借阅记录", borrowings, start);
+    }
+
+    /**
+     * 每个区间的随机序列只取决于区间起点；区间按 batch-size 对半拆分，与并行度无关，两遍生成得到相同的区间。
+     */
+    private SplittableRandom borrowingRandom(int from) {
+        return new SplittableRandom(SyntheticCatalogue.mix(randomSeed ^ BORROWING_SALT, from));
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+    }
+
+    private void logRate(String what, long count, long startNanos) {
+        long millis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        logger.info("已生成 {} {} 条, 耗时 {} ms ({} 条/秒)", what, count, millis, count * 1000 / millis);
+    }
+
+    private record Loan(int book, int reader, LocalDateTime borrowDate, LocalDateTime dueDate, boolean pastDue,
+                        boolean wantsOut, LocalDateTime returnDate) {
+    }
+
+    /**
+     * 抽取一条借阅记录。每条按固定顺序抽取全部取值，归还时间不论是否用到都抽，
+     * 在借与否由第一遍之后的库存分配决定，不影响后续记录的随机序列。
+     */
+    private record LoanSampler(ZipfSampler books, ZipfSampler readers, LocalDateTime now, long historySeconds,
+                               long loanSeconds) {
+
+        Loan next(SplittableRandom random) {
+            int book = books.sample(random);
+            LocalDateTime borrowDate = now.minusSeconds(random.nextLong(historySeconds));
+            LocalDateTime dueDate = borrowDate.plusSeconds(loanSeconds);
+            boolean pastDue = dueDate.isBefore(now);
+            boolean wantsOut = random.nextDouble() < (pastDue ? OVERDUE_RATE : ACTIVE_RATE);
+            long elapsed = ChronoUnit.SECONDS.between(borrowDate, now);
+            long keptFor = Math.min(elapsed, loanSeconds + 7 * 86_400L);
+            LocalDateTime returnDate = borrowDate.plusSeconds(1 + random.nextLong(Math.max(1L, keptFor)));
+            return new Loan(book, readers.sample(random), borrowDate, dueDate, pastDue, wantsOut, returnDate);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(int from, int to);
+    }
+
+    /**
+     * 把 [from, to) 对半拆分，直到不超过一个批次，叶子任务写入一个批次。
+     */
+    private final class RangeTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final ChunkWriter writer;
+
+        RangeTask(int from, int to, ChunkWriter writer) {
+            this.from = from;
+            this.to = to;
+            this.writer = writer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchSize) {
+                if (to > from) {
+                    writer.write(from, to);
+                }
+                return;
+            }
+            int mid = from + (to - from) / 2;
+            invokeAll(new RangeTask(from, mid, writer), new RangeTask(mid, to, writer));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.library.seed;
+
+import com.example.library.model.Book;
+
+import java.util.SplittableRandom;
+
+/**
+ * 合成馆藏：第 index 本书的全部字段只由 index 和随机种子决定，与生成顺序、并行度无关。
+ * ISBN 取 979 前缀加 9 位序号再算校验位，序号不同 ISBN 必然不同，不会撞号；
+ * 反过来也能从 ISBN 还原序号（{@link #indexOf(String)}），插入后据此建立序号到主键的映射。
+ */
+final class SyntheticCatalogue {
+
+    static final int MAX_BOOKS = 1_000_000_000;
+
+    private static final String[] TITLES = {
+        "Java编程思想", "Spring实战", "Python数据分析", "算法导论", "深度学习",
+        "机器学习实战", "数据结构与算法", "设计模式", "代码整洁之道", "重构",
+        "微服务架构设计", "分布式系统原理", "数据库系统概念", "计算机网络", "操作系统概念",
+        "编译原理", "软件工程", "人工智能导论", "大数据技术", "云计算架构",
+        "Web前端开发", "Vue.js实战", "React开发实战", "Angular权威指南", "Node.js实战",
+        "Docker容器技术", "Kubernetes权威指南", "DevOps实践", "持续集成与部署", "敏捷软件开发"
+    };
+
+    // 与 TITLES 一一对应
+    private static final String[] CATEGORIES = {
+        "程序设计", "程序设计", "数据科学", "算法", "人工智能",
+        "人工智能", "算法", "软件工程", "软件工程", "软件工程",
+        "系统架构", "系统架构", "数据库", "计算机网络", "操作系统",
+        "程序设计", "软件工程", "人工智能", "数据科学", "系统架构",
+        "前端开发", "前端开发", "前端开发", "前端开发", "前端开发",
+        "运维", "运维", "运维", "运维", "软件工程"
+    };
+
+    private static final String[] AUTHORS = {
+        "Bruce Eckel", "Craig Walls", "Wes McKinney", "Thomas Cormen", "Ian Goodfellow",
+        "Peter Harrington", "Robert Sedgewick", "Erich Gamma", "Robert Martin", "Martin Fowler",
+        "Chris Richardson", "Leslie Lamport", "Abraham Silberschatz", "Andrew Tanenbaum", "Abraham Silberschatz",
+        "Alfred Aho", "Ian Sommerville", "Stuart Russell", "Viktor Mayer-Schönberger", "Thomas Erl",
+        "Eric Freeman", "Evan You", "Mark Tielens", "Adam Freeman", "Mikola Lysenko",
+        "James Turnbull", "Kelsey Hightower", "Gene Kim", "Paul Duvall", "Robert Martin"
+    };
+
+    private static final String[] PUBLISHERS = {
+        "机械工业出版社", "电子工业出版社", "清华大学出版社", "人民邮电出版社", "中国电力出版社",
+        "O'Reilly Media", "Addison-Wesley", "Manning Publications", "Packt Publishing", "Apress",
+        "Wiley", "McGraw-Hill", "Pearson", "Cambridge University Press", "MIT Press"
+    };
+
+    /** 前几个出版社为国内出版社，图书语言为中文 */
+    private static final int DOMESTIC_PUBLISHERS = 5;
+    private static final int MAX_STOCK = 100;
+
+    private final long seed;
+
+    SyntheticCatalogue(long seed) {
+        this.seed = seed;
+    }
+
+    Book book(int index) {
+        SplittableRandom random = random(index);
+        int titleIndex = random.nextInt(TITLES.length);
+        int publisherIndex = random.nextInt(PUBLISHERS.length);
+        String title = TITLES[titleIndex] + " 第" + (index % 10 + 1) + "版";
+        int stock = stock(index);
+
+        Book book = new Book(isbn(index), title, AUTHORS[random.nextInt(AUTHORS.length)],
+            PUBLISHERS[publisherIndex], 2015 + random.nextInt(9),
+            Math.round((29.99 + random.nextDouble() * 170.01) * 100) / 100.0, stock,
+            "这是一本关于" + title + "的优秀图书，适合初学者和进阶读者阅读。");
+        book.setCategory(CATEGORIES[titleIndex]);
+        book.setLanguage(publisherIndex < DOMESTIC_PUBLISHERS ? "中文" : "英文");
+        book.setTotalQuantity(stock);
+        book.setBorrowedQuantity(0);
+        return book;
+    }
+
+    /** 初始库存，生成借阅记录时用来限制同一本书的在借数量，不需要回读数据库 */
+    int stock(int index) {
+        SplittableRandom random = new SplittableRandom(mix(seed ^ 0x5DEECE66DL, index));
+        return random.nextInt(MAX_STOCK);
+    }
+
+    static String isbn(int index) {
+        String digits = "979" + String.format("%09d", index);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        int check = (10 - sum % 10) % 10;
+        return "979-" + digits.charAt(3) + "-" + digits.substring(4, 8) + "-" + digits.substring(8) + "-" + check;
+    }
+
+    /** 合成 ISBN 对应的序号，不是合成 ISBN 时返回 -1 */
+    static int indexOf(String isbn) {
+        if (isbn == null || isbn.length() != 17 || !isbn.startsWith("979-")) {
+            return -1;
+        }
+        int index;
+        try {
+            index = Integer.parseInt(isbn.charAt(4) + isbn.substring(6, 10) + isbn.substring(11, 15));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return isbn.equals(isbn(index)) ? index : -1;
+    }
+
+    private SplittableRandom random(int index) {
+        return new SplittableRandom(mix(seed, index));
+    }
+
+    static long mix(long seed, long index) {
+        long z = seed + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
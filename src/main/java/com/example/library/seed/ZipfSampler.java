@@ -0,0 +1,55 @@
+package com.example.library.seed;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 按 Zipf 分布抽取 [0, n) 中的序号：排名第 k 的元素被抽中的概率与 1 / k^exponent 成正比，
+ * 少数热门图书、活跃读者占大部分借阅。排名经过一个固定置换再映射到序号，热门元素分散在整个区间，
+ * 而不是集中在最早插入的几行。累积分布表大小为 n，线程安全（只读）。
+ */
+final class ZipfSampler {
+
+    private final int n;
+    private final double[] cumulative;
+    private final long step;
+
+    ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("样本数必须大于0");
+        }
+        this.n = n;
+        this.cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+        // 与 n 互素的步长，(rank + 1) * step mod n 是 [0, n) 上的置换，最热门的不落在序号 0
+        long candidate = 2_654_435_761L % n;
+        while (candidate == 0 || gcd(candidate, n) != 1) {
+            candidate++;
+        }
+        this.step = candidate;
+    }
+
+    int sample(SplittableRandom random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = Math.min(-rank - 1, n - 1);
+        }
+        return (int) ((rank + 1) * step % n);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
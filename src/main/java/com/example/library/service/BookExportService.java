@@ -0,0 +1,104 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import com.example.library.util.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * 图书导出：只读事务内用前向游标逐条读取，写出后立即从持久化上下文中 detach，
+ * 堆内存占用与图书总数无关。导出的 CSV / NDJSON 可直接用 {@link BookImportService} 导回。
+ */
+@Service
+public class BookExportService {
+
+    static final String[] CSV_COLUMNS = { "id", "isbn", "title", "author", "publisher", "publishYear", "price",
+        "stockQuantity", "description", "category", "language", "coverImageUrl", "totalQuantity",
+        "borrowedQuantity", "location", "status" };
+
+    // 条件与 BookRepository.findByMultipleConditions 一致，按 ID 排序保证输出稳定
+    private static final String EXPORT_QUERY = "SELECT b FROM Book b WHERE " +
+            "(:title IS NULL OR LOWER(b.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
+            "(:author IS NULL OR LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%'))) AND " +
+            "(:publisher IS NULL OR LOWER(b.publisher) LIKE LOWER(CONCAT('%', :publisher, '%'))) AND " +
+            "(:isbn IS NULL OR b.isbn = :isbn) ORDER BY b.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * JDBC fetch size。H2 / PostgreSQL 取正数即可；MySQL Connector/J 需设为 Integer.MIN_VALUE 才会逐行流式返回。
+     */
+    @Value("${library.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public long exportBooks(String title, String author, String publisher, String isbn,
+                            BookImportService.Format format, OutputStream out) throws IOException {
+        TypedQuery<Book> query = entityManager.createQuery(EXPORT_QUERY, Book.class)
+                .setParameter("title", title)
+                .setParameter("author", author)
+                .setParameter("publisher", publisher)
+                .setParameter("isbn", isbn)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        try (Stream<Book> books = query.getResultStream()) {
+            return format == BookImportService.Format.CSV ? writeCsv(books, out) : writeNdjson(books, out);
+        }
+    }
+
+    private long writeNdjson(Stream<Book> books, OutputStream out) throws IOException {
+        long count = 0;
+        // 不关闭 SequenceWriter，避免连带关闭响应输出流
+        SequenceWriter writer = objectMapper.writerFor(Book.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out);
+        for (Book book : (Iterable<Book>) books::iterator) {
+            writer.write(book);
+            entityManager.detach(book);
+            count++;
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeCsv(Stream<Book> books, OutputStream out) throws IOException {
+        long count = 0;
+        CsvWriter writer = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        writer.writeRecord((Object[]) CSV_COLUMNS);
+        for (Book book : (Iterable<Book>) books::iterator) {
+            writer.writeRecord(book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(),
+                book.getPublishYear(), book.getPrice(), book.getStockQuantity(), book.getDescription(),
+                book.getCategory(), book.getLanguage(), book.getCoverImageUrl(), book.getTotalQuantity(),
+                book.getBorrowedQuantity(), book.getLocation(), book.getStatus());
+            entityManager.detach(book);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.library.service;
+
+import com.example.library.event.BookChangedEvent;
+import com.example.library.model.Book;
+import com.example.library.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 图书批量导入：逐条读取 CSV / NDJSON，边读边校验，按批次用 JDBC batch 插入并提交。
+ * 内存中只保留当前批次和已有 ISBN 集合，行数与内存占用无关。
+ * 每批提交后为新图书发布 {@link BookChangedEvent}，检索索引和缓存照常增量更新。
+ */
+@Service
+public class BookImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    /**
+     * 导入过程回调，用于向调用方流式报告进度和逐行错误。
+     */
+    public interface ImportListener {
+        void onError(long line, String isbn, String message);
+
+        void onProgress(ImportResult progress);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO books (isbn, title, author, publisher, publish_year, price, "
+            + "stock_quantity, description, category, language, cover_image_url, total_quantity, borrowed_quantity, "
+            + "location, status, version, last_modified) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${library.import.batch-size:1000}")
+    private int batchSize;
+
+    public ImportResult importBooks(InputStream input, Format format, ImportListener listener) throws IOException {
+        long start = System.nanoTime();
+        ObjectReader bookReader = objectMapper.readerFor(Book.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        Set<String> knownIsbns = loadExistingIsbns();
+        ImportResult result = new ImportResult();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        if (format == Format.CSV) {
+            CsvReader csv = new CsvReader(reader);
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                return result;
+            }
+            List<String> columns = header.stream().map(String::trim).collect(Collectors.toList());
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < record.size(); i++) {
+                    if (!record.get(i).isEmpty()) {
+                        values.put(columns.get(i), record.get(i));
+                    }
+                }
+                accept(csv.getLineNumber(), () -> bookReader.readValue((JsonNode) objectMapper.valueToTree(values)),
+                    knownIsbns, batch, result, listener);
+            }
+        } else {
+            String text;
+            long lineNumber = 0;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                String json = text;
+                accept(lineNumber, () -> bookReader.readValue(json), knownIsbns, batch, result, listener);
+            }
+        }
+        flush(batch, result, listener);
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        logger.info("图书导入完成: 处理 {} 行, 导入 {} 本, 失败 {} 行, 耗时 {} ms",
+            result.getProcessed(), result.getImported(), result.getFailed(), result.getElapsedMillis());
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        Book parse() throws IOException;
+    }
+
+    private void accept(long line, RowParser parser, Set<String> knownIsbns, List<PendingRow> batch,
+                        ImportResult result, ImportListener listener) {
+        result.incrementProcessed();
+        Book book;
+        try {
+            book = parser.parse();
+        } catch (JsonProcessingException e) {
+            fail(line, null, "无法解析: " + e.getOriginalMessage(), result, listener);
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            fail(line, null, "无法解析: " + e.getMessage(), result, listener);
+            return;
+        }
+        book.setId(null);
+
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            String message = violations.stream().map(ConstraintViolation::getMessage).sorted()
+                    .collect(Collectors.joining("; "));
+            fail(line, book.getIsbn(), message, result, listener);
+            return;
+        }
+        if (!knownIsbns.add(book.getIsbn())) {
+            fail(line, book.getIsbn(), "ISBN已存在: " + book.getIsbn(), result, listener);
+            return;
+        }
+
+        batch.add(new PendingRow(line, book));
+        if (batch.size() >= batchSize) {
+            flush(batch, result, listener);
+        }
+    }
+
+    private void fail(long line, String isbn, String message, ImportResult result, ImportListener listener) {
+        result.incrementFailed();
+        listener.onError(line, isbn, message);
+    }
+
+    private Set<String> loadExistingIsbns() {
+        Set<String> isbns = new HashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT isbn FROM books",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(10_000);
+            return statement;
+        }, rs -> {
+            isbns.add(rs.getString(1));
+        });
+        return isbns;
+    }
+
+    /**
+     * 一个批次一个事务。整批失败时（如并发写入造成唯一键冲突）逐行重试，只把真正出错的行记为失败。
+     */
+    private void flush(List<PendingRow> batch, ImportResult result, ImportListener listener) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> insert(batch));
+            result.addImported(batch.size());
+        } catch (DataAccessException e) {
+            for (PendingRow row : batch) {
+                try {
+                    transaction.executeWithoutResult(status -> insert(List.of(row)));
+                    result.addImported(1);
+                } catch (DataAccessException rowError) {
+                    fail(row.line, row.book.getIsbn(), "写入失败: " + rowError.getMostSpecificCause().getMessage(),
+                        result, listener);
+                }
+            }
+        }
+        batch.clear();
+        listener.onProgress(result);
+    }
+
+    private void insert(List<PendingRow> rows) {
+        jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (PendingRow row : rows) {
+                    bind(statement, row.book);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < rows.size()) {
+                        rows.get(i++).book.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+        for (PendingRow row : rows) {
+            if (row.book.getId() != null) {
+                eventPublisher.publishEvent(BookChangedEvent.created(row.book));
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Book book) throws SQLException {
+        statement.setString(1, book.getIsbn());
+        statement.setString(2, book.getTitle());
+        statement.setString(3, book.getAuthor());
+        statement.setString(4, book.getPublisher());
+        statement.setInt(5, book.getPublishYear());
+        statement.setDouble(6, book.getPrice());
+        statement.setInt(7, book.getStockQuantity());
+        statement.setString(8, book.getDescription());
+        statement.setString(9, book.getCategory());
+        statement.setString(10, book.getLanguage());
+        statement.setString(11, book.getCoverImageUrl());
+        setInteger(statement, 12, book.getTotalQuantity());
+        setInteger(statement, 13, book.getBorrowedQuantity());
+        statement.setString(14, book.getLocation());
+        statement.setString(15, book.getStatus());
+        book.setVersion(0L);
+        book.setLastModified(LocalDateTime.now());
+        statement.setTimestamp(16, Timestamp.valueOf(book.getLastModified()));
+    }
+
+    private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+
+    private static final class PendingRow {
+        private final long line;
+        private final Book book;
+
+        PendingRow(long line, Book book) {
+            this.line = line;
+            this.book = book;
+        }
+    }
+
+    public static class ImportResult {
+        private long processed;
+        private long imported;
+        private long failed;
+        private long elapsedMillis;
+
+        void incrementProcessed() { processed++; }
+
+        void incrementFailed() { failed++; }
+
+        void addImported(long count) { imported += count; }
+
+        void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+        public long getProcessed() { return processed; }
+
+        public long getImported() { return imported; }
+
+        public long getFailed() { return failed; }
+
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+}
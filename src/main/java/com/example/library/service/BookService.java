@@ -1,46 +1,134 @@
 package com.example.library.service;
 
+import com.example.library.cache.BookCache;
+import com.example.library.event.BookChangedEvent;
 import com.example.library.model.Book;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.FacetedPage;
+import com.example.library.pagination.KeysetSupport;
 import com.example.library.repository.BookRepository;
+import com.example.library.repository.BookSpecifications;
+import com.example.library.search.BookSearchIndex;
+import com.example.library.search.FacetField;
+import com.example.library.search.FacetFilter;
+import com.example.library.search.SearchField;
+import com.example.library.stats.LibraryStatistics;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @Transactional
+@Timed(value = "library.service", histogram = true)
 public class BookService {
 
+    /**
+     * 可用于游标分页的排序字段及其类型（均为非空列），用于还原游标中的键值。
+     */
+    public static final Map<String, Function<String, Object>> KEYSET_SORTABLE = Map.of(
+        "id", Long::valueOf,
+        "isbn", value -> value,
+        "title", value -> value,
+        "author", value -> value,
+        "publisher", value -> value,
+        "publishYear", Integer::valueOf,
+        "price", Double::valueOf
+    );
+
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LibraryStatistics libraryStatistics;
+
     public Page<Book> findAllBooks(Pageable pageable) {
         return bookRepository.findAll(pageable);
     }
 
+    /**
+     * 游标分页：按 (sortKey, id) 定位，无 OFFSET、无 COUNT 查询。
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Book> scrollBooks(String cursor, int size, Sort sort) {
+        return scrollMatching(null, null, null, null, FacetFilter.NONE, cursor, size, sort);
+    }
+
+    // 缓存命中时不需要事务，SUPPORTS 避免为每次读取占用连接
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Book> findBookById(Long id) {
-        return bookRepository.findById(id);
+        return bookCache.findById(id);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Book> findBookByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn);
+        return bookCache.findByIsbn(isbn);
+    }
+
+    /**
+     * 批量按 ID 查询，经 {@link BookCache}：命中缓存的不查库，其余按块 IN 查询。返回找到的图书，键为 ID。
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<Long, Book> findBooksByIds(Collection<Long> ids) {
+        return bookCache.findAllById(ids);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<String, Book> findBooksByIsbns(Collection<String> isbns) {
+        return bookCache.findAllByIsbn(isbns);
     }
 
     public Book saveBook(Book book) {
         if (book.getId() == null && bookRepository.existsByIsbn(book.getIsbn())) {
             throw new RuntimeException("ISBN已存在: " + book.getIsbn());
         }
-        return bookRepository.save(book);
+        boolean created = book.getId() == null;
+        Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(created ? BookChangedEvent.created(savedBook) : BookChangedEvent.updated(savedBook));
+        return savedBook;
     }
 
-    public Book updateBook(Long id, Book bookDetails) {
+    /**
+     * 按客户端读取时的版本号更新。当前版本与 expectedVersion 不同（读取后被修改过，包括借还书改变了库存）时
+     * 抛出 ObjectOptimisticLockingFailureException，不用客户端手里的旧库存覆盖；本事务内的并发写入由 @Version 检测。
+     */
+    public Book updateBook(Long id, Book bookDetails, long expectedVersion) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("图书不存在，ID: " + id));
-        
+        if (book.getVersion() != expectedVersion) {
+            throw new ObjectOptimisticLockingFailureException(Book.class, id);
+        }
+
         if (!book.getIsbn().equals(bookDetails.getIsbn()) && 
             bookRepository.existsByIsbn(bookDetails.getIsbn())) {
             throw new RuntimeException("ISBN已存在: " + bookDetails.getIsbn());
@@ -54,8 +142,13 @@ public class BookService {
         book.setPrice(bookDetails.getPrice());
         book.setStockQuantity(bookDetails.getStockQuantity());
         book.setDescription(bookDetails.getDescription());
+        book.setCategory(bookDetails.getCategory());
+        book.setLanguage(bookDetails.getLanguage());
+        book.setStatus(bookDetails.getStatus());
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.updated(savedBook));
+        return savedBook;
     }
 
     public void deleteBook(Long id) {
@@ -63,25 +156,147 @@ public class BookService {
             throw new RuntimeException("图书不存在，ID: " + id);
         }
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
     }
 
     public Page<Book> searchBooks(String title, String author, String publisher, String isbn, Pageable pageable) {
-        return bookRepository.findByMultipleConditions(title, author, publisher, isbn, pageable);
+        return searchBooks(null, title, author, publisher, isbn, pageable);
+    }
+
+    public Page<Book> searchBooks(String keyword, String title, String author, String publisher, String isbn,
+                                  Pageable pageable) {
+        return searchBooks(keyword, title, author, publisher, isbn, FacetFilter.NONE,
+            EnumSet.noneOf(FacetField.class), pageable);
+    }
+
+    /**
+     * 带分面筛选的检索；facets 不为空时返回 {@link FacetedPage}。
+     * 分面统计只由检索索引提供，索引未就绪时筛选照常生效，统计为空。
+     */
+    @Transactional(readOnly = true)
+    public Page<Book> searchBooks(String keyword, String title, String author, String publisher, String isbn,
+                                  FacetFilter filter, Set<FacetField> facets, Pageable pageable) {
+        if (bookSearchIndex.isReady() && bookSearchIndex.supports(pageable.getSort())) {
+            Page<Long> ids = bookSearchIndex.search(keyword, title, author, publisher, isbn, filter, facets, pageable);
+            List<Book> books = findBooksInOrder(ids.getContent());
+            if (ids instanceof FacetedPage<Long> faceted) {
+                return new FacetedPage<>(books, pageable, ids.getTotalElements(), faceted.getFacets());
+            }
+            return new PageImpl<>(books, pageable, ids.getTotalElements());
+        }
+
+        // 索引未就绪时回退到数据库查询，关键词只能按书名匹配
+        if (title == null && keyword != null && !keyword.isBlank()) {
+            title = keyword.trim();
+        }
+        Page<Book> books = filter.isEmpty()
+            ? bookRepository.findByMultipleConditions(title, author, publisher, isbn, withoutRelevanceSort(pageable))
+            : bookRepository.findAll(BookSpecifications.matching(title, author, publisher, isbn)
+                .and(BookSpecifications.inFacets(filter)), withoutRelevanceSort(pageable));
+        if (!facets.isEmpty()) {
+            return new FacetedPage<>(books.getContent(), books.getPageable(), books.getTotalElements(),
+                Collections.emptyMap());
+        }
+        return books;
+    }
+
+    /**
+     * 检索的游标分页模式。索引就绪时在索引中定位游标，否则用等价的 Specification 做 keyset 查询。
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Book> scrollSearchBooks(String keyword, String title, String author, String publisher,
+                                              String isbn, FacetFilter filter, String cursor, int size, Sort sort) {
+        if (bookSearchIndex.isReady() && bookSearchIndex.supports(sort)) {
+            CursorPage<Long> ids = bookSearchIndex.scroll(keyword, title, author, publisher, isbn, filter, sort,
+                cursor, size);
+            return new CursorPage<>(findBooksInOrder(ids.getContent()), ids.isHasNext(), ids.getNextCursor());
+        }
+        if (title == null && keyword != null && !keyword.isBlank()) {
+            title = keyword.trim();
+        }
+        return scrollMatching(title, author, publisher, isbn, filter, cursor, size, withoutRelevanceSort(sort));
+    }
+
+    private CursorPage<Book> scrollMatching(String title, String author, String publisher, String isbn,
+                                            FacetFilter filter, String cursor, int size, Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!KEYSET_SORTABLE.containsKey(order.getProperty())) {
+                throw new IllegalArgumentException("游标分页不支持按该字段排序: " + order.getProperty());
+            }
+        }
+        ScrollPosition position = KeysetSupport.position(cursor, sort, KEYSET_SORTABLE);
+        Window<Book> window = bookRepository.findBy(BookSpecifications.matching(title, author, publisher, isbn)
+                        .and(BookSpecifications.inFacets(filter)),
+                query -> query.sortBy(sort).limit(size).scroll(position));
+        return KeysetSupport.toCursorPage(window);
     }
 
+    @Transactional(readOnly = true)
     public List<Book> searchBooksByTitle(String title) {
+        if (bookSearchIndex.isReady()) {
+            return findBooksInOrder(bookSearchIndex.searchField(SearchField.TITLE, title));
+        }
         return bookRepository.findByTitleContainingIgnoreCase(title);
     }
 
+    @Transactional(readOnly = true)
     public List<Book> searchBooksByAuthor(String author) {
+        if (bookSearchIndex.isReady()) {
+            return findBooksInOrder(bookSearchIndex.searchField(SearchField.AUTHOR, author));
+        }
         return bookRepository.findByAuthorContainingIgnoreCase(author);
     }
 
+    @Transactional(readOnly = true)
     public List<Book> searchBooksByPublisher(String publisher) {
+        if (bookSearchIndex.isReady()) {
+            return findBooksInOrder(bookSearchIndex.searchField(SearchField.PUBLISHER, publisher));
+        }
         return bookRepository.findByPublisherContainingIgnoreCase(publisher);
     }
 
+    private List<Book> findBooksInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Book> booksById = new HashMap<>();
+        for (Book book : bookRepository.findAllById(ids)) {
+            booksById.put(book.getId(), book);
+        }
+        List<Book> books = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = booksById.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    private Pageable withoutRelevanceSort(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().getOrderFor(BookSearchIndex.SORT_RELEVANCE) == null) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), withoutRelevanceSort(pageable.getSort()));
+    }
+
+    private Sort withoutRelevanceSort(Sort sort) {
+        if (sort.getOrderFor(BookSearchIndex.SORT_RELEVANCE) == null) {
+            return sort;
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!BookSearchIndex.SORT_RELEVANCE.equals(order.getProperty())) {
+                orders.add(order);
+            }
+        }
+        return orders.isEmpty() ? Sort.by("id") : Sort.by(orders);
+    }
+
     public long getTotalBookCount() {
+        if (libraryStatistics.isReady()) {
+            return libraryStatistics.getTotalBooks();
+        }
         return bookRepository.count();
     }
 }
\ No newline at end of file
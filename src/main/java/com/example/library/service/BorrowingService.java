@@ -0,0 +1,442 @@
+package com.example.library.service;
+
+import com.example.library.dto.BorrowingBatchRequest;
+import com.example.library.dto.BorrowingBatchResult;
+import com.example.library.dto.BorrowingView;
+import com.example.library.event.BorrowingChangedEvent;
+import com.example.library.inventory.InventoryEngine;
+import com.example.library.model.Book;
+import com.example.library.model.Borrowing;
+import com.example.library.model.User;
+import com.example.library.overdue.OverdueEngine;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.KeysetSupport;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BorrowingRepository;
+import com.example.library.repository.BorrowingSpecifications;
+import com.example.library.repository.UserRepository;
+import com.example.library.stats.LibraryStatistics;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Service
+@Transactional
+@Timed(value = "library.service", histogram = true)
+public class BorrowingService {
+
+    public static final int DEFAULT_BORROW_DAYS = 30;
+
+    private static final String INSERT_BORROWING_SQL = "INSERT INTO borrowings (book_id, user_id, borrow_date, "
+            + "due_date, status) VALUES (?, ?, ?, ?, 'BORROWED')";
+    private static final String MARK_RETURNED_SQL = "UPDATE borrowings SET status = 'RETURNED', return_date = ? "
+            + "WHERE id = ? AND status = ?";
+
+    /**
+     * 可用于游标分页的排序字段（均为非空列）及其类型。
+     */
+    public static final Map<String, Function<String, Object>> KEYSET_SORTABLE = Map.of(
+        "id", Long::valueOf,
+        "borrowDate", LocalDateTime::parse,
+        "dueDate", LocalDateTime::parse
+    );
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InventoryEngine inventoryEngine;
+
+    @Autowired
+    private LibraryStatistics libraryStatistics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public Page<BorrowingView> findAllBorrowings(Pageable pageable) {
+        return borrowingRepository.findAllViews(pageable);
+    }
+
+    /**
+     * 游标分页：按 (sortKey, id) 定位，无 OFFSET、无 COUNT 查询。图书和用户随同一条查询联表取出。
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingView> scrollBorrowings(String cursor, int size, Sort sort) {
+        ScrollPosition position = KeysetSupport.position(cursor, sort, KEYSET_SORTABLE);
+        Window<Borrowing> window = borrowingRepository.findBy(BorrowingSpecifications.fetchBookAndUser(),
+                query -> query.sortBy(sort).limit(size).scroll(position));
+        return KeysetSupport.toCursorPage(window.map(BorrowingView::from));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BorrowingView> findBorrowingsByUser(Long userId, Pageable pageable) {
+        return borrowingRepository.findViewsByUserId(userId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BorrowingView> findBorrowingsByBook(Long bookId) {
+        return borrowingRepository.findViewsByBookId(bookId);
+    }
+
+    /**
+     * 逾期借阅，按应还日期升序分页。状态由 {@link OverdueEngine} 在到期后批量更新，
+     * 这里只按状态读索引，不再扫描全部在借记录。
+     */
+    @Transactional(readOnly = true)
+    public Page<BorrowingView> findOverdueBorrowings(Pageable pageable) {
+        return borrowingRepository.findViewsByStatus("OVERDUE", pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BorrowingView> findActiveBorrowings(Pageable pageable) {
+        return borrowingRepository.findViewsByStatus("BORROWED", pageable);
+    }
+
+    /**
+     * 借书。库存扣减在 {@link InventoryEngine} 中以条件更新完成，并发借同一本书不会超借。
+     * 不沿用类级事务：先按图书排队，再开启事务，避免排队期间占用数据库连接。
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Borrowing borrowBook(Borrowing borrowing) {
+        if (borrowing.getBook() == null || borrowing.getBook().getId() == null) {
+            throw new RuntimeException("图书不能为空");
+        }
+        if (borrowing.getUser() == null || borrowing.getUser().getId() == null) {
+            throw new RuntimeException("用户不能为空");
+        }
+
+        Long bookId = borrowing.getBook().getId();
+        return inventoryEngine.execute(bookId, () -> {
+            User user = userRepository.findById(borrowing.getUser().getId())
+                    .orElseThrow(() -> new RuntimeException("用户不存在，ID: " + borrowing.getUser().getId()));
+            boolean checkedOut = inventoryEngine.checkOut(bookId);
+            Book book = bookRepository.findById(bookId)
+                    .orElseThrow(() -> new RuntimeException("图书不存在，ID: " + bookId));
+            if (!checkedOut) {
+                throw new RuntimeException("图书库存不足: " + book.getTitle());
+            }
+
+            // 精确到秒，避免不同数据库对小数秒截断或四舍五入不一致
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            borrowing.setBook(book);
+            borrowing.setUser(user);
+            borrowing.setBorrowDate(now);
+            borrowing.setDueDate(borrowing.getDueDate() == null
+                    ? now.plusDays(DEFAULT_BORROW_DAYS) : borrowing.getDueDate().truncatedTo(ChronoUnit.SECONDS));
+            borrowing.setStatus("BORROWED");
+            Borrowing saved = borrowingRepository.save(borrowing);
+            eventPublisher.publishEvent(BorrowingChangedEvent.borrowed(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * 还书。借阅状态以条件更新切换为 RETURNED，并发重复归还只有一次会回补库存。
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Borrowing returnBook(Long id) {
+        Long bookId = inventoryEngine.lookup(() -> borrowingRepository.findBookIdById(id))
+                .orElseThrow(() -> new RuntimeException("借阅记录不存在，ID: " + id));
+
+        return inventoryEngine.execute(bookId, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            Borrowing borrowing;
+            String previousStatus;
+            int attempts = 0;
+            do {
+                // 状态可能刚被逾期任务从 BORROWED 改为 OVERDUE，此时重新读取一次
+                if (++attempts > 2) {
+                    throw new RuntimeException("借阅记录状态已变更，请重试，借阅ID: " + id);
+                }
+                borrowing = borrowingRepository.findWithBookAndUserById(id)
+                        .orElseThrow(() -> new RuntimeException("借阅记录不存在，ID: " + id));
+                previousStatus = borrowing.getStatus();
+                if ("RETURNED".equals(previousStatus)) {
+                    throw new RuntimeException("图书已归还，借阅ID: " + id);
+                }
+                // 条件更新会清空持久化上下文，此后 borrowing 为游离对象，修改它不会再次写库
+            } while (borrowingRepository.markReturned(id, previousStatus, now) == 0);
+            inventoryEngine.checkIn(bookId);
+            bookRepository.findById(bookId).ifPresent(borrowing::setBook);
+            borrowing.setReturnDate(now);
+            borrowing.setStatus("RETURNED");
+            Borrowing returned = borrowing;
+            eventPublisher.publishEvent(BorrowingChangedEvent.returned(returned, previousStatus));
+            return returned;
+        });
+    }
+
+    /**
+     * 批量借书：同一用户一次借多本，一个事务、一次提交。
+     * 先按图书分段一次性加锁，再按图书ID升序以一次 JDBC batch 条件扣减库存（行锁顺序固定，批量之间不会死锁），
+     * 借阅记录也以一次 JDBC batch 插入。ALL_OR_NOTHING 任一本不存在或库存不足即整体回滚并抛出异常；
+     * PARTIAL 跳过这些图书，其余照常提交。
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BorrowingBatchResult borrowBooks(Long userId, List<Long> bookIds, LocalDateTime dueDate,
+                                            BorrowingBatchRequest.Mode mode) {
+        if (userId == null) {
+            throw new RuntimeException("用户不能为空");
+        }
+        if (bookIds == null || bookIds.isEmpty()) {
+            throw new RuntimeException("图书不能为空");
+        }
+        if (bookIds.contains(null)) {
+            throw new RuntimeException("图书ID不能为空");
+        }
+
+        return inventoryEngine.executeAll(bookIds, () -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("用户不存在，ID: " + userId));
+            List<Integer> order = orderBy(bookIds);
+            boolean[] sortedCheckedOut = inventoryEngine.checkOutAll(order.stream().map(bookIds::get).toList());
+            boolean[] checkedOut = new boolean[bookIds.size()];
+            for (int k = 0; k < order.size(); k++) {
+                checkedOut[order.get(k)] = sortedCheckedOut[k];
+            }
+            Map<Long, Book> books = new HashMap<>();
+            bookRepository.findAllById(new HashSet<>(bookIds)).forEach(book -> books.put(book.getId(), book));
+
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            LocalDateTime due = dueDate == null ? now.plusDays(DEFAULT_BORROW_DAYS) : dueDate.truncatedTo(ChronoUnit.SECONDS);
+            String[] errors = new String[bookIds.size()];
+            List<Borrowing> borrowings = new ArrayList<>();
+            for (int i = 0; i < bookIds.size(); i++) {
+                Book book = books.get(bookIds.get(i));
+                if (book == null) {
+                    errors[i] = "图书不存在，ID: " + bookIds.get(i);
+                } else if (!checkedOut[i]) {
+                    errors[i] = "图书库存不足: " + book.getTitle();
+                } else {
+                    borrowings.add(new Borrowing(book, user, now, due));
+                    continue;
+                }
+                if (mode == BorrowingBatchRequest.Mode.ALL_OR_NOTHING) {
+                    throw new RuntimeException(errors[i]);
+                }
+            }
+            insertBorrowings(borrowings);
+
+            List<BorrowingBatchResult.Item> items = new ArrayList<>(bookIds.size());
+            Iterator<Borrowing> saved = borrowings.iterator();
+            for (int i = 0; i < bookIds.size(); i++) {
+                if (errors[i] != null) {
+                    items.add(BorrowingBatchResult.Item.failed(bookIds.get(i), null, errors[i]));
+                    continue;
+                }
+                Borrowing borrowing = saved.next();
+                eventPublisher.publishEvent(BorrowingChangedEvent.borrowed(borrowing));
+                items.add(BorrowingBatchResult.Item.borrowed(bookIds.get(i), BorrowingView.from(borrowing)));
+            }
+            return new BorrowingBatchResult(items);
+        });
+    }
+
+    /**
+     * 批量还书，语义同 {@link #borrowBooks}。借阅记录（连同图书和用户）在加锁前由独立短事务一次查出，
+     * 加锁后按图书ID升序以 JDBC batch 条件标记归还（以读到的状态为条件，期间被并发归还的不会重复回补）并回补库存。
+     * 不存在或已归还的借阅在 ALL_OR_NOTHING 下使整批回滚。
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BorrowingBatchResult returnBooks(List<Long> borrowingIds, BorrowingBatchRequest.Mode mode) {
+        if (borrowingIds == null || borrowingIds.isEmpty()) {
+            throw new RuntimeException("借阅记录不能为空");
+        }
+        if (borrowingIds.contains(null)) {
+            throw new RuntimeException("借阅ID不能为空");
+        }
+        Map<Long, Borrowing> borrowings = new HashMap<>();
+        inventoryEngine.lookup(() -> borrowingRepository.findWithBookAndUserByIdIn(new HashSet<>(borrowingIds)))
+                .forEach(borrowing -> borrowings.put(borrowing.getId(), borrowing));
+        // 各项按所借图书排序，不存在的借阅排在最后
+        List<Long> bookIds = borrowingIds.stream()
+                .map(id -> borrowings.containsKey(id) ? borrowings.get(id).getBook().getId() : Long.MAX_VALUE)
+                .toList();
+
+        return inventoryEngine.executeAll(borrowings.values().stream().map(b -> b.getBook().getId()).toList(), () -> {
+            LocalDateTime now = LocalDateTime.now();
+            String[] previousStatus = new String[borrowingIds.size()];
+            String[] errors = new String[borrowingIds.size()];
+            Set<Long> seen = new HashSet<>();
+            List<Integer> candidates = new ArrayList<>();
+            for (int i : orderBy(bookIds)) {
+                Long id = borrowingIds.get(i);
+                Borrowing borrowing = borrowings.get(id);
+                if (borrowing == null) {
+                    errors[i] = "借阅记录不存在，ID: " + id;
+                } else if (!seen.add(id) || "RETURNED".equals(borrowing.getStatus())) {
+                    // 同一借阅在请求中重复出现时只归还一次
+                    errors[i] = "图书已归还，借阅ID: " + id;
+                } else {
+                    candidates.add(i);
+                }
+            }
+
+            Timestamp returnDate = Timestamp.valueOf(now);
+            int[] counts = jdbcTemplate.batchUpdate(MARK_RETURNED_SQL, candidates.stream()
+                    .map(i -> new Object[] { returnDate, borrowingIds.get(i), borrowings.get(borrowingIds.get(i)).getStatus() })
+                    .toList());
+            List<Long> checkIns = new ArrayList<>(candidates.size());
+            for (int k = 0; k < candidates.size(); k++) {
+                int i = candidates.get(k);
+                Borrowing borrowing = borrowings.get(borrowingIds.get(i));
+                previousStatus[i] = counts[k] > 0 ? borrowing.getStatus() : retryMarkReturned(borrowing.getId(), now);
+                if (previousStatus[i] == null) {
+                    errors[i] = "图书已归还，借阅ID: " + borrowing.getId();
+                } else {
+                    checkIns.add(borrowing.getBook().getId());
+                }
+            }
+            for (int i = 0; i < borrowingIds.size(); i++) {
+                if (errors[i] != null && mode == BorrowingBatchRequest.Mode.ALL_OR_NOTHING) {
+                    throw new RuntimeException(errors[i]);
+                }
+            }
+            inventoryEngine.checkInAll(checkIns);
+
+            List<BorrowingBatchResult.Item> items = new ArrayList<>(borrowingIds.size());
+            for (int i = 0; i < borrowingIds.size(); i++) {
+                Long id = borrowingIds.get(i);
+                if (errors[i] != null) {
+                    items.add(BorrowingBatchResult.Item.failed(null, id, errors[i]));
+                    continue;
+                }
+                Borrowing borrowing = borrowings.get(id);
+                borrowing.setReturnDate(now);
+                borrowing.setStatus("RETURNED");
+                eventPublisher.publishEvent(BorrowingChangedEvent.returned(borrowing, previousStatus[i]));
+                items.add(BorrowingBatchResult.Item.returned(id, BorrowingView.from(borrowing)));
+            }
+            return new BorrowingBatchResult(items);
+        });
+    }
+
+    /**
+     * 批量标记归还时状态已变化：多为加锁前读到 BORROWED 后被逾期任务改为 OVERDUE，重新读取一次再按新状态标记。
+     * 返回归还前的状态，已被归还时返回 null。
+     */
+    private String retryMarkReturned(Long id, LocalDateTime now) {
+        String current = borrowingRepository.findById(id).map(Borrowing::getStatus).orElse(null);
+        if (current == null || "RETURNED".equals(current)) {
+            return null;
+        }
+        return borrowingRepository.markReturned(id, current, now) > 0 ? current : null;
+    }
+
+    /**
+     * 以一次 JDBC batch 插入借阅记录并回填自增ID。Borrowing 使用 IDENTITY 主键，Hibernate 无法批量插入。
+     */
+    private void insertBorrowings(List<Borrowing> borrowings) {
+        if (borrowings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_BORROWING_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (Borrowing borrowing : borrowings) {
+                    statement.setLong(1, borrowing.getBook().getId());
+                    statement.setLong(2, borrowing.getUser().getId());
+                    statement.setTimestamp(3, Timestamp.valueOf(borrowing.getBorrowDate()));
+                    statement.setTimestamp(4, Timestamp.valueOf(borrowing.getDueDate()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (Borrowing borrowing : borrowings) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("未返回借阅记录的自增ID");
+                        }
+                        borrowing.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 按 keys 升序（相同时按下标）排列的下标，批量操作按此顺序修改数据库行。
+     */
+    private static List<Integer> orderBy(List<Long> keys) {
+        List<Integer> order = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(keys::get));
+        return order;
+    }
+
+    public Borrowing renewBook(Long id) {
+        Borrowing borrowing = borrowingRepository.findWithBookAndUserById(id)
+                .orElseThrow(() -> new RuntimeException("借阅记录不存在，ID: " + id));
+        if (!"BORROWED".equals(borrowing.getStatus())) {
+            throw new RuntimeException("当前状态不能续借: " + borrowing.getStatus());
+        }
+        if (borrowing.isOverdue()) {
+            throw new RuntimeException("逾期图书不能续借，借阅ID: " + id);
+        }
+
+        LocalDateTime dueDate = borrowing.getDueDate();
+        LocalDateTime newDueDate = dueDate.plusDays(DEFAULT_BORROW_DAYS);
+        if (borrowingRepository.extendDueDate(id, dueDate, newDueDate) == 0) {
+            throw new RuntimeException("借阅记录已被修改，请重试，借阅ID: " + id);
+        }
+        borrowing.setDueDate(newDueDate);
+        eventPublisher.publishEvent(BorrowingChangedEvent.renewed(borrowing, dueDate));
+        return borrowing;
+    }
+
+    /**
+     * 借阅统计。内存计数器就绪后直接读取，不查询数据库；启动对账完成前退回 COUNT 查询。
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBorrowingStats() {
+        if (libraryStatistics.isReady()) {
+            return libraryStatistics.getBorrowingSummary();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalBorrowings", borrowingRepository.count());
+        stats.put("activeBorrowings", borrowingRepository.countByStatus("BORROWED"));
+        stats.put("returnedBorrowings", borrowingRepository.countByStatus("RETURNED"));
+        stats.put("overdueBorrowings", borrowingRepository.countByStatus("OVERDUE")
+                + borrowingRepository.countByStatusAndDueDateBefore("BORROWED", now));
+        return stats;
+    }
+}
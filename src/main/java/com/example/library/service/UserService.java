@@ -1,26 +1,61 @@
 package com.example.library.service;
 
+import com.example.library.event.UserChangedEvent;
 import com.example.library.model.User;
 import com.example.library.repository.UserRepository;
+import com.example.library.security.PasswordHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @Transactional
+@Timed(value = "library.service", histogram = true)
 public class UserService implements UserDetailsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordEncoder;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** Spring Boot 的应用任务线程池（vthreads 配置下为虚拟线程），哈希完成后的写库在这里执行 */
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -28,6 +63,76 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("用户不存在: " + username));
     }
 
+    /**
+     * 校验用户名密码。BCrypt 在哈希线程池中执行，结果为空表示用户名或密码错误；
+     * 线程池排满时抛出 RejectedExecutionException。
+     * 校验通过且哈希的 cost 与当前配置不同时，在后台按新 cost 重新哈希，不影响本次登录的响应时间。
+     */
+    @Transactional(readOnly = true)
+    public CompletableFuture<Optional<User>> authenticate(String username, String rawPassword) {
+        Optional<User> user = username == null ? Optional.empty() : userRepository.findByUsername(username);
+        String hash = user.map(User::getPassword).orElse(passwordEncoder.getDummyHash());
+        return passwordEncoder.matchesAsync(rawPassword == null ? "" : rawPassword, hash).thenApply(matched -> {
+            if (!matched || user.isEmpty()) {
+                return Optional.empty();
+            }
+            if (passwordEncoder.upgradeEncoding(hash)) {
+                rehash(user.get().getId(), hash, rawPassword);
+            }
+            return user;
+        });
+    }
+
+    /**
+     * 注册新用户。密码在哈希线程池中加密，线程池排满时抛出 RejectedExecutionException。
+     * 哈希完成后切回应用任务线程池，在独立事务中写库，哈希线程不等待数据库。
+     * 预检查与写库之间同名用户可能已被并发注册，此时唯一约束冲突以 {@link DuplicateKeyException}（用户名已存在）结束 future。
+     */
+    @Transactional(readOnly = true)
+    public CompletableFuture<User> registerUser(User user) {
+        if (userRepository.existsByUsername(user.getUsername())) {
+            throw new RuntimeException("用户名已存在: " + user.getUsername());
+        }
+        return passwordEncoder.encodeAsync(user.getPassword())
+                .thenApplyAsync(encoded -> insertUser(user, encoded), applicationTaskExecutor);
+    }
+
+    private User insertUser(User user, String encodedPassword) {
+        user.setPassword(encodedPassword);
+        User savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> userRepository.save(user));
+        } catch (DataIntegrityViolationException e) {
+            if (userRepository.existsByUsername(user.getUsername())) {
+                throw new DuplicateKeyException("用户名已存在: " + user.getUsername(), e);
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getUsername(), null));
+        return savedUser;
+    }
+
+    private void rehash(Long userId, String oldHash, String rawPassword) {
+        try {
+            // 与注册相同，写库回到应用任务线程池，哈希线程不等待数据库连接
+            passwordEncoder.encodeAsync(rawPassword).thenAcceptAsync(newHash -> {
+                if (userRepository.replacePasswordHash(userId, oldHash, newHash) > 0) {
+                    passwordEncoder.recordRehash();
+                }
+            }, applicationTaskExecutor).exceptionally(e -> {
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    logger.debug("重新哈希排队超时，用户ID: {}", userId);
+                } else {
+                    logger.warn("重新哈希密码失败，用户ID: {}", userId, e);
+                }
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            // 哈希线程池繁忙，留待下次登录
+            logger.debug("哈希线程池已满，跳过重新哈希，用户ID: {}", userId);
+        }
+    }
+
     public Optional<User> findUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -41,24 +146,28 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("用户名已存在: " + user.getUsername());
         }
         
+        String previousUsername = null;
         if (user.getId() == null) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         } else {
             User existingUser = userRepository.findById(user.getId())
                     .orElseThrow(() -> new RuntimeException("用户不存在，ID: " + user.getId()));
+            previousUsername = existingUser.getUsername();
             if (!user.getPassword().equals(existingUser.getPassword())) {
                 user.setPassword(passwordEncoder.encode(user.getPassword()));
             }
         }
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getUsername(), previousUsername));
+        return savedUser;
     }
 
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("用户不存在，ID: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("用户不存在，ID: " + id));
+        userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id, user.getUsername(), null));
     }
 
     public boolean existsByUsername(String username) {
@@ -0,0 +1,126 @@
+package com.example.library.startup;
+
+import com.example.library.overdue.OverdueEngine;
+import com.example.library.search.BookSearchIndex;
+import com.example.library.search.SuggestIndex;
+import com.example.library.seed.DataSeeder;
+import com.example.library.service.BookService;
+import com.example.library.stats.LibraryStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 启动预热：生成示例数据（图书表为空时），再全量构建检索索引、联想索引、借阅统计和逾期检测。
+ * 示例数据必须先于各索引写入，种子数据不发布变更事件，靠随后的全量构建纳入。
+ * <p>
+ * 默认在 ApplicationReadyEvent 中同步执行，全部完成后应用才进入 ACCEPTING_TRAFFIC。
+ * library.startup.async-warmup=true 时交给后台线程，就绪信号立即发出；预热完成前各组件的 isReady()
+ * 为 false，检索回退到数据库查询，统计返回零值，逾期检查跳过。预热进度见 /actuator/health 的 startupWarmup 详情
+ * （management.endpoint.health.show-details 开启时）。
+ */
+@Component
+public class StartupWarmup implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private DataSeeder dataSeeder;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    @Autowired
+    private LibraryStatistics libraryStatistics;
+
+    @Autowired
+    private OverdueEngine overdueEngine;
+
+    @Value("${library.startup.async-warmup:false}")
+    private boolean asyncWarmup;
+
+    /** 已完成步骤的耗时（毫秒），按执行顺序 */
+    private final Map<String, Long> completed = new LinkedHashMap<>();
+    private volatile String current;
+    private volatile String failure;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!asyncWarmup) {
+            run(true);
+            return;
+        }
+        Thread thread = new Thread(() -> run(false), "startup-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(boolean failFast) {
+        long start = System.nanoTime();
+        Map<String, Runnable> steps = new LinkedHashMap<>();
+        steps.put("seed", () -> {
+            if (bookService.getTotalBookCount() == 0) {
+                dataSeeder.seed();
+            }
+        });
+        steps.put("searchIndex", bookSearchIndex::rebuild);
+        steps.put("suggestIndex", suggestIndex::rebuild);
+        steps.put("statistics", libraryStatistics::reconcile);
+        steps.put("overdue", overdueEngine::load);
+
+        for (Map.Entry<String, Runnable> step : steps.entrySet()) {
+            current = step.getKey();
+            long stepStart = System.nanoTime();
+            try {
+                step.getValue().run();
+            } catch (RuntimeException e) {
+                if (failFast) {
+                    throw e;
+                }
+                // 后台预热失败不影响已在服务的请求，未就绪的组件继续回退到数据库
+                failure = step.getKey() + ": " + e.getMessage();
+                logger.error("启动预热步骤 {} 失败", step.getKey(), e);
+            }
+            synchronized (completed) {
+                completed.put(step.getKey(), (System.nanoTime() - stepStart) / 1_000_000);
+            }
+        }
+        current = null;
+        logger.info("启动预热完成 ({}), 耗时 {} ms", asyncWarmup ? "后台" : "同步",
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 预热不是就绪条件，始终为 UP，只在详情中报告进度与失败步骤。
+     */
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up();
+        synchronized (completed) {
+            builder.withDetail("state", current != null ? "running" : completed.isEmpty() ? "pending" : "complete")
+                .withDetail("completedMillis", new LinkedHashMap<>(completed));
+        }
+        if (current != null) {
+            builder.withDetail("current", current);
+        }
+        if (failure != null) {
+            builder.withDetail("failure", failure);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.library.stats;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 在借（BORROWED）记录的应还日期分布。到期的条目在读取时从有序表头部移入 pastDue 计数，
+ * 每条记录只移动一次，读取逾期数为均摊 O(1)，无需扫描全部在借记录。
+ * <p>
+ * 日期按秒截断作为键：数据库列精度低于 LocalDateTime，事件中读回的日期与写入时不一定逐位相等。
+ */
+final class DueDateTracker {
+
+    private final TreeMap<LocalDateTime, Long> upcoming = new TreeMap<>();
+    private long pastDue;
+
+    synchronized void add(LocalDateTime dueDate) {
+        add(dueDate, 1);
+    }
+
+    synchronized void add(LocalDateTime dueDate, long count) {
+        if (dueDate != null && count > 0) {
+            upcoming.merge(key(dueDate), count, Long::sum);
+        }
+    }
+
+    /**
+     * 记录离开在借状态（归还、续借前的旧日期）。已移入 pastDue 的从逾期数中扣除。
+     */
+    synchronized void remove(LocalDateTime dueDate) {
+        if (dueDate == null) {
+            return;
+        }
+        LocalDateTime key = key(dueDate);
+        Long count = upcoming.get(key);
+        if (count == null) {
+            pastDue--;
+        } else if (count == 1) {
+            upcoming.remove(key);
+        } else {
+            upcoming.put(key, count - 1);
+        }
+    }
+
+    /**
+     * 应还日期早于 now 的在借记录数。
+     */
+    synchronized long pastDue(LocalDateTime now) {
+        Map.Entry<LocalDateTime, Long> first;
+        while ((first = upcoming.firstEntry()) != null && first.getKey().isBefore(now)) {
+            pastDue += first.getValue();
+            upcoming.pollFirstEntry();
+        }
+        return Math.max(0, pastDue);
+    }
+
+    private static LocalDateTime key(LocalDateTime dueDate) {
+        return dueDate.truncatedTo(ChronoUnit.SECONDS);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.library.stats;
+
+import com.example.library.event.BookChangedEvent;
+import com.example.library.event.BorrowingChangedEvent;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BorrowingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 图书与借阅统计的内存计数器。借书、还书、续借、逾期和图书增删通过事件在事务提交后增量更新，
+ * 读取不访问数据库；启动时和之后每隔一段时间与数据库对账，
+ * 对账期间并发写入造成的少量偏差会在下一次对账时修正。
+ */
+@Component
+public class LibraryStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(LibraryStatistics.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Value("${library.stats.daily-retention-days:90}")
+    private int dailyRetentionDays;
+
+    private volatile Counters counters = new Counters();
+    private volatile boolean ready;
+    private volatile LocalDateTime lastReconciledAt;
+
+    /**
+     * 从数据库重新计算全部计数并整体替换，同时记录与内存值的偏差。
+     */
+    @Scheduled(fixedDelayString = "${library.stats.reconcile-interval:PT5M}",
+               initialDelayString = "${library.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long start = System.nanoTime();
+        Counters fresh = new Counters();
+        fresh.totalBooks.add(bookRepository.count());
+        fresh.totalBorrowings.add(borrowingRepository.count());
+        fresh.borrowed.add(borrowingRepository.countByStatus("BORROWED"));
+        fresh.returned.add(borrowingRepository.countByStatus("RETURNED"));
+        fresh.overdueStatus.add(borrowingRepository.countByStatus("OVERDUE"));
+        for (Object[] row : borrowingRepository.countByDueDate("BORROWED")) {
+            fresh.dueDates.add((LocalDateTime) row[0], ((Number) row[1]).longValue());
+        }
+        for (Object[] row : borrowingRepository.countGroupByBook()) {
+            fresh.perBook.computeIfAbsent((Long) row[0], k -> new LongAdder()).add(((Number) row[1]).longValue());
+        }
+        for (Object[] row : borrowingRepository.countGroupByUser()) {
+            fresh.perUser.computeIfAbsent((Long) row[0], k -> new LongAdder()).add(((Number) row[1]).longValue());
+        }
+        LocalDate firstDay = LocalDate.now().minusDays(dailyRetentionDays - 1L);
+        for (Object[] row : borrowingRepository.countGroupByBorrowDay(firstDay.atStartOfDay())) {
+            fresh.daily.computeIfAbsent((LocalDate) row[0], k -> new LongAdder()).add(((Number) row[1]).longValue());
+        }
+
+        if (ready) {
+            logDrift(counters, fresh);
+        }
+        counters = fresh;
+        lastReconciledAt = LocalDateTime.now();
+        ready = true;
+        logger.debug("统计对账完成，耗时 {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.CREATED) {
+            counters.totalBooks.increment();
+        } else if (event.getType() == BookChangedEvent.Type.DELETED) {
+            counters.totalBooks.decrement();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowingChanged(BorrowingChangedEvent event) {
+        Counters current = counters;
+        switch (event.getType()) {
+            case BORROWED -> {
+                current.totalBorrowings.increment();
+                current.borrowed.increment();
+                current.dueDates.add(event.getDueDate());
+                current.perBook.computeIfAbsent(event.getBookId(), k -> new LongAdder()).increment();
+                current.perUser.computeIfAbsent(event.getUserId(), k -> new LongAdder()).increment();
+                current.daily.computeIfAbsent(event.getBorrowDate().toLocalDate(), k -> new LongAdder()).increment();
+            }
+            case RETURNED -> {
+                current.returned.increment();
+                if ("OVERDUE".equals(event.getPreviousStatus())) {
+                    current.overdueStatus.decrement();
+                } else {
+                    current.borrowed.decrement();
+                    current.dueDates.remove(event.getPreviousDueDate());
+                }
+            }
+            case RENEWED -> {
+                current.dueDates.remove(event.getPreviousDueDate());
+                current.dueDates.add(event.getDueDate());
+            }
+            case OVERDUE -> {
+                current.borrowed.decrement();
+                current.overdueStatus.increment();
+                current.dueDates.remove(event.getPreviousDueDate());
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getTotalBooks() {
+        return counters.totalBooks.sum();
+    }
+
+    /**
+     * 与原 COUNT 查询口径一致：activeBorrowings 为 BORROWED 状态数，
+     * overdueBorrowings 为 OVERDUE 状态数加上已过应还日期的 BORROWED 数。
+     */
+    public Map<String, Object> getBorrowingSummary() {
+        Counters current = counters;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalBorrowings", current.totalBorrowings.sum());
+        stats.put("activeBorrowings", current.borrowed.sum());
+        stats.put("returnedBorrowings", current.returned.sum());
+        stats.put("overdueBorrowings", current.overdueStatus.sum() + current.dueDates.pastDue(LocalDateTime.now()));
+        return stats;
+    }
+
+    /**
+     * 最近 days 天每天新增的借阅数（含今天），没有借阅的日期为 0。
+     */
+    public Map<LocalDate, Long> getDailyBorrowings(int days) {
+        Counters current = counters;
+        int window = Math.max(1, Math.min(days, dailyRetentionDays));
+        LocalDate today = LocalDate.now();
+        Map<LocalDate, Long> daily = new LinkedHashMap<>();
+        for (int i = window - 1; i >= 0; i--) {
+            LocalDate day = today.minusDays(i);
+            LongAdder count = current.daily.get(day);
+            daily.put(day, count == null ? 0L : count.sum());
+        }
+        return daily;
+    }
+
+    public long getBookBorrowCount(Long bookId) {
+        LongAdder count = counters.perBook.get(bookId);
+        return count == null ? 0L : count.sum();
+    }
+
+    public long getUserBorrowCount(Long userId) {
+        LongAdder count = counters.perUser.get(userId);
+        return count == null ? 0L : count.sum();
+    }
+
+    public LocalDateTime getLastReconciledAt() {
+        return lastReconciledAt;
+    }
+
+    private void logDrift(Counters before, Counters after) {
+        long books = after.totalBooks.sum() - before.totalBooks.sum();
+        long total = after.totalBorrowings.sum() - before.totalBorrowings.sum();
+        long active = after.borrowed.sum() - before.borrowed.sum();
+        long overdue = after.overdueStatus.sum() - before.overdueStatus.sum();
+        if (books != 0 || total != 0 || active != 0 || overdue != 0) {
+            logger.info("统计对账修正偏差: 图书 {}, 借阅总数 {}, 在借 {}, 逾期状态 {}", books, total, active, overdue);
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder totalBooks = new LongAdder();
+        final LongAdder totalBorrowings = new LongAdder();
+        final LongAdder borrowed = new LongAdder();
+        final LongAdder returned = new LongAdder();
+        final LongAdder overdueStatus = new LongAdder();
+        final DueDateTracker dueDates = new DueDateTracker();
+        final Map<Long, LongAdder> perBook = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder> perUser = new ConcurrentHashMap<>();
+        final Map<LocalDate, LongAdder> daily = new ConcurrentHashMap<>();
+    }
+}
@@ -66,6 +66,40 @@ function bindEvents() {
             quickSearch();
         }
     });
+
+    // 输入联想：停止输入 150ms 后请求，只取最后一次输入的结果
+    let suggestTimer = null;
+    document.getElementById('quickSearchInput').addEventListener('input', function() {
+        clearTimeout(suggestTimer);
+        const prefix = this.value.trim();
+        suggestTimer = setTimeout(() => loadSuggestions(prefix), 150);
+    });
+}
+
+// 加载输入联想
+let latestSuggestPrefix = '';
+async function loadSuggestions(prefix) {
+    latestSuggestPrefix = prefix;
+    const datalist = document.getElementById('quickSearchSuggestions');
+    if (!prefix) {
+        datalist.innerHTML = '';
+        return;
+    }
+    try {
+        const response = await fetch(`${API_BASE_URL}/books/suggest?q=${encodeURIComponent(prefix)}&limit=8`);
+        if (!response.ok || prefix !== latestSuggestPrefix) {
+            return;
+        }
+        const suggestions = await response.json();
+        datalist.innerHTML = '';
+        suggestions.forEach(suggestion => {
+            const option = document.createElement('option');
+            option.value = suggestion.text;
+            datalist.appendChild(option);
+        });
+    } catch (error) {
+        console.error('加载联想词失败:', error);
+    }
 }
 
 // 显示登录页面
@@ -174,7 +208,7 @@ async function loadBooks(page = 0, searchTerm = '') {
     let url = `${API_BASE_URL}/books?page=${page}&size=12&sortBy=title&sortDir=asc`;
     
     if (searchTerm) {
-        url = `${API_BASE_URL}/books/search?title=${searchTerm}&page=${page}&size=12&sortBy=title&sortDir=asc`;
+        url = `${API_BASE_URL}/books/search?q=${encodeURIComponent(searchTerm)}&page=${page}&size=12&sortBy=title&sortDir=asc`;
     }
 
     try {
@@ -0,0 +1,114 @@
+package com.example.library.cache;
+
+import com.example.library.event.BookChangedEvent;
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量读取与失效的先后：查询读到旧数据后、写入缓存前提交的变更，其失效不能被随后写入的旧数据覆盖。
+ * 仓库以 mock 代替，在查询返回前触发 {@link BookCache#onBookChanged}，模拟借还书在批量查询期间提交。
+ */
+class BookCacheTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BookCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BookCache();
+        ReflectionTestUtils.setField(cache, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "expireAfterWrite", Duration.ofMinutes(10));
+        cache.init();
+    }
+
+    @Test
+    void cachesBatchResultsIncludingMissingIds() {
+        when(bookRepository.findAllById(anyIterable())).thenReturn(List.of(book(1L, "CACHE-1", 3)));
+
+        assertThat(cache.findAllById(List.of(1L, 2L))).containsOnlyKeys(1L);
+        assertThat(cache.findAllById(List.of(1L, 2L))).containsOnlyKeys(1L);
+        assertThat(cache.findById(2L)).isEmpty();
+
+        verify(bookRepository, times(1)).findAllById(anyIterable());
+        assertThat(cache.getStats().get("booksById")).asString().contains("loadCount=1");
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "books.by_id", "result", "hit")
+                .functionCounter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "books.by_id", "result", "miss")
+                .functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidationDuringBatchLoadIsNotOverwrittenByStaleBook() {
+        Book stale = book(1L, "CACHE-1", 3);
+        Book fresh = book(1L, "CACHE-1", 2);
+        when(bookRepository.findAllById(anyIterable()))
+                .thenAnswer(invocation -> {
+                    // 借书在查询读完之后提交，失效时缓存里还没有这本书
+                    cache.onBookChanged(BookChangedEvent.stockChanged(1L));
+                    return List.of(stale);
+                })
+                .thenReturn(List.of(fresh));
+
+        assertThat(cache.findAllById(List.of(1L)).get(1L).getStockQuantity()).isEqualTo(3);
+        assertThat(cache.findAllById(List.of(1L)).get(1L).getStockQuantity()).isEqualTo(2);
+        assertThat(cache.findAllById(List.of(1L)).get(1L).getStockQuantity()).isEqualTo(2);
+
+        verify(bookRepository, times(2)).findAllById(anyIterable());
+    }
+
+    @Test
+    void isbnCreatedDuringBatchLoadIsNotCachedAsMissing() {
+        Book created = book(7L, "CACHE-7", 1);
+        when(bookRepository.findByIsbnIn(anyCollection()))
+                .thenAnswer(invocation -> {
+                    cache.onBookChanged(BookChangedEvent.created(created));
+                    return List.of();
+                })
+                .thenReturn(List.of(created));
+        when(bookRepository.findAllById(anyIterable())).thenReturn(List.of(created));
+
+        assertThat(cache.findAllByIsbn(List.of("CACHE-7"))).isEmpty();
+        assertThat(cache.findAllByIsbn(List.of("CACHE-7"))).containsOnlyKeys("CACHE-7");
+        assertThat(cache.findAllByIsbn(List.of("CACHE-7"))).containsOnlyKeys("CACHE-7");
+
+        verify(bookRepository, times(2)).findByIsbnIn(anyCollection());
+    }
+
+    @Test
+    void isbnMappingToChangedBookIsReloaded() {
+        Book renamed = book(5L, "CACHE-NEW", 1);
+        Book reused = book(6L, "CACHE-OLD", 1);
+        when(bookRepository.findByIsbnIn(anyCollection()))
+                .thenReturn(List.of(book(5L, "CACHE-OLD", 1)))
+                .thenReturn(List.of(reused));
+        when(bookRepository.findAllById(anyIterable())).thenReturn(List.of(renamed));
+
+        assertThat(cache.findAllByIsbn(List.of("CACHE-OLD")).get("CACHE-OLD").getId()).isEqualTo(5L);
+        // 5 号图书改了 ISBN，旧 ISBN 分配给了 6 号
+        assertThat(cache.findAllByIsbn(List.of("CACHE-OLD")).get("CACHE-OLD").getId()).isEqualTo(6L);
+    }
+
+    private static Book book(Long id, String isbn, int stock) {
+        Book book = new Book(isbn, "Title " + id, "Author", "Publisher", 2020, 1.0, stock, null);
+        book.setId(id);
+        return book;
+    }
+}
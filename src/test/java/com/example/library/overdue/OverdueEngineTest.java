@@ -0,0 +1,149 @@
+package com.example.library.overdue;
+
+import com.example.library.event.BorrowingChangedEvent;
+import com.example.library.model.Book;
+import com.example.library.model.Borrowing;
+import com.example.library.model.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 逾期检测的惰性失效：续借、归还只更新当前应还日期，不从堆中删除旧条目，弹出时与当前日期不符的直接丢弃。
+ * 事件直接交给引擎（与事务提交后的监听调用相同），数据库行用 JDBC 写成事件之后的状态；
+ * 内存与数据库不一致时以数据库的行锁查询为准，数据库中已不在借的记录停止跟踪。测试配置把定时检查间隔调长，由测试自己调用 sweep()。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OverdueEngineTest {
+
+    @Autowired
+    private OverdueEngine overdueEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long bookId;
+
+    @BeforeAll
+    void insertReaderAndBook() {
+        jdbcTemplate.update("INSERT INTO users (username, password, role, email) "
+                + "VALUES ('overdue-engine', '{noop}x', 'READER', 'overdue-engine@example.com')");
+        jdbcTemplate.update("INSERT INTO books (isbn, title, author, publisher, publish_year, price, stock_quantity) "
+                + "VALUES ('OVERDUE-ENGINE', '逾期检测', 'Overdue', 'Overdue', 2024, 1.0, 10)");
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'overdue-engine'", Long.class);
+        bookId = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = 'OVERDUE-ENGINE'", Long.class);
+    }
+
+    @Test
+    void sweepSkipsRenewedAndReturnedEntries() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        LocalDateTime past = now.minusDays(2);
+        LocalDateTime future = now.plusDays(14);
+
+        Borrowing due = insert("BORROWED", past);
+        Borrowing renewed = insert("BORROWED", future);
+        Borrowing returned = insert("RETURNED", past);
+        Borrowing upcoming = insert("BORROWED", future);
+        Borrowing renewedIntoPast = insert("BORROWED", past);
+        // 内存中已到期，但数据库里已续借（事件尚未到达）
+        Borrowing staleInMemory = insert("BORROWED", future);
+        // 数据库里已归还，内存中仍在跟踪（归还事件尚未到达）
+        Borrowing returnedInDb = insert("RETURNED", past);
+        int trackedBefore = overdueEngine.getTrackedCount();
+
+        borrowed(due, past);
+        borrowed(renewed, past);
+        renew(renewed, past, future);
+        borrowed(returned, past);
+        overdueEngine.onBorrowingChanged(BorrowingChangedEvent.returned(withDueDate(returned, past), "BORROWED"));
+        borrowed(upcoming, future);
+        borrowed(renewedIntoPast, future);
+        renew(renewedIntoPast, future, past);
+        borrowed(staleInMemory, past);
+        borrowed(returnedInDb, past);
+
+        assertThat(overdueEngine.getTrackedCount() - trackedBefore).as("归还的记录不再跟踪").isEqualTo(6);
+
+        assertThat(overdueEngine.sweep()).isEqualTo(2);
+
+        assertThat(statusOf(due)).isEqualTo("OVERDUE");
+        assertThat(statusOf(renewedIntoPast)).isEqualTo("OVERDUE");
+        assertThat(statusOf(renewed)).isEqualTo("BORROWED");
+        assertThat(statusOf(returned)).isEqualTo("RETURNED");
+        assertThat(statusOf(upcoming)).isEqualTo("BORROWED");
+        assertThat(statusOf(staleInMemory)).isEqualTo("BORROWED");
+        assertThat(statusOf(returnedInDb)).isEqualTo("RETURNED");
+        // 续借到未来的 staleInMemory 保留，等续借事件重新入堆
+        assertThat(overdueEngine.getTrackedCount() - trackedBefore)
+                .as("标记逾期的和数据库中已归还的不再跟踪").isEqualTo(3);
+
+        // 失效条目已在上一轮丢弃，没有新到期的记录
+        assertThat(overdueEngine.sweep()).isZero();
+
+        // 迟到的事件：续借重新跟踪新日期，归还对已不跟踪的记录无影响
+        renew(staleInMemory, past, future);
+        overdueEngine.onBorrowingChanged(BorrowingChangedEvent.returned(withDueDate(returnedInDb, past), "BORROWED"));
+        assertThat(overdueEngine.getTrackedCount() - trackedBefore).isEqualTo(3);
+        assertThat(overdueEngine.sweep()).isZero();
+    }
+
+    @Test
+    void duplicateEventsDoNotMarkTwice() {
+        LocalDateTime past = LocalDateTime.now().withNano(0).minusHours(1);
+        Borrowing borrowing = insert("BORROWED", past);
+
+        borrowed(borrowing, past);
+        borrowed(borrowing, past);
+        renew(borrowing, past, past);
+
+        assertThat(overdueEngine.sweep()).isEqualTo(1);
+        assertThat(statusOf(borrowing)).isEqualTo("OVERDUE");
+        assertThat(overdueEngine.sweep()).isZero();
+    }
+
+    private Borrowing insert(String status, LocalDateTime dueDate) {
+        LocalDateTime borrowDate = dueDate.minusDays(30);
+        jdbcTemplate.update("INSERT INTO borrowings (book_id, user_id, borrow_date, due_date, status) "
+                + "VALUES (?, ?, ?, ?, ?)", bookId, userId, borrowDate, dueDate, status);
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM borrowings WHERE user_id = ?", Long.class, userId);
+        Borrowing borrowing = new Borrowing();
+        borrowing.setId(id);
+        Book book = new Book();
+        book.setId(bookId);
+        borrowing.setBook(book);
+        User user = new User();
+        user.setId(userId);
+        borrowing.setUser(user);
+        borrowing.setBorrowDate(borrowDate);
+        borrowing.setStatus("BORROWED");
+        return borrowing;
+    }
+
+    private void borrowed(Borrowing borrowing, LocalDateTime dueDate) {
+        overdueEngine.onBorrowingChanged(BorrowingChangedEvent.borrowed(withDueDate(borrowing, dueDate)));
+    }
+
+    private void renew(Borrowing borrowing, LocalDateTime from, LocalDateTime to) {
+        overdueEngine.onBorrowingChanged(BorrowingChangedEvent.renewed(withDueDate(borrowing, to), from));
+    }
+
+    private static Borrowing withDueDate(Borrowing borrowing, LocalDateTime dueDate) {
+        borrowing.setDueDate(dueDate);
+        return borrowing;
+    }
+
+    private String statusOf(Borrowing borrowing) {
+        return jdbcTemplate.queryForObject("SELECT status FROM borrowings WHERE id = ?", String.class, borrowing.getId());
+    }
+}
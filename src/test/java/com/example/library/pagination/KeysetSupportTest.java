@@ -0,0 +1,129 @@
+package com.example.library.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 游标编解码：排序键原样往返（含中文、引号和 Base64 特殊字符），编码结果可直接放进 URL，
+ * 无法解码或与当前排序不匹配的游标统一报 IllegalArgumentException（控制器据此返回 400）。
+ */
+class KeysetSupportTest {
+
+    private static final Map<String, Function<String, Object>> TYPES = Map.of(
+        "id", Long::valueOf,
+        "title", value -> value,
+        "borrowDate", LocalDateTime::parse);
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        Map<String, String> keys = new LinkedHashMap<>();
+        keys.put("title", "深入理解 \"Java\" 虚拟机 ?&=/+");
+        keys.put("borrowDate", "2024-03-01T08:30:15");
+        keys.put("id", "9007199254740993");
+
+        String cursor = KeysetSupport.encode(keys);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(KeysetSupport.decode(cursor)).containsExactlyEntriesOf(keys);
+        assertThat(KeysetSupport.decode("  " + cursor + "\n")).containsExactlyEntriesOf(keys);
+    }
+
+    @Test
+    void blankCursorIsFirstPage() {
+        assertThat(KeysetSupport.decode(null)).isEmpty();
+        assertThat(KeysetSupport.decode("")).isEmpty();
+        assertThat(KeysetSupport.decode("   ")).isEmpty();
+        assertThat(KeysetSupport.position("", Sort.by("id"), TYPES)).isEqualTo(ScrollPosition.keyset());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String notJson = Base64.getUrlEncoder().encodeToString("id=5".getBytes(StandardCharsets.UTF_8));
+        String array = Base64.getUrlEncoder().encodeToString("[\"5\"]".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("@@@", "abc*", notJson, array)) {
+            assertThatThrownBy(() -> KeysetSupport.decode(cursor))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("无效的分页游标");
+        }
+    }
+
+    @Test
+    void keysetSortAppendsIdAsTieBreaker() {
+        assertThat(KeysetSupport.keysetSort("title", "DESC", TYPES))
+                .isEqualTo(Sort.by(Sort.Direction.DESC, "title").and(Sort.by(Sort.Direction.DESC, "id")));
+        assertThat(KeysetSupport.keysetSort("title", "anything", TYPES))
+                .isEqualTo(Sort.by(Sort.Direction.ASC, "title", "id"));
+        assertThat(KeysetSupport.keysetSort("id", "desc", TYPES)).isEqualTo(Sort.by(Sort.Direction.DESC, "id"));
+        assertThatThrownBy(() -> KeysetSupport.keysetSort("price", "asc", TYPES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("price");
+    }
+
+    @Test
+    void nextCursorRestoresTypedPosition() {
+        LocalDateTime borrowDate = LocalDateTime.of(2024, 3, 1, 8, 30, 15);
+        Sort sort = KeysetSupport.keysetSort("borrowDate", "desc", TYPES);
+        Window<String> window = Window.from(List.of("first", "last"),
+                i -> ScrollPosition.forward(Map.of("borrowDate", borrowDate.plusDays(i), "id", 10L + i)), true);
+
+        CursorPage<String> page = KeysetSupport.toCursorPage(window);
+
+        assertThat(page.getContent()).containsExactly("first", "last");
+        assertThat(page.getNextCursor()).isNotNull();
+        KeysetScrollPosition position = (KeysetScrollPosition) KeysetSupport.position(page.getNextCursor(), sort, TYPES);
+        assertThat(position.getKeys()).containsExactly(
+                Map.entry("borrowDate", borrowDate.plusDays(1)), Map.entry("id", 11L));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        Window<String> window = Window.from(List.of("only"), i -> ScrollPosition.forward(Map.of("id", 1L)), false);
+
+        CursorPage<String> page = KeysetSupport.toCursorPage(window);
+
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsCursorsFromOtherQueries() {
+        Sort sort = KeysetSupport.keysetSort("title", "asc", TYPES);
+        String otherSort = KeysetSupport.encode(Map.of("borrowDate", "2024-03-01T08:30:15", "id", "3"));
+        String indexCursor = KeysetSupport.encode(Map.of("title", "算法", "id", "3", KeysetSupport.SOURCE_KEY, "index"));
+
+        assertThatThrownBy(() -> KeysetSupport.position(otherSort, sort, TYPES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("分页游标与排序条件不匹配");
+        assertThatThrownBy(() -> KeysetSupport.position(indexCursor, sort, TYPES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("分页游标与当前查询不匹配");
+    }
+
+    @Test
+    void rejectsCursorValuesOfWrongType() {
+        Sort byBorrowDate = KeysetSupport.keysetSort("borrowDate", "asc", TYPES);
+        String badDate = KeysetSupport.encode(Map.of("borrowDate", "2024-13-45T99:00:00", "id", "3"));
+        String badId = KeysetSupport.encode(Map.of("borrowDate", "2024-03-01T08:30:15", "id", "三"));
+
+        assertThatThrownBy(() -> KeysetSupport.position(badDate, byBorrowDate, TYPES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("无效的分页游标");
+        assertThatThrownBy(() -> KeysetSupport.position(badId, byBorrowDate, TYPES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("无效的分页游标");
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.library.ratelimit;
+
+import com.example.library.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 哈希线程池排满时，挂起的登录请求不占用准入名额，图书查询照常放行；登录本身由哈希队列返回 503。
+ */
+class AdmissionControlFilterTest {
+
+    private static final int MAX_CONCURRENT = 2;
+    private static final int HASHER_QUEUE = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch hasherBusy = new CountDownLatch(1);
+    private final CountDownLatch hasherBlocked = new CountDownLatch(1);
+    private AdmissionControlFilter filter;
+    private PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        filter = new AdmissionControlFilter();
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxConcurrent", MAX_CONCURRENT);
+        ReflectionTestUtils.setField(filter, "maxWait", Duration.ofMillis(50));
+        filter.init();
+
+        hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(hasher, "strength", 4);
+        ReflectionTestUtils.setField(hasher, "threads", 1);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", HASHER_QUEUE);
+        ReflectionTestUtils.setField(hasher, "maxQueueWait", Duration.ofSeconds(10));
+        ReflectionTestUtils.invokeMethod(hasher, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        hasherBlocked.countDown();
+        ReflectionTestUtils.invokeMethod(hasher, "shutdown");
+    }
+
+    @Test
+    void saturatedHasherDoesNotRejectBookReads() throws Exception {
+        List<MockHttpServletResponse> logins = new ArrayList<>();
+        logins.add(login());
+        hasherBusy.await();
+        for (int i = 0; i < HASHER_QUEUE + 3; i++) {
+            logins.add(login());
+        }
+
+        // 1 个在算、HASHER_QUEUE 个排队，其余由哈希队列拒绝；没有一个被准入过滤器拒绝
+        assertThat(hasher.getStats()).containsEntry("queueDepth", HASHER_QUEUE);
+        assertThat(meterRegistry.get("library.password.queue_depth").gauge().value()).isEqualTo(HASHER_QUEUE);
+        assertThat(meterRegistry.get("library.password.tasks").tag("outcome", "rejected").functionCounter().count())
+                .isEqualTo(3);
+        assertThat(logins).extracting(MockHttpServletResponse::getStatus).doesNotContain(429);
+        assertThat(logins).filteredOn(response -> response.getStatus() == 503).hasSize(3);
+        assertThat(meterRegistry.get("library.admission.in_flight").gauge().value()).isZero();
+
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/" + i);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, (req, res) -> ((MockHttpServletResponse) res).setStatus(200));
+            assertThat(response.getStatus()).as("第 %d 次查询", i).isEqualTo(200);
+        }
+        assertThat(meterRegistry.get("library.admission.decisions").tag("outcome", "rejected").counter().count())
+                .isZero();
+    }
+
+    /**
+     * 模拟 AuthController.login：开启异步后把校验交给哈希线程池，请求线程立即返回；
+     * 哈希线程池唯一的线程卡在第一个请求上，直到测试结束。
+     */
+    private MockHttpServletResponse login() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            AsyncContext async = req.startAsync();
+            try {
+                CompletableFuture<Boolean> verified = hasher.matchesAsync(new BlockingPassword(), hasher.getDummyHash());
+                verified.whenComplete((matched, failure) -> async.complete());
+            } catch (RejectedExecutionException e) {
+                ((MockHttpServletResponse) res).setStatus(503);
+                async.complete();
+            }
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    /** 读取内容时等待测试结束，让哈希线程一直处于忙碌状态 */
+    private final class BlockingPassword implements CharSequence {
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            hasherBusy.countDown();
+            try {
+                hasherBlocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "password";
+        }
+    }
+}
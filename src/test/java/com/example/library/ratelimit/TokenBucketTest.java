@@ -0,0 +1,150 @@
+package com.example.library.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * GCRA 令牌桶的突发与补充：新桶可立即放行 burst 次，之后按 1 / rate 的间隔补充，
+ * 被拒绝的请求不消耗令牌且返回准确的等待时间；空闲再久也只累积 burst 个。时间由测试传入，不依赖真实时钟。
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenReportsWait() {
+        RateLimitTier tier = new RateLimitTier(10, 5);
+        long now = 123_456_789L;
+        TokenBucket bucket = new TokenBucket(tier, now);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(now)).as("第 %d 次", i + 1).isZero();
+        }
+        assertThat(bucket.tryAcquire(now)).isEqualTo(tier.getIntervalNanos());
+        // 被拒绝的请求不消耗令牌，等待时间随时间推移减少
+        assertThat(bucket.tryAcquire(now)).isEqualTo(tier.getIntervalNanos());
+        assertThat(bucket.tryAcquire(now + 40_000_000L)).isEqualTo(tier.getIntervalNanos() - 40_000_000L);
+
+        long refill = now + tier.getIntervalNanos();
+        assertThat(bucket.tryAcquire(refill)).isZero();
+        assertThat(bucket.tryAcquire(refill)).isEqualTo(tier.getIntervalNanos());
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToBurst() {
+        RateLimitTier tier = new RateLimitTier(2, 3);
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(tier, now);
+        drain(bucket, now);
+
+        long later = now + 3600 * SECOND;
+        assertThat(drain(bucket, later)).isEqualTo(3);
+
+        // 空闲一个半间隔只补充一个令牌
+        long partial = later + tier.getIntervalNanos() * 3 / 2;
+        assertThat(drain(bucket, partial)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(partial)).isEqualTo(tier.getIntervalNanos() / 2);
+    }
+
+    @Test
+    void sustainedRateIsLimitedToRatePlusBurst() {
+        RateLimitTier tier = new RateLimitTier(50, 20);
+        long start = 5 * SECOND;
+        TokenBucket bucket = new TokenBucket(tier, start);
+
+        // 以 4 倍速率请求 10 秒
+        int allowed = 0;
+        long step = tier.getIntervalNanos() / 4;
+        for (long t = start; t < start + 10 * SECOND; t += step) {
+            if (bucket.tryAcquire(t) == 0) {
+                allowed++;
+            }
+        }
+        assertThat(allowed).isBetween(20 + 500 - 1, 20 + 500);
+
+        // 恰好按速率请求时全部放行
+        TokenBucket steady = new TokenBucket(tier, start);
+        for (long t = start; t < start + 10 * SECOND; t += tier.getIntervalNanos()) {
+            assertThat(steady.tryAcquire(t)).isZero();
+        }
+    }
+
+    @Test
+    void survivesNanoTimeOverflow() {
+        RateLimitTier tier = new RateLimitTier(10, 2);
+        long now = Long.MAX_VALUE - tier.getIntervalNanos() / 2;
+        TokenBucket bucket = new TokenBucket(tier, now);
+
+        assertThat(drain(bucket, now)).isEqualTo(2);
+        long wait = bucket.tryAcquire(now);
+        assertThat(wait).isEqualTo(tier.getIntervalNanos());
+        long wrapped = now + wait;
+        assertThat(wrapped).isNegative();
+        assertThat(bucket.tryAcquire(wrapped)).isZero();
+        assertThat(bucket.tryAcquire(wrapped)).isEqualTo(tier.getIntervalNanos());
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedBurst() throws Exception {
+        int threads = 8;
+        RateLimitTier tier = new RateLimitTier(1, 100);
+        long now = 42;
+        TokenBucket bucket = new TokenBucket(tier, now);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int j = 0; j < 10_000; j++) {
+                        if (bucket.tryAcquire(now) == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get(1, TimeUnit.MINUTES);
+            }
+            assertThat(total).isEqualTo(100);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void tierDerivesIntervalAndTolerance() {
+        RateLimitTier tier = new RateLimitTier(3, 4);
+        assertThat(tier.getIntervalNanos()).isEqualTo(333_333_333L);
+        assertThat(tier.getToleranceNanos()).isEqualTo(3 * 333_333_333L);
+        assertThat(new RateLimitTier(0.2, 1).getIntervalNanos()).isEqualTo(5 * SECOND);
+        assertThat(new RateLimitTier(1e12, 1).getIntervalNanos()).isEqualTo(1);
+
+        assertThatThrownBy(() -> new RateLimitTier(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimitTier(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** 在同一时刻连续取令牌直到被拒绝，返回放行次数 */
+    private static int drain(TokenBucket bucket, long now) {
+        int allowed = 0;
+        while (bucket.tryAcquire(now) == 0) {
+            allowed++;
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.library.search;
+
+import com.example.library.dto.FacetCount;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 分面位图的筛选与计数与逐个文档扫描对照。命中集合大小跨过“取值个数 × 2048”的阈值，
+ * 两种计数路径（逐个取值求交、扫描命中集合）都会走到；统计某字段时不应用该字段自身的筛选；
+ * 删除文档后计数同步减少，删光的取值不再出现。
+ */
+class BookFacetsTest {
+
+    private static final int DOCS = 30_000;
+    private static final FacetField[] FIELDS = FacetField.values();
+    private static final String[][] VALUES = {
+        { "计算机", "文学", "历史", "经济" },
+        { "中文", "English" },
+        { "机械工业出版社", "人民邮电出版社", "电子工业出版社", "O'Reilly", "Addison-Wesley", "中华书局" },
+        { "2018", "2019", "2020", "2021", "2022", "2023", "2024" },
+        { "AVAILABLE", "ARCHIVED" },
+    };
+    private static final Comparator<FacetCount> BY_COUNT = Comparator.comparingInt(FacetCount::getCount).reversed()
+            .thenComparing(FacetCount::getValue);
+
+    private final Random random = new Random(20);
+    private final String[][] docs = new String[DOCS][];
+    private final boolean[] live = new boolean[DOCS];
+    private final BookFacets facets = new BookFacets();
+
+    @Test
+    void countsMatchFullScan() {
+        populate();
+        FacetFilter byCategory = FacetFilter.parse(List.of("category:计算机", "category:历史"));
+        FacetFilter byCategoryAndYear = FacetFilter.parse(
+                List.of("category:计算机", "publishYear:2020", "publishYear:2024", "language:English"));
+        FacetFilter unknownValue = FacetFilter.parse(List.of("publisher:不存在的出版社"));
+
+        for (FacetFilter filter : List.of(FacetFilter.NONE, byCategory, byCategoryAndYear, unknownValue)) {
+            for (RoaringBitmap textHits : textHitSamples()) {
+                assertCounts(textHits, filter, 20);
+                assertCounts(textHits, filter, 2);
+                if (!filter.isEmpty()) {
+                    assertSelect(textHits, filter);
+                }
+            }
+        }
+    }
+
+    @Test
+    void removedDocumentsLeaveCountsAndValues() {
+        populate();
+        // 删除全部 2018 年的图书与三分之一的其他图书
+        int yearField = FacetField.PUBLISH_YEAR.ordinal();
+        for (int doc = 0; doc < DOCS; doc++) {
+            if ("2018".equals(docs[doc][yearField]) || doc % 3 == 0) {
+                facets.remove(doc);
+                live[doc] = false;
+            }
+        }
+        facets.optimize();
+
+        Map<String, List<FacetCount>> counts = facets.count(null, FacetFilter.NONE,
+                EnumSet.of(FacetField.PUBLISH_YEAR), 20);
+        assertThat(counts.get("publishYear")).extracting(FacetCount::getValue).doesNotContain("2018");
+        assertCounts(null, FacetFilter.NONE, 20);
+        assertCounts(sample(0.001), FacetFilter.parse(List.of("status:ARCHIVED")), 20);
+        assertSelect(sample(0.5), FacetFilter.parse(List.of("publishYear:2018", "publishYear:2019")));
+
+        // 删光后重新加入的取值获得新编号，计数从零开始
+        facets.add(0, new String[] { null, null, null, "2018", null });
+        live[0] = true;
+        docs[0] = new String[] { null, null, null, "2018", null };
+        assertCounts(null, FacetFilter.NONE, 20);
+        assertThat(facets.values(0)).containsExactly(null, null, null, "2018", null);
+    }
+
+    @Test
+    void parsesFilters() {
+        FacetFilter filter = FacetFilter.parse(List.of("Category: 计算机 ", "publishYear:02020", "category:文学"));
+
+        assertThat(filter.getSelected().get(FacetField.CATEGORY)).containsExactly("计算机", "文学");
+        assertThat(filter.getSelected().get(FacetField.PUBLISH_YEAR)).containsExactly("2020");
+        assertThat(FacetFilter.parse(null)).isSameAs(FacetFilter.NONE);
+        assertThatThrownBy(() -> FacetFilter.parse(List.of("category:")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FacetFilter.parse(List.of("publishYear:二〇二〇")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("出版年份");
+        assertThatThrownBy(() -> FacetFilter.parse(List.of("isbn:123")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("isbn");
+    }
+
+    /** 部分文档缺少某些字段的取值 */
+    private void populate() {
+        for (int doc = 0; doc < DOCS; doc++) {
+            String[] values = new String[FIELDS.length];
+            for (int f = 0; f < FIELDS.length; f++) {
+                if (random.nextInt(10) > 0) {
+                    // 偏斜分布，计数各不相同
+                    int bound = 1 + random.nextInt(VALUES[f].length);
+                    values[f] = VALUES[f][random.nextInt(bound)];
+                }
+            }
+            docs[doc] = values;
+            live[doc] = true;
+            facets.add(doc, values);
+        }
+        facets.optimize();
+    }
+
+    /** 没有文本条件、极少命中（扫描命中集合）和大部分命中（逐个取值求交） */
+    private List<RoaringBitmap> textHitSamples() {
+        List<RoaringBitmap> samples = new ArrayList<>();
+        samples.add(null);
+        samples.add(new RoaringBitmap());
+        samples.add(sample(0.002));
+        samples.add(sample(0.9));
+        samples.add(RoaringBitmap.bitmapOf(IntStream.range(1000, 9000).toArray()));
+        return samples;
+    }
+
+    private RoaringBitmap sample(double fraction) {
+        RoaringBitmap hits = new RoaringBitmap();
+        for (int doc = 0; doc < DOCS; doc++) {
+            if (live[doc] && random.nextDouble() < fraction) {
+                hits.add(doc);
+            }
+        }
+        return hits;
+    }
+
+    private void assertCounts(RoaringBitmap textHits, FacetFilter filter, int limit) {
+        Map<String, List<FacetCount>> actual = facets.count(textHits, filter, EnumSet.allOf(FacetField.class), limit);
+
+        assertThat(actual.keySet()).containsExactly(
+                IntStream.range(0, FIELDS.length).mapToObj(f -> FIELDS[f].getParamName()).toArray(String[]::new));
+        for (FacetField field : FIELDS) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (int doc = 0; doc < DOCS; doc++) {
+                String value = docs[doc][field.ordinal()];
+                if (value != null && inScope(doc, textHits) && matches(doc, filter, field)) {
+                    counts.merge(value, 1, Integer::sum);
+                }
+            }
+            List<FacetCount> expected = new ArrayList<>();
+            counts.forEach((value, count) -> expected.add(new FacetCount(value, count)));
+            expected.sort(BY_COUNT);
+
+            assertThat(actual.get(field.getParamName()))
+                    .as("%s, 命中 %s", field.getParamName(), textHits == null ? "不限" : textHits.getCardinality())
+                    .extracting(count -> count.getValue() + "=" + count.getCount())
+                    .containsExactlyElementsOf(expected.subList(0, Math.min(limit, expected.size())).stream()
+                            .map(count -> count.getValue() + "=" + count.getCount())
+                            .toList());
+        }
+    }
+
+    private void assertSelect(RoaringBitmap textHits, FacetFilter filter) {
+        IntPredicate selected = doc -> inScope(doc, textHits) && matches(doc, filter, null);
+        assertThat(facets.select(textHits, filter))
+                .containsExactly(IntStream.range(0, DOCS).filter(selected).toArray());
+    }
+
+    private boolean inScope(int doc, RoaringBitmap textHits) {
+        return live[doc] && (textHits == null || textHits.contains(doc));
+    }
+
+    /** 同一字段内为“或”，字段之间为“与”，跳过 except 字段 */
+    private boolean matches(int doc, FacetFilter filter, FacetField except) {
+        for (Map.Entry<FacetField, Set<String>> entry : filter.getSelected().entrySet()) {
+            if (entry.getKey() != except && !entry.getValue().contains(docs[doc][entry.getKey().ordinal()])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 索引内部结构与朴素实现对照：{@link PostingList} 的交集（含长度悬殊时的指数搜索）和并集与 TreeSet 结果一致；
+ * 几千本图书的倒排索引在删除触发压缩前后，每个查询的命中都与逐本 contains 相同。
+ * 与数据库查询语义的一致性由 {@link BookSearchIndexTest} 验证。
+ */
+class BookInvertedIndexTest {
+
+    private static final String[] WORDS = {
+        "Java", "java", "编程", "算法", "数据", "结构", "系统", "设计", "Spring", "实战", "入门", "指南", "a", "程"
+    };
+
+    private static final String[] QUERIES = {
+        "java", "JAVA", "a", "j", "编", "程", "编程", "程编", "算法数据", "数据结构", "spring 实战", "va编", "zz", "指南a"
+    };
+
+    private final Random random = new Random(42);
+
+    @Test
+    void intersectAndUnionMatchSortedSets() {
+        for (int round = 0; round < 200; round++) {
+            // 每隔一轮让两边长度相差 16 倍以上，走指数搜索分支
+            int[] a = sortedDistinct(1 + random.nextInt(20), 1000);
+            int[] b = sortedDistinct(round % 2 == 0 ? 400 + random.nextInt(400) : 1 + random.nextInt(40), 1000);
+
+            TreeSet<Integer> both = toSet(a);
+            both.retainAll(toSet(b));
+            TreeSet<Integer> either = toSet(a);
+            either.addAll(toSet(b));
+
+            int[] out = new int[a.length + b.length];
+            int n = PostingList.intersect(a, a.length, b, b.length, out);
+            assertThat(Arrays.copyOf(out, n)).containsExactly(toArray(both));
+            n = PostingList.intersect(b, b.length, a, a.length, out);
+            assertThat(Arrays.copyOf(out, n)).containsExactly(toArray(both));
+            n = PostingList.union(a, a.length, b, b.length, out);
+            assertThat(Arrays.copyOf(out, n)).containsExactly(toArray(either));
+        }
+    }
+
+    @Test
+    void matchesContainsBeforeAndAfterCompaction() {
+        Map<Long, String> titles = new LinkedHashMap<>();
+        BookInvertedIndex index = new BookInvertedIndex();
+        for (long id = 1; id <= 3000; id++) {
+            String title = randomTitle();
+            titles.put(id, title);
+            index.upsert(book(id, title));
+        }
+        assertMatchesContains(index, titles);
+
+        // 改名的图书换到新序号，旧序号成为已删除
+        for (long id = 1; id <= 3000; id += 7) {
+            String title = randomTitle();
+            titles.put(id, title);
+            index.upsert(book(id, title));
+        }
+        List<Long> removed = new ArrayList<>();
+        for (long id = 2; id <= 3000; id += 3) {
+            assertThat(index.remove(id)).isTrue();
+            titles.remove(id);
+            removed.add(id);
+        }
+        assertThat(index.remove(removed.get(0))).isFalse();
+        assertThat(index.liveCount()).isEqualTo(titles.size());
+        assertMatchesContains(index, titles);
+
+        assertThat(index.needsCompaction()).isTrue();
+        BookInvertedIndex compacted = index.compact();
+        assertThat(compacted.liveCount()).isEqualTo(titles.size());
+        assertThat(compacted.needsCompaction()).isFalse();
+        assertMatchesContains(compacted, titles);
+    }
+
+    private void assertMatchesContains(BookInvertedIndex index, Map<Long, String> titles) {
+        for (String raw : QUERIES) {
+            String query = BookInvertedIndex.normalize(raw);
+            List<Long> expected = titles.entrySet().stream()
+                    .filter(entry -> BookInvertedIndex.normalize(entry.getValue()).contains(query))
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .toList();
+            List<Long> actual = Arrays.stream(index.match(SearchField.TITLE, query))
+                    .mapToObj(index::id)
+                    .sorted()
+                    .toList();
+            assertThat(actual).as("查询 %s", raw).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private String randomTitle() {
+        StringBuilder title = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            if (i > 0 && random.nextBoolean()) {
+                title.append(' ');
+            }
+            title.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    private int[] sortedDistinct(int count, int bound) {
+        return random.ints(0, bound).distinct().limit(Math.min(count, bound)).sorted().toArray();
+    }
+
+    private static TreeSet<Integer> toSet(int[] values) {
+        TreeSet<Integer> set = new TreeSet<>();
+        IntStream.of(values).forEach(set::add);
+        return set;
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static Book book(long id, String title) {
+        Book book = new Book("INV-" + id, title, "Author " + id % 50, "Publisher " + id % 7, 2000, 1.0, 1, null);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import com.example.library.service.BookService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 倒排索引检索与 findByMultipleConditions 的结果一致性：同一组条件下两边命中的图书 ID 必须相同。
+ * 覆盖单字（短于 bigram 长度，走 unigram）、bigram 全部存在但不连续、大小写混合、多字段 AND 和 ISBN 精确匹配；
+ * 再通过 {@link BookService} 新增、修改、删除图书，验证 BookChangedEvent 增量更新后的索引仍与数据库一致。
+ * 其他测试类共用同一个库，比较时只看本类按 ISBN 前缀插入的图书。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookSearchIndexTest {
+
+    private static final String CATALOGUE = "IDX-";
+    private static final String EVENTS = "EVT-";
+    private static final Pageable ALL_BY_ID = PageRequest.of(0, 10_000, Sort.by("id"));
+
+    private static final String[][] BOOKS = {
+        { "IDX-01", "Java 编程思想", "Bruce Eckel", "机械工业出版社" },
+        { "IDX-02", "JAVA 并发编程实战", "Brian Goetz", "机械工业出版社" },
+        { "IDX-03", "JavaScript 高级程序设计", "Nicholas C. Zakas", "人民邮电出版社" },
+        { "IDX-04", "Effective Java", "Joshua Bloch", "Addison-Wesley" },
+        { "IDX-05", "深入理解计算机系统", "Randal E. Bryant", "机械工业出版社" },
+        { "IDX-06", "算法导论", "Thomas H. Cormen", "机械工业出版社" },
+        { "IDX-07", "算法", "Robert Sedgewick", "人民邮电出版社" },
+        { "IDX-08", "Python 编程 从入门到实践", "Eric Matthes", "人民邮电出版社" },
+        { "IDX-09", "Fab Bcd Notes", "O'Reilly Staff", "O'Reilly Media" },
+        { "IDX-10", "设计模式", "Erich Gamma", "Addison-Wesley" },
+        { "IDX-11", "代码大全", "Steve McConnell", "电子工业出版社" },
+        { "IDX-12", "编程珠玑", "Jon Bentley", "人民邮电出版社" },
+    };
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void insertCatalogue() {
+        List<Object[]> rows = new ArrayList<>();
+        for (String[] book : BOOKS) {
+            rows.add(book);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (isbn, title, author, publisher, publish_year, price, "
+                + "stock_quantity) VALUES (?, ?, ?, ?, 2024, 1.0, 1)", rows);
+        // JDBC 写入不发事件，重建后索引才包含这些图书
+        bookSearchIndex.rebuild();
+    }
+
+    @ParameterizedTest(name = "title={0} author={1} publisher={2} isbn={3}")
+    @CsvSource(delimiter = '|', quoteCharacter = '"', textBlock = """
+        java      |          |               |        | 4
+        JAVA      |          |               |        | 4
+        jAvA      |          |               |        | 4
+        j         |          |               |        | 4
+        a         |          |               |        | 5
+        编        |          |               |        | 4
+        算        |          |               |        | 3
+        算法导论  |          |               |        | 1
+        编程思    |          |               |        | 1
+        abc       |          |               |        | 0
+        程编      |          |               |        | 0
+        xyz       |          |               |        | 0
+                  | b        |               |        | 6
+                  | B        |               |        | 6
+                  | BLOCH    |               |        | 1
+                  |          | o'reilly      |        | 1
+                  | e        | 出版社        |        | 8
+        编程      |          | 人民邮电      |        | 2
+        java      | bloch    |               |        | 1
+        java      |          | 机械          |        | 2
+        ""        | ""       | 机械工业出版社 |        | 4
+                  |          |               |        | 12
+                  |          |               | IDX-06 | 1
+        java      |          |               | IDX-06 | 0
+                  |          |               | idx-06 | 0
+        """)
+    void matchesFindByMultipleConditions(String title, String author, String publisher, String isbn, int hits) {
+        assertSameHits(CATALOGUE, title, author, publisher, isbn, hits);
+    }
+
+    @Test
+    void followsBookChangedEvents() {
+        Book kotlin = bookService.saveBook(
+                new Book("EVT-1", "Kotlin 实战", "Dmitry Jemerov", "电子工业出版社", 2017, 89.0, 3, null));
+        Book guide = bookService.saveBook(
+                new Book("EVT-2", "Kotlin 编程权威指南", "Josh Skeen", "人民邮电出版社", 2019, 79.0, 2, null));
+
+        assertSameHits(EVENTS, "kotlin", null, null, null, 2);
+        assertSameHits(EVENTS, "K", null, null, null, 2);
+        assertSameHits(EVENTS, null, "j", null, null, 2);
+
+        bookService.updateBook(kotlin.getId(),
+                new Book("EVT-1", "Scala 实战", "Dmitry Jemerov", "电子工业出版社", 2017, 89.0, 3, null),
+                kotlin.getVersion());
+
+        assertSameHits(EVENTS, "kotlin", null, null, null, 1);
+        assertSameHits(EVENTS, "SCALA", null, null, null, 1);
+        assertSameHits(EVENTS, "实战", null, null, null, 1);
+
+        bookService.deleteBook(guide.getId());
+
+        assertSameHits(EVENTS, "kotlin", null, null, null, 0);
+        assertSameHits(EVENTS, null, "josh", null, null, 0);
+        assertSameHits(EVENTS, null, null, null, "EVT-2", 0);
+        assertSameHits(EVENTS, null, null, null, null, 1);
+    }
+
+    /**
+     * 两边都只保留 ISBN 以 prefix 开头的图书后按 ID 比较，并确认命中数与预期一致，避免两边同时为空也算通过。
+     */
+    private void assertSameHits(String prefix, String title, String author, String publisher, String isbn,
+                                int hits) {
+        Set<Long> fixture = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM books WHERE isbn LIKE ?", Long.class, prefix + "%"));
+        List<Long> expected = bookRepository.findByMultipleConditions(title, author, publisher, isbn, ALL_BY_ID)
+                .map(Book::getId)
+                .filter(fixture::contains)
+                .toList();
+        List<Long> actual = bookSearchIndex.search(null, title, author, publisher, isbn, ALL_BY_ID)
+                .filter(fixture::contains)
+                .toList();
+
+        assertThat(expected).as("findByMultipleConditions 命中数").hasSize(hits);
+        assertThat(actual).as("索引检索结果").containsExactlyElementsOf(expected);
+    }
+}
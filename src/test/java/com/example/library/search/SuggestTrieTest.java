@@ -0,0 +1,174 @@
+package com.example.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 联想词前缀树的 top-k 与逐条扫描对照：热度上升（add）、下降（refresh）与删除交错进行，
+ * 每个前缀（包括停在压缩边中间的前缀）取出的词条和顺序都要与按 BY_POPULARITY 排序的全量结果一致；
+ * 以及 {@link PinyinKeys} 生成的单词后缀、全拼与首字母检索键。
+ */
+class SuggestTrieTest {
+
+    private static final int CAPACITY = 5;
+    private static final String[] KEYS = {
+        "java", "javascript", "java 编程思想", "jvm", "shujujiegou", "sjjg", "shuju", "shujuku", "sedgewick",
+        "robert sedgewick", "spring", "spring boot", "springer", "s", "编程", "编程珠玑", "编译原理"
+    };
+
+    @Test
+    void returnsTopEntriesByPopularity() {
+        SuggestTrie trie = new SuggestTrie(CAPACITY);
+        SuggestEntry java = entry("Java", 30);
+        SuggestEntry javascript = entry("JavaScript", 50);
+        SuggestEntry jvm = entry("JVM", 10);
+        trie.add("java", java);
+        trie.add("javascript", javascript);
+        trie.add("jvm", jvm);
+
+        assertThat(trie.top("j", 10)).containsExactly(javascript, java, jvm);
+        assertThat(trie.top("jav", 10)).containsExactly(javascript, java);
+        assertThat(trie.top("javas", 1)).containsExactly(javascript);
+        assertThat(trie.top("", 2)).containsExactly(javascript, java);
+        assertThat(trie.top("javax", 10)).isEmpty();
+        assertThat(trie.top("k", 10)).isEmpty();
+
+        jvm.addPopularity(100);
+        trie.add("jvm", jvm);
+        assertThat(trie.top("j", 10)).containsExactly(jvm, javascript, java);
+
+        javascript.addPopularity(-45);
+        trie.refresh("javascript");
+        assertThat(trie.top("j", 10)).containsExactly(jvm, java, javascript);
+
+        trie.remove("jvm", jvm);
+        assertThat(trie.top("j", 10)).containsExactly(java, javascript);
+        assertThat(trie.top("jv", 10)).isEmpty();
+    }
+
+    @Test
+    void sameEntryUnderSeveralKeysIsListedOnce() {
+        SuggestTrie trie = new SuggestTrie(CAPACITY);
+        SuggestEntry book = entry("数据结构", 5);
+        for (String key : List.of("数据结构", "shujujiegou", "sjjg")) {
+            trie.add(key, book);
+        }
+
+        assertThat(trie.top("s", 10)).containsExactly(book);
+        assertThat(trie.top("数据", 10)).containsExactly(book);
+
+        trie.remove("sjjg", book);
+        assertThat(trie.top("sj", 10)).isEmpty();
+        assertThat(trie.top("s", 10)).containsExactly(book);
+    }
+
+    @Test
+    void matchesFullScanOverRandomUpdates() {
+        Random random = new Random(19);
+        SuggestTrie trie = new SuggestTrie(CAPACITY);
+        Map<String, Set<SuggestEntry>> byKey = new HashMap<>();
+        List<SuggestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            entries.add(entry("entry-" + i, random.nextInt(20)));
+        }
+
+        for (int step = 0; step < 3000; step++) {
+            SuggestEntry entry = entries.get(random.nextInt(entries.size()));
+            String key = KEYS[random.nextInt(KEYS.length)];
+            int op = random.nextInt(10);
+            if (op < 5) {
+                entry.addPopularity(random.nextInt(5));
+                byKey.computeIfAbsent(key, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(entry);
+                // 热度上升：沿该词条的每个检索键重新排序
+                for (Map.Entry<String, Set<SuggestEntry>> registered : byKey.entrySet()) {
+                    if (registered.getValue().contains(entry)) {
+                        trie.add(registered.getKey(), entry);
+                    }
+                }
+            } else if (op < 8) {
+                entry.addPopularity(-Math.min(entry.getPopularity(), random.nextInt(5)));
+                for (Map.Entry<String, Set<SuggestEntry>> registered : byKey.entrySet()) {
+                    if (registered.getValue().contains(entry)) {
+                        trie.refresh(registered.getKey());
+                    }
+                }
+            } else {
+                Set<SuggestEntry> registered = byKey.get(key);
+                if (registered != null) {
+                    registered.remove(entry);
+                }
+                trie.remove(key, entry);
+            }
+            if (step % 10 == 0) {
+                assertAllPrefixes(trie, byKey);
+            }
+        }
+        assertAllPrefixes(trie, byKey);
+    }
+
+    @Test
+    void pinyinKeysCoverWordSuffixesFullPinyinAndInitials() {
+        assertThat(PinyinKeys.keysFor("Robert  Sedgewick"))
+                .containsExactly("robert sedgewick", "sedgewick");
+        assertThat(PinyinKeys.keysFor("数据结构")).contains("数据结构", "shujujiegou", "sjjg");
+        assertThat(PinyinKeys.keysFor("ＪＡＶＡ 编程"))
+                .contains("java 编程", "编程", "javabiancheng", "jbc");
+        assertThat(PinyinKeys.keysFor("银行")).contains("yinhang", "yinxing", "yh", "yx");
+        assertThat(PinyinKeys.keysFor("   ")).isEmpty();
+        assertThat(PinyinKeys.normalizeQuery("  Spring\t Boot ")).isEqualTo("spring boot");
+    }
+
+    @Test
+    void pinyinVariantsAreCapped() {
+        // 每个字都是多音字，组合数远超上限
+        Set<String> keys = PinyinKeys.keysFor("重行长乐和");
+
+        assertThat(keys).hasSizeLessThanOrEqualTo(1 + 2 * PinyinKeys.MAX_PINYIN_VARIANTS);
+        assertThat(keys).as("常用读音的组合总是保留").contains("重行长乐和", "zhongxingzhanglehe", "zxzlh");
+        assertThat(PinyinKeys.keysFor("重行长乐和重行长乐和重行长乐和"))
+                .hasSizeLessThanOrEqualTo(1 + 2 * PinyinKeys.MAX_PINYIN_VARIANTS);
+    }
+
+    private static void assertAllPrefixes(SuggestTrie trie, Map<String, Set<SuggestEntry>> byKey) {
+        Set<String> prefixes = new HashSet<>();
+        prefixes.add("");
+        for (String key : KEYS) {
+            for (int i = 1; i <= key.length(); i++) {
+                prefixes.add(key.substring(0, i));
+            }
+        }
+        prefixes.add("zz");
+        for (String prefix : prefixes) {
+            Set<SuggestEntry> matching = Collections.newSetFromMap(new IdentityHashMap<>());
+            byKey.forEach((key, entries) -> {
+                if (key.startsWith(prefix)) {
+                    matching.addAll(entries);
+                }
+            });
+            List<SuggestEntry> expected = new ArrayList<>(matching);
+            expected.sort(SuggestEntry.BY_POPULARITY);
+            for (int limit : new int[] { 1, 3, CAPACITY }) {
+                assertThat(trie.top(prefix, limit))
+                        .as("前缀 \"%s\" 取前 %d 个", prefix, limit)
+                        .containsExactlyElementsOf(expected.subList(0, Math.min(limit, expected.size())));
+            }
+        }
+    }
+
+    private static SuggestEntry entry(String text, long popularity) {
+        SuggestEntry entry = new SuggestEntry(SearchField.TITLE, text);
+        entry.addPopularity(popularity);
+        return entry;
+    }
+}
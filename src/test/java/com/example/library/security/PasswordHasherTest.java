@@ -0,0 +1,68 @@
+package com.example.library.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(hasher, "strength", 4);
+        ReflectionTestUtils.setField(hasher, "threads", 2);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", 8);
+        ReflectionTestUtils.setField(hasher, "maxQueueWait", Duration.ofSeconds(10));
+        hasher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void rejectsCostOutsideRange() {
+        assertThatThrownBy(() -> hasher.setStrength(PasswordHasher.MIN_STRENGTH - 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hasher.setStrength(PasswordHasher.MAX_STRENGTH + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hasher.setStrength(31))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(hasher.getStrength()).isEqualTo(4);
+    }
+
+    @Test
+    void switchesEncoderAndDummyHashTogether() {
+        hasher.setStrength(5).join();
+
+        assertThat(hasher.getStrength()).isEqualTo(5);
+        assertThat(hasher.getDummyHash()).startsWith("$2a$05$");
+        assertThat(hasher.encode("secret")).startsWith("$2a$05$");
+        assertThat(hasher.upgradeEncoding("$2a$04$" + "x".repeat(53))).isTrue();
+        assertThat(hasher.upgradeEncoding(hasher.getDummyHash())).isFalse();
+    }
+
+    @Test
+    void laterRequestWinsWhenEarlierOneFinishesLast() {
+        // cost 8 的占位哈希比 cost 4 慢得多，两个线程并行计算时后提交的先完成
+        CompletableFuture<Void> slower = hasher.setStrength(8);
+        CompletableFuture<Void> faster = hasher.setStrength(4);
+        faster.join();
+        slower.join();
+
+        assertThat(hasher.getStrength()).isEqualTo(4);
+        assertThat(hasher.getDummyHash()).startsWith("$2a$04$");
+    }
+}
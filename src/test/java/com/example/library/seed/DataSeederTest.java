@@ -0,0 +1,79 @@
+package com.example.library.seed;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 同一个 random-seed 在不同并行度下生成的借阅记录相同：哪些记录保持在借、哪些已归还不随任务调度变化；
+ * 热门图书的在借数不超过库存，扣减后 stock_quantity + borrowed_quantity 等于原库存。
+ * 使用独立的内存库，不影响其他测试的数据。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:seedtest;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class DataSeederTest {
+
+    private static final int BOOKS = 200;
+
+    @Autowired
+    private DataSeeder dataSeeder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void borrowingsDependOnlyOnRandomSeed() {
+        ReflectionTestUtils.setField(dataSeeder, "books", BOOKS);
+        ReflectionTestUtils.setField(dataSeeder, "readers", 30);
+        ReflectionTestUtils.setField(dataSeeder, "borrowings", 20_000);
+        ReflectionTestUtils.setField(dataSeeder, "batchSize", 250);
+        ReflectionTestUtils.setField(dataSeeder, "popularitySkew", 1.2);
+        // 大部分借阅未到期，热门图书的在借数一定会碰到库存上限
+        ReflectionTestUtils.setField(dataSeeder, "historyDays", 40);
+
+        List<String> sequential = seedWithParallelism(1);
+        List<String> parallel = seedWithParallelism(8);
+
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(sequential).anyMatch(row -> row.endsWith("|BORROWED"));
+        assertThat(sequential).anyMatch(row -> row.endsWith("|OVERDUE"));
+
+        Integer capped = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE stock_quantity = 0", Integer.class);
+        assertThat(capped).as("库存被借光的图书数").isPositive();
+        Integer negative = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE stock_quantity < 0", Integer.class);
+        assertThat(negative).isZero();
+        Integer mismatched = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books b "
+                + "WHERE b.stock_quantity + b.borrowed_quantity <> b.total_quantity OR b.borrowed_quantity <> "
+                + "(SELECT COUNT(*) FROM borrowings br WHERE br.book_id = b.id AND br.status <> 'RETURNED')",
+                Integer.class);
+        assertThat(mismatched).isZero();
+    }
+
+    /**
+     * 清空图书和借阅后重新生成（读者已存在则复用），返回按内容排序的借阅记录与各图书库存。
+     */
+    private List<String> seedWithParallelism(int parallelism) {
+        jdbcTemplate.update("DELETE FROM borrowings");
+        jdbcTemplate.update("DELETE FROM books");
+        ReflectionTestUtils.setField(dataSeeder, "parallelism", parallelism);
+        dataSeeder.seed();
+
+        List<String> rows = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT b.isbn || '|' || u.username || '|' || br.status FROM borrowings br "
+                        + "JOIN books b ON b.id = br.book_id JOIN users u ON u.id = br.user_id ORDER BY 1",
+                String.class));
+        rows.addAll(jdbcTemplate.queryForList(
+                "SELECT isbn || '|' || stock_quantity || '|' || borrowed_quantity FROM books ORDER BY isbn",
+                String.class));
+        return rows;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.library.seed;
+
+import com.example.library.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 合成数据的两个前提：ISBN 按序号唯一、校验位正确且能还原序号（重复执行种子数据不会撞号）；
+ * Zipf 抽样的频率符合 1 / k^s，排名经置换后覆盖整个区间且最热门的不是序号 0。
+ */
+class SyntheticCatalogueTest {
+
+    @Test
+    void isbnsAreUniqueValidAndReversible() {
+        Set<String> seen = new HashSet<>();
+        for (int index = 0; index < 200_000; index++) {
+            String isbn = SyntheticCatalogue.isbn(index);
+            assertThat(seen.add(isbn)).as("序号 %d 的 ISBN 重复: %s", index, isbn).isTrue();
+            assertThat(SyntheticCatalogue.indexOf(isbn)).isEqualTo(index);
+        }
+        for (int index : new int[] { 999_999, 1_000_000, 123_456_789, SyntheticCatalogue.MAX_BOOKS - 1 }) {
+            String isbn = SyntheticCatalogue.isbn(index);
+            assertThat(isbn).matches("979-\\d-\\d{4}-\\d{4}-\\d");
+            assertThat(isValidIsbn13(isbn)).as(isbn).isTrue();
+            assertThat(SyntheticCatalogue.indexOf(isbn)).isEqualTo(index);
+        }
+        assertThat(SyntheticCatalogue.isbn(0)).isEqualTo("979-0-0000-0000-" + checkDigit("979000000000"));
+    }
+
+    @Test
+    void indexOfRejectsOtherIsbns() {
+        String isbn = SyntheticCatalogue.isbn(42);
+        char check = isbn.charAt(isbn.length() - 1);
+        String wrongCheck = isbn.substring(0, isbn.length() - 1) + (char) ('0' + (check - '0' + 1) % 10);
+
+        assertThat(SyntheticCatalogue.indexOf(wrongCheck)).isEqualTo(-1);
+        assertThat(SyntheticCatalogue.indexOf("978" + isbn.substring(3))).isEqualTo(-1);
+        assertThat(SyntheticCatalogue.indexOf("979-7-111-21382-6")).isEqualTo(-1);
+        assertThat(SyntheticCatalogue.indexOf("979-x-0000-0042-0")).isEqualTo(-1);
+        assertThat(SyntheticCatalogue.indexOf(isbn + "0")).isEqualTo(-1);
+        assertThat(SyntheticCatalogue.indexOf(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void booksDependOnlyOnSeedAndIndex() {
+        SyntheticCatalogue catalogue = new SyntheticCatalogue(7);
+        SyntheticCatalogue same = new SyntheticCatalogue(7);
+        SyntheticCatalogue other = new SyntheticCatalogue(8);
+
+        int differing = 0;
+        for (int index = 1000; index > 0; index--) {
+            Book book = catalogue.book(index);
+            Book again = same.book(index);
+            assertThat(again).usingRecursiveComparison().isEqualTo(book);
+            assertThat(book.getIsbn()).isEqualTo(SyntheticCatalogue.isbn(index));
+            assertThat(book.getStockQuantity()).isEqualTo(catalogue.stock(index)).isBetween(0, 99);
+            assertThat(book.getTotalQuantity()).isEqualTo(book.getStockQuantity());
+            assertThat(book.getLanguage()).isIn("中文", "英文");
+
+            Book reseeded = other.book(index);
+            assertThat(reseeded.getIsbn()).isEqualTo(book.getIsbn());
+            if (!reseeded.getTitle().equals(book.getTitle()) || !reseeded.getPrice().equals(book.getPrice())) {
+                differing++;
+            }
+        }
+        assertThat(differing).as("换种子后内容不同").isGreaterThan(900);
+    }
+
+    @Test
+    void zipfFrequenciesFollowRank() {
+        int n = 1000;
+        int samples = 400_000;
+        ZipfSampler sampler = new ZipfSampler(n, 1.0);
+        SplittableRandom random = new SplittableRandom(21);
+        int[] counts = new int[n];
+        for (int i = 0; i < samples; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        double harmonic = 0;
+        for (int k = 1; k <= n; k++) {
+            harmonic += 1.0 / k;
+        }
+        int[] sorted = Arrays.stream(counts).sorted().toArray();
+        double top = sorted[n - 1] / (double) samples;
+        double second = sorted[n - 2] / (double) samples;
+        double tenth = sorted[n - 10] / (double) samples;
+        assertThat(top).isCloseTo(1 / harmonic, within(0.01));
+        assertThat(second).isCloseTo(1 / (2 * harmonic), within(0.01));
+        assertThat(tenth).isCloseTo(1 / (10 * harmonic), within(0.005));
+        assertThat(counts[0]).as("最热门的不落在序号 0").isLessThan(sorted[n - 1]);
+    }
+
+    @Test
+    void uniformExponentCoversEveryIndexEvenly() {
+        for (int n : new int[] { 1, 2, 7, 97, 1000 }) {
+            ZipfSampler sampler = new ZipfSampler(n, 0.0);
+            SplittableRandom random = new SplittableRandom(n);
+            int[] counts = new int[n];
+            int samples = n * 200;
+            for (int i = 0; i < samples; i++) {
+                int index = sampler.sample(random);
+                assertThat(index).isBetween(0, n - 1);
+                counts[index]++;
+            }
+            assertThat(Arrays.stream(counts).min().getAsInt()).as("n=%d 时每个序号都被抽到", n).isGreaterThan(100);
+        }
+        assertThatThrownBy(() -> new ZipfSampler(0, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static boolean isValidIsbn13(String isbn) {
+        String digits = isbn.replace("-", "");
+        return digits.length() == 13 && checkDigit(digits.substring(0, 12)) == digits.charAt(12) - '0';
+    }
+
+    private static int checkDigit(String first12) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (first12.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import com.example.library.model.Borrowing;
+import com.example.library.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 管理员读取图书后、提交修改前有读者借走一本：按读取时的版本号更新应被拒绝，
+ * 库存不被表单里的旧值覆盖，stock_quantity + borrowed_quantity 保持不变；重新读取后再提交才生效。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BookUpdateConflictTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void staleVersionDoesNotOverwriteStockChangedByBorrowing() {
+        Book loaded = bookService.saveBook(
+                new Book("UPDATE-1", "重构", "Martin Fowler", "人民邮电出版社", 2019, 99.0, 3, null));
+        long staleVersion = loaded.getVersion();
+        borrow(loaded.getId());
+
+        Book form = new Book("UPDATE-1", "重构（第2版）", "Martin Fowler", "人民邮电出版社", 2019, 99.0, 3, null);
+        assertThatThrownBy(() -> bookService.updateBook(loaded.getId(), form, staleVersion))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT title, stock_quantity, borrowed_quantity, version FROM books WHERE id = ?", loaded.getId());
+        assertThat(row.get("TITLE")).isEqualTo("重构");
+        assertThat(row.get("STOCK_QUANTITY")).isEqualTo(2);
+        assertThat(row.get("BORROWED_QUANTITY")).isEqualTo(1);
+
+        long currentVersion = ((Number) row.get("VERSION")).longValue();
+        form.setStockQuantity(2);
+        Book updated = bookService.updateBook(loaded.getId(), form, currentVersion);
+
+        assertThat(updated.getTitle()).isEqualTo("重构（第2版）");
+        assertThat(updated.getVersion()).isGreaterThan(currentVersion);
+    }
+
+    private void borrow(Long bookId) {
+        jdbcTemplate.update("INSERT INTO users (username, password, role, email) "
+                + "VALUES ('update-conflict', '{noop}x', 'READER', 'update-conflict@example.com')");
+        Long userId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE username = 'update-conflict'", Long.class);
+        Borrowing borrowing = new Borrowing();
+        Book book = new Book();
+        book.setId(bookId);
+        User user = new User();
+        user.setId(userId);
+        borrowing.setBook(book);
+        borrowing.setUser(user);
+        borrowingService.borrowBook(borrowing);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import com.example.library.model.Borrowing;
+import com.example.library.model.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 多线程通过 {@link BorrowingService} 借还同一本书，库存只有几本，借光后的请求应被拒绝。
+ * 运行期间另有线程持续读取库存，检查 stock_quantity 从不为负；结束后核对
+ * stock_quantity + borrowed_quantity 不变、borrowed_quantity 等于未归还记录数、成功借出减成功归还等于未归还记录数。
+ * 吞吐量由 InventoryStressBenchmark 测量，这里只验证正确性。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BorrowingConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 25;
+    private static final int INITIAL_STOCK = 5;
+
+    private static final AtomicInteger BOOK_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeAll
+    void insertReader() {
+        jdbcTemplate.update("INSERT INTO users (username, password, role, email) "
+                + "VALUES ('concurrency', '{noop}x', 'READER', 'concurrency@example.com')");
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'concurrency'", Long.class);
+    }
+
+    @Test
+    void borrowAndReturnSameBookKeepsInventoryConsistent() throws Exception {
+        long bookId = insertBook();
+        LongAdder borrowed = new LongAdder();
+        LongAdder returned = new LongAdder();
+
+        long minimumStock = runConcurrently(bookId, () -> {
+            for (int round = 0; round < ROUNDS; round++) {
+                Borrowing borrowing = tryBorrow(bookId);
+                if (borrowing == null) {
+                    continue;
+                }
+                borrowed.increment();
+                // 一半的借阅归还两次，第二次应因状态已变更而失败
+                int attempts = round % 2 == 0 ? 2 : 1;
+                for (int i = 0; i < attempts; i++) {
+                    if (tryReturn(borrowing.getId())) {
+                        returned.increment();
+                    }
+                }
+            }
+            return null;
+        });
+
+        assertThat(minimumStock).as("运行期间的最小库存").isGreaterThanOrEqualTo(0);
+        assertThat(borrowed.sum()).isPositive();
+        assertThat(returned.sum()).as("每次借出恰好归还一次").isEqualTo(borrowed.sum());
+        assertInventory(bookId, borrowed.sum() - returned.sum());
+    }
+
+    @Test
+    void borrowOnlyNeverOversells() throws Exception {
+        long bookId = insertBook();
+        LongAdder borrowed = new LongAdder();
+        LongAdder rejected = new LongAdder();
+
+        long minimumStock = runConcurrently(bookId, () -> {
+            for (int round = 0; round < 3; round++) {
+                if (tryBorrow(bookId) != null) {
+                    borrowed.increment();
+                } else {
+                    rejected.increment();
+                }
+            }
+            return null;
+        });
+
+        assertThat(minimumStock).as("运行期间的最小库存").isGreaterThanOrEqualTo(0);
+        assertThat(borrowed.sum()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.sum()).isEqualTo(THREADS * 3L - INITIAL_STOCK);
+        assertInventory(bookId, INITIAL_STOCK);
+    }
+
+    /**
+     * THREADS 个线程同时开始执行 work，期间持续采样库存，返回观察到的最小 stock_quantity。
+     */
+    private long runConcurrently(long bookId, Callable<Void> work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<Long> sampler = executor.submit(() -> {
+                long minimum = Long.MAX_VALUE;
+                while (running.get()) {
+                    minimum = Math.min(minimum, stockOf(bookId));
+                    Thread.onSpinWait();
+                }
+                return minimum;
+            });
+            List<Future<Void>> workers = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    return work.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+            running.set(false);
+            return sampler.get(1, TimeUnit.MINUTES);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertInventory(long bookId, long expectedOut) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT stock_quantity, borrowed_quantity FROM books WHERE id = ?", bookId);
+        long stock = ((Number) row.get("stock_quantity")).longValue();
+        long out = ((Number) row.get("borrowed_quantity")).longValue();
+        Long active = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM borrowings WHERE book_id = ? AND status <> 'RETURNED'", Long.class, bookId);
+
+        assertThat(stock).as("stock_quantity").isGreaterThanOrEqualTo(0);
+        assertThat(stock + out).as("stock_quantity + borrowed_quantity").isEqualTo(INITIAL_STOCK);
+        assertThat(out).as("borrowed_quantity").isEqualTo(active).isEqualTo(expectedOut);
+    }
+
+    private Borrowing tryBorrow(long bookId) {
+        Borrowing borrowing = new Borrowing();
+        Book book = new Book();
+        book.setId(bookId);
+        User user = new User();
+        user.setId(userId);
+        borrowing.setBook(book);
+        borrowing.setUser(user);
+        try {
+            return borrowingService.borrowBook(borrowing);
+        } catch (RuntimeException e) {
+            // 库存不足
+            return null;
+        }
+    }
+
+    private boolean tryReturn(Long borrowingId) {
+        try {
+            borrowingService.returnBook(borrowingId);
+            return true;
+        } catch (RuntimeException e) {
+            // 已归还
+            return false;
+        }
+    }
+
+    private long insertBook() {
+        String isbn = "CONCURRENCY-" + BOOK_SEQUENCE.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO books (isbn, title, author, publisher, publish_year, price, "
+                + "stock_quantity, borrowed_quantity) VALUES (?, '并发图书', 'Stress', 'Stress', 2024, 1.0, ?, 0)",
+                isbn, INITIAL_STOCK);
+        return jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, isbn);
+    }
+
+    private long stockOf(long bookId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM books WHERE id = ?", Long.class, bookId);
+    }
+}
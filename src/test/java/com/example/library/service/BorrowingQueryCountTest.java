@@ -0,0 +1,171 @@
+package com.example.library.service;
+
+import com.example.library.dto.BorrowingView;
+import com.example.library.monitoring.QueryCounter;
+import com.example.library.pagination.CursorPage;
+import com.example.library.pagination.KeysetSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 借阅列表查询的 SQL 条数：分页查询为一条数据查询加一条 COUNT，列表和游标查询只有一条。
+ * 条数变多说明视图查询退回了逐行懒加载图书和用户（N+1）。
+ * 取第二页且页面填满，保证 Spring Data 不会省略 COUNT 查询。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BorrowingQueryCountTest {
+
+    private static final int USERS = 3;
+    private static final int BOOKS = 10;
+    private static final int BORROWINGS = 90;
+    private static final String[] STATUSES = { "BORROWED", "OVERDUE", "RETURNED" };
+
+    private final Pageable secondPage = PageRequest.of(1, 10, Sort.by("id").descending());
+    private final Pageable secondPageByDueDate = PageRequest.of(1, 10, Sort.by("dueDate").ascending());
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long bookId;
+
+    @BeforeAll
+    void insertBorrowings() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[] { "query-count-" + i, "{noop}x", "READER", "query-count-" + i + "@example.com" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, role, email) VALUES (?, ?, ?, ?)", users);
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Object[] { "QC-" + i, "查询计数图书 " + i });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (isbn, title, author, publisher, publish_year, price, "
+                + "stock_quantity) VALUES (?, ?, 'Counter', 'Counter', 2024, 1.0, 100)", books);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'query-count-%' ORDER BY id", Long.class);
+        List<Long> bookIds = jdbcTemplate.queryForList(
+                "SELECT id FROM books WHERE isbn LIKE 'QC-%' ORDER BY id", Long.class);
+
+        // 每个用户、每种状态各 30 条；在借的应还日期在未来，逾期的在过去
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<Object[]> borrowings = new ArrayList<>();
+        for (int i = 0; i < BORROWINGS; i++) {
+            String status = STATUSES[i / USERS % STATUSES.length];
+            LocalDateTime borrowDate = now.minusDays(60).plusHours(i);
+            LocalDateTime dueDate = "BORROWED".equals(status) ? now.plusDays(1 + i) : borrowDate.plusDays(30);
+            borrowings.add(new Object[] {
+                bookIds.get(i % BOOKS), userIds.get(i % USERS), borrowDate, dueDate, status
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO borrowings (book_id, user_id, borrow_date, due_date, status) "
+                + "VALUES (?, ?, ?, ?, ?)", borrowings);
+        userId = userIds.get(0);
+        bookId = bookIds.get(0);
+    }
+
+    @Test
+    void findAllBorrowingsRunsOneSelectAndOneCount() {
+        Page<BorrowingView> page = expectQueries(2, () -> borrowingService.findAllBorrowings(secondPage));
+
+        assertFullPage(page, count("SELECT COUNT(*) FROM borrowings"));
+    }
+
+    @Test
+    void findActiveBorrowingsRunsOneSelectAndOneCount() {
+        Page<BorrowingView> page = expectQueries(2, () -> borrowingService.findActiveBorrowings(secondPageByDueDate));
+
+        assertFullPage(page, count("SELECT COUNT(*) FROM borrowings WHERE status = 'BORROWED'"));
+        assertThat(page.getContent()).allMatch(view -> "BORROWED".equals(view.getStatus()));
+    }
+
+    @Test
+    void findOverdueBorrowingsRunsOneSelectAndOneCount() {
+        Page<BorrowingView> page = expectQueries(2, () -> borrowingService.findOverdueBorrowings(secondPageByDueDate));
+
+        assertFullPage(page, count("SELECT COUNT(*) FROM borrowings WHERE status = 'OVERDUE'"));
+        assertThat(page.getContent()).allMatch(view -> "OVERDUE".equals(view.getStatus()));
+    }
+
+    @Test
+    void findBorrowingsByUserRunsOneSelectAndOneCount() {
+        Page<BorrowingView> page = expectQueries(2, () -> borrowingService.findBorrowingsByUser(userId, secondPage));
+
+        assertFullPage(page, count("SELECT COUNT(*) FROM borrowings WHERE user_id = " + userId));
+        assertThat(page.getContent()).allMatch(view -> view.getUserId() == userId);
+    }
+
+    @Test
+    void findBorrowingsByBookRunsOneSelect() {
+        List<BorrowingView> views = expectQueries(1, () -> borrowingService.findBorrowingsByBook(bookId));
+
+        assertThat(views).hasSize(BORROWINGS / BOOKS);
+        assertThat(views).allSatisfy(view -> assertThat(view.getUsername()).startsWith("query-count-"));
+    }
+
+    @Test
+    void scrollBorrowingsRunsOneSelect() {
+        Sort sort = KeysetSupport.keysetSort("borrowDate", "desc", BorrowingService.KEYSET_SORTABLE);
+
+        CursorPage<BorrowingView> first = expectQueries(1, () -> borrowingService.scrollBorrowings("", 10, sort));
+        CursorPage<BorrowingView> second = expectQueries(1,
+                () -> borrowingService.scrollBorrowings(first.getNextCursor(), 10, sort));
+
+        assertThat(first.getContent()).hasSize(10);
+        assertThat(second.getContent()).hasSize(10);
+        assertThat(second.getContent().get(0).getBorrowDate())
+                .isBeforeOrEqualTo(first.getContent().get(9).getBorrowDate());
+    }
+
+    /**
+     * 执行调用并读取每行的图书和用户字段，断言本线程共发出 expected 条 SQL。
+     */
+    private <T> T expectQueries(int expected, Supplier<T> call) {
+        long before = queryCounter.current();
+        T result = call.get();
+        Iterable<?> rows = result instanceof CursorPage<?> cursorPage ? cursorPage.getContent() : (Iterable<?>) result;
+        for (Object row : rows) {
+            BorrowingView view = (BorrowingView) row;
+            assertThat(view.getBookTitle() + view.getBookAuthor() + view.getUsername()).isNotBlank();
+        }
+        assertThat(queryCounter.current() - before).as("SQL 条数").isEqualTo(expected);
+        return result;
+    }
+
+    private void assertFullPage(Page<BorrowingView> page, long total) {
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(total);
+        assertThat(page.getContent()).allSatisfy(view -> {
+            assertThat(view.getBookTitle()).isNotNull();
+            assertThat(view.getUsername()).isNotNull();
+        });
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
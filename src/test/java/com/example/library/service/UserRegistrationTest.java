@@ -0,0 +1,91 @@
+package com.example.library.service;
+
+import com.example.library.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 并发注册同一用户名：预检查都通过后，BCrypt 期间谁先写库谁成功，其余以“用户名已存在”结束。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class UserRegistrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void registersUser() {
+        User saved = userService.registerUser(new User("register-once", "secret123", "READER", null)).join();
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getPassword()).startsWith("$2");
+        assertThatThrownBy(() -> userService.registerUser(new User("register-once", "other", "READER", null)))
+                .hasMessageContaining("用户名已存在");
+    }
+
+    @Test
+    void concurrentRegistrationsOfSameUsernameCreateOneUser() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<User>>> submitted = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int attempt = i;
+                submitted.add(executor.submit(() -> {
+                    start.await();
+                    return userService.registerUser(new User("register-race", "secret" + attempt, "READER", null));
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            int duplicates = 0;
+            for (Future<CompletableFuture<User>> future : submitted) {
+                try {
+                    future.get(1, TimeUnit.MINUTES).join();
+                    succeeded++;
+                } catch (CompletionException e) {
+                    // 预检查通过，写库时违反唯一约束
+                    assertThat(e.getCause()).isInstanceOf(DuplicateKeyException.class)
+                            .hasMessageContaining("用户名已存在");
+                    duplicates++;
+                } catch (ExecutionException e) {
+                    // 预检查时对方已写库
+                    assertThat(e.getCause()).hasMessageContaining("用户名已存在");
+                    duplicates++;
+                }
+            }
+
+            assertThat(succeeded).isEqualTo(1);
+            assertThat(duplicates).isEqualTo(THREADS - 1);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM users WHERE username = 'register-race'", Long.class)).isEqualTo(1L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.library.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 逾期数的惰性计算：到期条目只在读取时移入 pastDue，移入前后的 remove 都要从正确的一侧扣除。
+ * 随机的借出、归还、续借与查询序列和逐条扫描的结果对照。
+ */
+class DueDateTrackerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0, 0);
+
+    @Test
+    void movesDueEntriesOnRead() {
+        DueDateTracker tracker = new DueDateTracker();
+        tracker.add(NOW.minusDays(1));
+        tracker.add(NOW.plusHours(1), 3);
+        tracker.add(NOW.plusDays(2));
+
+        assertThat(tracker.pastDue(NOW)).isEqualTo(1);
+        assertThat(tracker.pastDue(NOW.plusHours(2))).isEqualTo(4);
+        assertThat(tracker.pastDue(NOW.plusDays(3))).isEqualTo(5);
+    }
+
+    @Test
+    void removesFromUpcomingOrPastDue() {
+        DueDateTracker tracker = new DueDateTracker();
+        tracker.add(NOW.minusHours(1));
+        tracker.add(NOW.minusHours(1));
+        tracker.add(NOW.plusHours(1));
+
+        // 尚未读取，逾期条目仍在有序表中
+        tracker.remove(NOW.minusHours(1));
+        assertThat(tracker.pastDue(NOW)).isEqualTo(1);
+
+        // 已移入 pastDue 后归还
+        tracker.remove(NOW.minusHours(1));
+        assertThat(tracker.pastDue(NOW)).isZero();
+
+        tracker.remove(NOW.plusHours(1));
+        assertThat(tracker.pastDue(NOW.plusDays(1))).isZero();
+    }
+
+    @Test
+    void matchesDueDatesAtSecondPrecision() {
+        DueDateTracker tracker = new DueDateTracker();
+        tracker.add(NOW.plusSeconds(10).plusNanos(123_456_789));
+
+        tracker.remove(NOW.plusSeconds(10).plusNanos(999_000));
+        assertThat(tracker.pastDue(NOW.plusDays(1))).isZero();
+
+        tracker.add(NOW.plusNanos(700_000_000));
+        assertThat(tracker.pastDue(NOW)).as("截断到秒后与 now 相等，尚未逾期").isZero();
+        assertThat(tracker.pastDue(NOW.plusNanos(1))).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresNullsAndNeverReportsNegativeCounts() {
+        DueDateTracker tracker = new DueDateTracker();
+        tracker.add(null);
+        tracker.add(NOW.minusDays(1), 0);
+        tracker.remove(null);
+        assertThat(tracker.pastDue(NOW)).isZero();
+
+        tracker.remove(NOW.minusDays(1));
+        assertThat(tracker.pastDue(NOW)).isZero();
+    }
+
+    @Test
+    void matchesFullScanOverRandomOperations() {
+        Random random = new Random(7);
+        DueDateTracker tracker = new DueDateTracker();
+        List<LocalDateTime> active = new ArrayList<>();
+        LocalDateTime now = NOW;
+
+        for (int step = 0; step < 20_000; step++) {
+            int op = random.nextInt(10);
+            if (op < 4 || active.isEmpty()) {
+                LocalDateTime dueDate = now.plusSeconds(random.nextInt(7200) - 1800).plusNanos(random.nextInt(1_000_000_000));
+                tracker.add(dueDate);
+                active.add(dueDate);
+            } else if (op < 6) {
+                tracker.remove(active.remove(random.nextInt(active.size())));
+            } else if (op < 8) {
+                // 续借：旧日期离开，新日期加入
+                int index = random.nextInt(active.size());
+                LocalDateTime renewed = active.get(index).plusDays(random.nextInt(3));
+                tracker.remove(active.get(index));
+                tracker.add(renewed);
+                active.set(index, renewed);
+            } else {
+                now = now.plusSeconds(random.nextInt(120));
+                LocalDateTime at = now;
+                long expected = active.stream()
+                        .filter(dueDate -> dueDate.truncatedTo(ChronoUnit.SECONDS).isBefore(at))
+                        .count();
+                assertThat(tracker.pastDue(now)).as("第 %d 步", step).isEqualTo(expected);
+            }
+        }
+    }
+}
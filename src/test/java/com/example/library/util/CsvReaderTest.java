@@ -0,0 +1,97 @@
+package com.example.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CSV 读取（RFC 4180）：引号内的逗号、换行和 "" 转义，CRLF 与 LF 混用，空行跳过，
+ * 跨行记录之后的行号仍指向记录起始行；与 {@link CsvWriter} 写出的内容往返一致。
+ */
+class CsvReaderTest {
+
+    @Test
+    void readsPlainAndEmptyFields() throws IOException {
+        assertThat(readAll("isbn,title,,price\na,b,c,\n,\n")).containsExactly(
+                List.of("isbn", "title", "", "price"),
+                List.of("a", "b", "c", ""),
+                List.of("", ""));
+    }
+
+    @Test
+    void readsQuotedCommasQuotesAndEmptyQuotedFields() throws IOException {
+        assertThat(readAll("\"Smith, John\",\"他说\"\"你好\"\"\",\"\",\"\"\"\"\n")).containsExactly(
+                List.of("Smith, John", "他说\"你好\"", "", "\""));
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotedFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "id,description\r\n"
+                + "1,\"第一行\n第二行\r\n第三行\"\r\n"
+                + "\n"
+                + "2,\"末尾换行\n\"\n"
+                + "3,last"));
+
+        assertThat(reader.readRecord()).containsExactly("id", "description");
+        assertThat(reader.getLineNumber()).isEqualTo(1);
+        assertThat(reader.readRecord()).containsExactly("1", "第一行\n第二行\r\n第三行");
+        assertThat(reader.getLineNumber()).isEqualTo(2);
+        assertThat(reader.readRecord()).containsExactly("2", "末尾换行\n");
+        assertThat(reader.getLineNumber()).isEqualTo(6);
+        assertThat(reader.readRecord()).containsExactly("3", "last");
+        assertThat(reader.getLineNumber()).isEqualTo(8);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void handlesBareCarriageReturnsAndMissingFinalNewline() throws IOException {
+        assertThat(readAll("a,b\rc,d\r\n\r\ne,f")).containsExactly(
+                List.of("a", "b"), List.of("c", "d"), List.of("e", "f"));
+        assertThat(readAll("")).isEmpty();
+        assertThat(readAll("\n\r\n")).isEmpty();
+    }
+
+    @Test
+    void reportsUnterminatedQuoteWithStartLine() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("ok,1\n2,\"未闭合\n后续内容,3\n"));
+
+        assertThat(reader.readRecord()).containsExactly("ok", "1");
+        assertThatThrownBy(reader::readRecord)
+                .isInstanceOf(IOException.class)
+                .hasMessage("第 2 行开始的引号未闭合");
+    }
+
+    @Test
+    void readsBackWhatCsvWriterWrites() throws IOException {
+        List<List<String>> records = List.of(
+                List.of("978-7-111-21382-6", "Java 编程思想", "Bruce Eckel", "108.0"),
+                List.of("x", "逗号, 引号\" 和\r\n换行", "\"全部加引号\"", ""),
+                List.of("", ",", "\n", "\"\""));
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        for (List<String> record : records) {
+            writer.writeRecord(record.toArray());
+        }
+        writer.flush();
+
+        assertThat(readAll(out.toString())).containsExactlyElementsOf(records);
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}